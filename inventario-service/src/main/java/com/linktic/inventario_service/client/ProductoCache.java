@@ -0,0 +1,95 @@
+package com.linktic.inventario_service.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.linktic.inventario_service.dto.ProductoDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Caché en memoria de productos consultados a productos-service.
+ * Acotada por tamaño (desalojo W-TinyLFU) y con expiración por entrada desde su escritura.
+ * Además conserva, durante más tiempo, el último producto recibido junto con su ETag para
+ * revalidarlo con If-None-Match cuando la entrada vigente expira o se invalida.
+ * Las métricas se publican como cache_gets, cache_puts, cache_evictions y cache_size con tag cache=productos.
+ */
+@Component
+@Slf4j
+public class ProductoCache {
+
+    static final String NOMBRE = "productos";
+
+    private final Cache<Long, ProductoDTO> cache;
+    private final Cache<Long, Validado> validados;
+
+    public ProductoCache(@Value("${productos.cache.ttl:5m}") Duration ttl,
+                         @Value("${productos.cache.max-size:10000}") long maxSize,
+                         @Value("${productos.cache.revalidation-ttl:1h}") Duration revalidationTtl,
+                         MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.validados = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(revalidationTtl)
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NOMBRE);
+        log.info("Caché de productos configurada: ttl={}, maxSize={}, revalidationTtl={}",
+                ttl, maxSize, revalidationTtl);
+    }
+
+    public ProductoDTO obtener(Long productoId) {
+        return cache.getIfPresent(productoId);
+    }
+
+    public Map<Long, ProductoDTO> obtenerTodos(Collection<Long> productoIds) {
+        return cache.getAllPresent(productoIds);
+    }
+
+    public void guardar(ProductoDTO producto) {
+        cache.put(producto.getId(), producto);
+    }
+
+    public void guardar(ProductoDTO producto, String etag) {
+        guardar(producto);
+        if (etag != null) {
+            validados.put(producto.getId(), new Validado(producto, etag));
+        }
+    }
+
+    /**
+     * Último producto recibido con ETag, aunque ya no esté vigente en la caché principal.
+     */
+    public Validado obtenerValidado(Long productoId) {
+        return validados.getIfPresent(productoId);
+    }
+
+    public void invalidar(Long productoId) {
+        cache.invalidate(productoId);
+    }
+
+    public void invalidar(Collection<Long> productoIds) {
+        cache.invalidateAll(productoIds);
+    }
+
+    public void invalidarTodos() {
+        cache.invalidateAll();
+    }
+
+    public long tamanio() {
+        return cache.estimatedSize();
+    }
+
+    public record Validado(ProductoDTO producto, String etag) {
+    }
+}
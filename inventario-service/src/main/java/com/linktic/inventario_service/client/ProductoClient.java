@@ -3,6 +3,7 @@ package com.linktic.inventario_service.client;
 import com.linktic.inventario_service.dto.JsonApiDocument;
 import com.linktic.inventario_service.dto.ProductoDTO;
 import com.linktic.inventario_service.exception.ProductoServiceException;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.client.circuitbreaker.CircuitBreakerFactory;
@@ -11,35 +12,74 @@ import org.springframework.http.*;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 @Component
 @Slf4j
 public class ProductoClient {
 
+    /**
+     * Máximo de IDs que productos-service acepta en una consulta filter[id].
+     */
+    static final int MAX_IDS_POR_LOTE = 100;
+
     private final RestTemplate restTemplate;
     private final String productosServiceUrl;
     private final CircuitBreakerFactory<?, ?> circuitBreakerFactory;
     private final String apiKey;
+    private final ProductoCache productoCache;
+    private final SingleFlight<Long, ProductoDTO> consultasEnVuelo;
 
     public ProductoClient(RestTemplate restTemplate,
                           @Value("${productos.service.url}") String productosServiceUrl,
                           @Value("${productos.api.key}") String apiKey,
-                          CircuitBreakerFactory<?, ?> circuitBreakerFactory) {
+                          CircuitBreakerFactory<?, ?> circuitBreakerFactory,
+                          ProductoCache productoCache,
+                          MeterRegistry meterRegistry) {
         this.restTemplate = restTemplate;
         this.productosServiceUrl = productosServiceUrl;
         this.apiKey = apiKey;
         this.circuitBreakerFactory = circuitBreakerFactory;
+        this.productoCache = productoCache;
+        this.consultasEnVuelo = new SingleFlight<>("obtenerProducto", meterRegistry);
     }
 
     public ProductoDTO obtenerProducto(Long productoId) {
+        ProductoDTO enCache = productoCache.obtener(productoId);
+        if (enCache != null) {
+            return enCache;
+        }
+
+        // Las peticiones concurrentes por el mismo ID comparten una única llamada HTTP
+        return consultasEnVuelo.ejecutar(productoId, () -> consultarProducto(productoId));
+    }
+
+    /**
+     * Descarta la entrada en caché y vuelve a consultar productos-service.
+     */
+    public ProductoDTO refrescarProducto(Long productoId) {
+        productoCache.invalidar(productoId);
+        return obtenerProducto(productoId);
+    }
+
+    /**
+     * Consulta el producto y lo guarda en caché. Si hay una copia previa con ETag se envía
+     * If-None-Match, y un 304 reutiliza esa copia sin transferir el documento completo.
+     */
+    private ProductoDTO consultarProducto(Long productoId) {
         return circuitBreakerFactory.create("productos-service").run(
                 () -> {
                     log.info("Llamando a servicio de productos para ID: {}", productoId);
 
-                    HttpHeaders headers = new HttpHeaders();
-                    headers.set("X-API-Key", apiKey);
-                    headers.setContentType(MediaType.APPLICATION_JSON);
-                    headers.setAccept(MediaType.parseMediaTypes("application/vnd.api+json,application/json"));
-
+                    ProductoCache.Validado previo = productoCache.obtenerValidado(productoId);
+                    HttpHeaders headers = crearHeaders();
+                    if (previo != null) {
+                        headers.setIfNoneMatch(previo.etag());
+                    }
                     HttpEntity<Void> entity = new HttpEntity<>(headers);
 
                     try {
@@ -50,6 +90,12 @@ public class ProductoClient {
                                 new ParameterizedTypeReference<JsonApiDocument<ProductoDTO>>() {}
                         );
 
+                        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && previo != null) {
+                            log.debug("Producto ID {} sin cambios (304), se reutiliza la copia en caché", productoId);
+                            productoCache.guardar(previo.producto(), previo.etag());
+                            return previo.producto();
+                        }
+
                         // Validar respuesta
                         if (!response.getStatusCode().is2xxSuccessful()) {
                             throw new ProductoServiceException("Error HTTP: " + response.getStatusCode());
@@ -59,7 +105,9 @@ public class ProductoClient {
                             throw new ProductoServiceException("Producto no encontrado con ID: " + productoId);
                         }
 
-                        return response.getBody().getData();
+                        ProductoDTO producto = response.getBody().getData();
+                        productoCache.guardar(producto, response.getHeaders().getETag());
+                        return producto;
 
                     } catch (Exception e) {
                         log.error("Error al llamar al servicio de productos: {}", e.getMessage());
@@ -74,4 +122,86 @@ public class ProductoClient {
                 }
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * Obtiene varios productos con una sola llamada por cada lote de {@value #MAX_IDS_POR_LOTE} IDs
+     * que no estén ya en caché.
+     * Los IDs que no existen en productos-service simplemente no aparecen en el mapa resultante.
+     */
+    public Map<Long, ProductoDTO> obtenerProductos(Collection<Long> productoIds) {
+        Map<Long, ProductoDTO> productos = new LinkedHashMap<>(productoCache.obtenerTodos(productoIds));
+
+        List<Long> ids = productoIds.stream()
+                .distinct()
+                .filter(id -> !productos.containsKey(id))
+                .collect(Collectors.toList());
+
+        for (int desde = 0; desde < ids.size(); desde += MAX_IDS_POR_LOTE) {
+            List<Long> lote = ids.subList(desde, Math.min(desde + MAX_IDS_POR_LOTE, ids.size()));
+            obtenerLote(lote).forEach(producto -> {
+                productoCache.guardar(producto);
+                productos.put(producto.getId(), producto);
+            });
+        }
+
+        return productos;
+    }
+
+    /**
+     * Variante de {@link #obtenerProductos(Collection)} que descarta antes las entradas en caché,
+     * para decisiones que no deben basarse en datos posiblemente obsoletos.
+     */
+    public Map<Long, ProductoDTO> refrescarProductos(Collection<Long> productoIds) {
+        productoIds.forEach(productoCache::invalidar);
+        return obtenerProductos(productoIds);
+    }
+
+    private List<ProductoDTO> obtenerLote(List<Long> lote) {
+        String idsParam = lote.stream().map(String::valueOf).collect(Collectors.joining(","));
+
+        return circuitBreakerFactory.create("productos-service").run(
+                () -> {
+                    log.info("Llamando a servicio de productos para {} IDs", lote.size());
+
+                    HttpEntity<Void> entity = new HttpEntity<>(crearHeaders());
+
+                    try {
+                        ResponseEntity<JsonApiDocument<List<ProductoDTO>>> response = restTemplate.exchange(
+                                productosServiceUrl + "/api/v1/productos?filter[id]=" + idsParam,
+                                HttpMethod.GET,
+                                entity,
+                                new ParameterizedTypeReference<JsonApiDocument<List<ProductoDTO>>>() {}
+                        );
+
+                        if (!response.getStatusCode().is2xxSuccessful()) {
+                            throw new ProductoServiceException("Error HTTP: " + response.getStatusCode());
+                        }
+
+                        if (response.getBody() == null || response.getBody().getData() == null) {
+                            return List.<ProductoDTO>of();
+                        }
+
+                        return response.getBody().getData();
+
+                    } catch (Exception e) {
+                        log.error("Error al llamar al servicio de productos: {}", e.getMessage());
+                        throw new ProductoServiceException("Error de comunicación con servicio de productos: " + e.getMessage());
+                    }
+                },
+                throwable -> {
+                    log.error("Circuit breaker activado para lote de productos {}: {}", idsParam, throwable.getMessage());
+                    throw new ProductoServiceException(
+                            "Servicio de productos no disponible para IDs=" + idsParam + ". " + throwable.getMessage()
+                    );
+                }
+        );
+    }
+
+    private HttpHeaders crearHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-API-Key", apiKey);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(MediaType.parseMediaTypes("application/vnd.api+json,application/json"));
+        return headers;
+    }
+}
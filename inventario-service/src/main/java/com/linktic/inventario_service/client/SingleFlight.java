@@ -0,0 +1,63 @@
+package com.linktic.inventario_service.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa llamadas concurrentes con la misma clave: la primera ejecuta la operación y las demás
+ * esperan y reciben su mismo resultado (o su misma excepción). No guarda nada una vez terminada.
+ * Las llamadas agrupadas se cuentan en solicitudes.coalescidas con tag operacion.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> enVuelo = new ConcurrentHashMap<>();
+    private final Counter coalescidas;
+
+    public SingleFlight(String operacion, MeterRegistry meterRegistry) {
+        this.coalescidas = Counter.builder("solicitudes.coalescidas")
+                .description("Solicitudes que reutilizaron una llamada en curso con la misma clave")
+                .tag("operacion", operacion)
+                .register(meterRegistry);
+    }
+
+    public V ejecutar(K clave, Supplier<V> operacion) {
+        CompletableFuture<V> propia = new CompletableFuture<>();
+        CompletableFuture<V> enCurso = enVuelo.putIfAbsent(clave, propia);
+
+        if (enCurso != null) {
+            coalescidas.increment();
+            return esperar(enCurso);
+        }
+
+        try {
+            V resultado = operacion.get();
+            propia.complete(resultado);
+            return resultado;
+        } catch (RuntimeException | Error ex) {
+            propia.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            enVuelo.remove(clave, propia);
+        }
+    }
+
+    private V esperar(CompletableFuture<V> enCurso) {
+        try {
+            return enCurso.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (ex.getCause() instanceof Error causa) {
+                throw causa;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.linktic.inventario_service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.jdbc.init.DataSourceScriptDatabaseInitializer;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.boot.sql.init.DatabaseInitializationSettings;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Esquema que ddl-auto no sabe generar, en scripts SQL que ejecuta DataSourceScriptDatabaseInitializer
+ * solo sobre PostgreSQL (en H2, con @DataJpaTest, Hibernate crea el esquema completo):
+ * <ul>
+ *   <li>schema-postgresql.sql, antes de que Hibernate actualice el esquema: la tabla particionada de
+ *       movimientos. Spring Boot ejecuta los inicializadores de base de datos antes del EntityManagerFactory.</li>
+ *   <li>ajustes-postgresql.sql, después: índices parciales y de expresión sobre tablas que crea Hibernate.
+ *       Se expone como InitializingBean para que Spring Boot no lo adelante al EntityManagerFactory.</li>
+ * </ul>
+ */
+@Configuration
+@Slf4j
+public class EsquemaPostgresConfig {
+
+    static final String ESQUEMA = "classpath:schema-postgresql.sql";
+    static final String AJUSTES = "classpath:ajustes-postgresql.sql";
+
+    @Bean
+    public DataSourceScriptDatabaseInitializer esquemaPostgresInitializer(DataSource dataSource) {
+        return inicializador(dataSource, ESQUEMA);
+    }
+
+    @Bean
+    @DependsOn("entityManagerFactory")
+    public InitializingBean ajustesPostgresInitializer(DataSource dataSource) {
+        DataSourceScriptDatabaseInitializer ajustes = inicializador(dataSource, AJUSTES);
+        return ajustes::initializeDatabase;
+    }
+
+    /**
+     * Motor de la base de datos: los scripts y el mantenimiento de particiones solo aplican a PostgreSQL.
+     */
+    public static boolean esPostgres(JdbcTemplate jdbcTemplate) {
+        String motor = jdbcTemplate.execute((ConnectionCallback<String>) con ->
+                con.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(motor);
+    }
+
+    private static DataSourceScriptDatabaseInitializer inicializador(DataSource dataSource, String script) {
+        DatabaseInitializationSettings settings = new DatabaseInitializationSettings();
+        settings.setSchemaLocations(List.of(script));
+        settings.setMode(DatabaseInitializationMode.ALWAYS);
+
+        return new DataSourceScriptDatabaseInitializer(dataSource, settings) {
+            @Override
+            public boolean initializeDatabase() {
+                if (!esPostgres(new JdbcTemplate(dataSource))) {
+                    log.info("Base de datos no es PostgreSQL, se omite {}", script);
+                    return false;
+                }
+                boolean aplicado = super.initializeDatabase();
+                log.info("Esquema verificado: {}", script);
+                return aplicado;
+            }
+        };
+    }
+}
@@ -1,26 +1,96 @@
 package com.linktic.inventario_service.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
 import java.time.Duration;
 
 @Configuration
+@Slf4j
 public class RestTemplateConfig {
 
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout((int) Duration.ofSeconds(5).toMillis());
-        factory.setReadTimeout((int) Duration.ofSeconds(5).toMillis());
-
+    public RestTemplate restTemplate(RestTemplateBuilder builder, ClientHttpRequestFactory productosRequestFactory) {
         return builder
-                .requestFactory(() -> factory)
-                .setConnectTimeout(Duration.ofSeconds(5))
-                .setReadTimeout(Duration.ofSeconds(5))
+                .requestFactory(() -> productosRequestFactory)
+                .build();
+    }
+
+    /**
+     * HTTP_1_1 usa un pool de Apache HttpClient con límites por ruta y métricas
+     * httpcomponents.httpclient.pool.* (leased, available, pending).
+     * HTTP_2 usa el HttpClient del JDK, que multiplexa las peticiones sobre pocas conexiones.
+     */
+    @Bean
+    public ClientHttpRequestFactory productosRequestFactory(
+            @Value("${productos.http.version:HTTP_1_1}") HttpClient.Version version,
+            @Value("${productos.http.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${productos.http.read-timeout:5s}") Duration readTimeout,
+            @Value("${productos.http.pool.max-total:50}") int maxTotal,
+            @Value("${productos.http.pool.max-per-route:20}") int maxPorRuta,
+            @Value("${productos.http.pool.acquire-timeout:2s}") Duration esperaConexion,
+            @Value("${productos.http.pool.idle-eviction:30s}") Duration inactividadMaxima,
+            @Value("${productos.http.pool.keep-alive:30s}") Duration keepAlive,
+            MeterRegistry meterRegistry) {
+
+        if (version == HttpClient.Version.HTTP_2) {
+            log.info("Cliente HTTP hacia productos-service: JDK HttpClient con HTTP/2");
+            JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(connectTimeout)
+                    .build());
+            factory.setReadTimeout(readTimeout);
+            return factory;
+        }
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPorRuta)
+                .setDefaultSocketConfig(SocketConfig.custom()
+                        .setSoKeepAlive(true)
+                        .setTcpNoDelay(true)
+                        .build())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
                 .build();
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "productos-service")
+                .bindTo(meterRegistry);
+
+        log.info("Cliente HTTP hacia productos-service: pool Apache HttpClient (máx. total={}, máx. por ruta={})",
+                maxTotal, maxPorRuta);
+
+        return new HttpComponentsClientHttpRequestFactory(HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(esperaConexion))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        // Se usa cuando el servidor no envía la cabecera Keep-Alive
+                        .setConnectionKeepAlive(TimeValue.of(keepAlive))
+                        .build())
+                .evictIdleConnections(TimeValue.of(inactividadMaxima))
+                .evictExpiredConnections()
+                .build());
     }
 }
@@ -0,0 +1,48 @@
+package com.linktic.inventario_service.controller;
+
+import com.linktic.inventario_service.client.ProductoCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/cache/productos")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Caché", description = "Administración de la caché de productos")
+public class CacheController {
+
+    private final ProductoCache productoCache;
+
+    @DeleteMapping("/{productoId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "Invalidar un producto de la caché")
+    public void invalidarProducto(@PathVariable Long productoId) {
+        log.info("DELETE /api/v1/cache/productos/{} - Invalidando producto en caché", productoId);
+        productoCache.invalidar(productoId);
+    }
+
+    /**
+     * Invalida varios productos en una sola llamada; productos-service la usa tras confirmar sus cambios.
+     */
+    @PostMapping("/invalidaciones")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "Invalidar varios productos de la caché")
+    public void invalidarProductos(@RequestBody List<Long> productoIds) {
+        log.info("POST /api/v1/cache/productos/invalidaciones - Invalidando {} productos en caché", productoIds.size());
+        productoCache.invalidar(productoIds);
+    }
+
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "Invalidar toda la caché de productos")
+    public void invalidarTodos() {
+        log.info("DELETE /api/v1/cache/productos - Invalidando toda la caché de productos");
+        productoCache.invalidarTodos();
+    }
+}
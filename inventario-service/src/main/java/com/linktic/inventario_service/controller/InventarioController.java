@@ -1,7 +1,10 @@
 package com.linktic.inventario_service.controller;
 
 import com.linktic.inventario_service.dto.*;
+import com.linktic.inventario_service.events.DifusorEventosSse;
 import com.linktic.inventario_service.service.InventarioService;
+import com.linktic.inventario_service.service.MovimientoService;
+import com.linktic.inventario_service.service.StockHistoricoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -10,13 +13,21 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/inventarios")
@@ -26,6 +37,9 @@ import java.util.Map;
 public class InventarioController {
 
     private final InventarioService inventarioService;
+    private final MovimientoService movimientoService;
+    private final StockHistoricoService stockHistoricoService;
+    private final DifusorEventosSse difusorEventosSse;
 
     @PostMapping("/productos/{productoId}")
     @Operation(summary = "Crear inventario para un producto")
@@ -51,10 +65,14 @@ public class InventarioController {
     @GetMapping("/productos/{productoId}")
     @Operation(summary = "Consultar inventario de un producto")
     public ResponseEntity<JsonApiDocument<InventarioResponse>> consultarInventario(
-            @PathVariable Long productoId) {
+            @PathVariable Long productoId,
+            @RequestParam(required = false) String include,
+            @RequestParam(name = "fields[inventarios]", required = false) String fields) {
         log.info("GET /api/v1/inventarios/productos/{} - Consultando inventario", productoId);
 
-        InventarioResponse inventario = inventarioService.consultarInventario(productoId);
+        JsonApiFieldset fieldset = JsonApiFieldset.of(fields);
+        InventarioResponse inventario = aplicarFieldset(
+                inventarioService.consultarInventario(productoId, incluirProducto(include)), fieldset);
 
         JsonApiDocument<InventarioResponse> response = JsonApiDocument.<InventarioResponse>builder()
                 .data(inventario)
@@ -118,22 +136,101 @@ public class InventarioController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/productos/{productoId}/movimientos")
+    @Operation(summary = "Historial de movimientos de stock de un producto, del más reciente al más antiguo, por cursor")
+    public ResponseEntity<JsonApiDocument<List<MovimientoResponse>>> listarMovimientos(
+            @PathVariable Long productoId,
+            @RequestParam(name = "page[after]", required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        log.info("GET /api/v1/inventarios/productos/{}/movimientos - Historial después de: {}", productoId, after);
+
+        PaginaMovimientos movimientos = movimientoService.historial(productoId, after, size);
+
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("pageSize", size);
+        meta.put("hasNext", movimientos.isHasNext());
+
+        String base = "/api/v1/inventarios/productos/" + productoId + "/movimientos";
+        JsonApiLinks links = JsonApiLinks.builder()
+                .self(after != null ? String.format("%s?page[after]=%s&size=%d", base, after, size)
+                        : base + "?size=" + size)
+                .first(base + "?size=" + size)
+                .related("/api/v1/inventarios/productos/" + productoId)
+                .build();
+
+        if (movimientos.isHasNext()) {
+            links.setNext(String.format("%s?page[after]=%s&size=%d", base, movimientos.getNextCursor(), size));
+        }
+
+        JsonApiDocument<List<MovimientoResponse>> response =
+                JsonApiDocument.<List<MovimientoResponse>>builder()
+                        .data(movimientos.getContent())
+                        .meta(meta)
+                        .links(links)
+                        .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/productos/{productoId}/stock")
+    @Operation(summary = "Stock de un producto en un instante pasado (snapshot más deltas posteriores)")
+    public ResponseEntity<JsonApiDocument<StockHistoricoResponse>> consultarStockEn(
+            @PathVariable Long productoId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime instante) {
+        log.info("GET /api/v1/inventarios/productos/{}/stock - Stock en {}", productoId, instante);
+
+        JsonApiDocument<StockHistoricoResponse> response = JsonApiDocument.<StockHistoricoResponse>builder()
+                .data(stockHistoricoService.stockEn(productoId, instante))
+                .links(JsonApiLinks.builder()
+                        .self("/api/v1/inventarios/productos/" + productoId + "/stock?instante=" + instante)
+                        .related("/api/v1/inventarios/productos/" + productoId + "/movimientos")
+                        .build())
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/stock")
+    @Operation(summary = "Exportar como NDJSON el stock de todos los productos en un instante pasado")
+    public ResponseEntity<StreamingResponseBody> exportarStockEn(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime instante) {
+        log.info("GET /api/v1/inventarios/stock - Exportando stock en {}", instante);
+
+        StreamingResponseBody cuerpo = salida -> stockHistoricoService.exportarStockEn(instante, salida);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(cuerpo);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Cambios de stock en vivo (Server-Sent Events), opcionalmente filtrados por productos")
+    public SseEmitter streamInventarios(@RequestParam(required = false) Set<Long> productoIds) {
+        log.info("GET /api/v1/inventarios/stream - Suscripción SSE (productos: {})",
+                productoIds == null ? "todos" : productoIds);
+        return difusorEventosSse.suscribir(productoIds);
+    }
+
     @GetMapping
     @Operation(summary = "Listar todos los inventarios con paginación")
     public ResponseEntity<JsonApiDocument<List<InventarioResponse>>> listarInventarios(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sort,
-            @RequestParam(defaultValue = "ASC") String direction) {
+            @RequestParam(defaultValue = "ASC") String direction,
+            @RequestParam(required = false) String include,
+            @RequestParam(name = "fields[inventarios]", required = false) String fields) {
         log.info("GET /api/v1/inventarios - Listando inventarios página: {}", page);
 
         Sort.Direction sortDirection = Sort.Direction.fromString(direction);
         PageRequest pageRequest = PageRequest.of(page, size, Sort.by(sortDirection, sort));
 
-        Page<InventarioResponse> inventariosPage = inventarioService.listarInventarios(pageRequest);
+        JsonApiFieldset fieldset = JsonApiFieldset.of(fields);
+        Page<InventarioResponse> inventariosPage = inventarioService.listarInventarios(
+                pageRequest, incluirProducto(include));
 
         // Extraer solo el contenido de la página
-        List<InventarioResponse> inventarios = inventariosPage.getContent();
+        List<InventarioResponse> inventarios = aplicarFieldset(inventariosPage.getContent(), fieldset);
 
         Map<String, Object> meta = new HashMap<>();
         meta.put("totalPages", inventariosPage.getTotalPages());
@@ -170,18 +267,59 @@ public class InventarioController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(params = "page[after]")
+    @Operation(summary = "Listar inventarios por cursor (keyset) ordenados por ID, sin conteo total")
+    public ResponseEntity<JsonApiDocument<List<InventarioResponse>>> listarInventariosPorCursor(
+            @RequestParam("page[after]") Long after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String include,
+            @RequestParam(name = "fields[inventarios]", required = false) String fields) {
+        log.info("GET /api/v1/inventarios - Listando inventarios después de ID: {}", after);
+
+        JsonApiFieldset fieldset = JsonApiFieldset.of(fields);
+        CursorSlice<InventarioResponse> inventarios = inventarioService.listarInventariosDespuesDe(
+                after, size, incluirProducto(include));
+
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("pageSize", size);
+        meta.put("hasNext", inventarios.isHasNext());
+
+        JsonApiLinks links = JsonApiLinks.builder()
+                .self(String.format("/api/v1/inventarios?page[after]=%d&size=%d", after, size))
+                .first("/api/v1/inventarios?page[after]=0&size=" + size)
+                .build();
+
+        if (inventarios.isHasNext()) {
+            links.setNext(String.format("/api/v1/inventarios?page[after]=%d&size=%d",
+                    inventarios.getNextCursor(), size));
+        }
+
+        JsonApiDocument<List<InventarioResponse>> response =
+                JsonApiDocument.<List<InventarioResponse>>builder()
+                        .data(aplicarFieldset(inventarios.getContent(), fieldset))
+                        .meta(meta)
+                        .links(links)
+                        .build();
+
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/stock-bajo")
     @Operation(summary = "Listar inventarios con stock bajo")
     public ResponseEntity<JsonApiDocument<List<InventarioResponse>>> listarInventariosStockBajo(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String include,
+            @RequestParam(name = "fields[inventarios]", required = false) String fields) {
         log.info("GET /api/v1/inventarios/stock-bajo - Listando inventarios con stock bajo");
 
-        PageRequest pageRequest = PageRequest.of(page, size);
-        Page<InventarioResponse> inventariosPage = inventarioService.listarInventariosConStockBajo(pageRequest);
+        PageRequest pageRequest = PageRequest.of(page, size, Sort.by("id"));
+        JsonApiFieldset fieldset = JsonApiFieldset.of(fields);
+        Page<InventarioResponse> inventariosPage = inventarioService.listarInventariosConStockBajo(
+                pageRequest, incluirProducto(include));
 
         // Extraer solo el contenido de la página
-        List<InventarioResponse> inventarios = inventariosPage.getContent();
+        List<InventarioResponse> inventarios = aplicarFieldset(inventariosPage.getContent(), fieldset);
 
         Map<String, Object> meta = new HashMap<>();
         meta.put("totalPages", inventariosPage.getTotalPages());
@@ -189,6 +327,7 @@ public class InventarioController {
         meta.put("filtro", "stock_bajo");
         meta.put("currentPage", page);
         meta.put("pageSize", size);
+        meta.put("hasNext", inventariosPage.hasNext());
 
         JsonApiDocument<List<InventarioResponse>> response =
                 JsonApiDocument.<List<InventarioResponse>>builder()
@@ -198,4 +337,65 @@ public class InventarioController {
 
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/stock-bajo/count")
+    @Operation(summary = "Contar inventarios con stock bajo")
+    public ResponseEntity<JsonApiDocument<Void>> contarInventariosStockBajo() {
+        log.info("GET /api/v1/inventarios/stock-bajo/count - Contando inventarios con stock bajo");
+
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("filtro", "stock_bajo");
+        meta.put("total", inventarioService.contarInventariosConStockBajo());
+
+        JsonApiDocument<Void> response = JsonApiDocument.<Void>builder()
+                .meta(meta)
+                .links(JsonApiLinks.builder()
+                        .self("/api/v1/inventarios/stock-bajo/count")
+                        .related("/api/v1/inventarios/stock-bajo")
+                        .build())
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * El producto relacionado solo se consulta y se incluye si include lo pide: cada inclusión
+     * cuesta una llamada al servicio de productos.
+     */
+    private boolean incluirProducto(String include) {
+        return include != null && Arrays.stream(include.split(","))
+                .map(String::trim)
+                .anyMatch("producto"::equals);
+    }
+
+    private List<InventarioResponse> aplicarFieldset(List<InventarioResponse> inventarios, JsonApiFieldset fieldset) {
+        if (fieldset.esCompleto()) {
+            return inventarios;
+        }
+        return inventarios.stream()
+                .map(inv -> aplicarFieldset(inv, fieldset))
+                .collect(Collectors.toList());
+    }
+
+    private InventarioResponse aplicarFieldset(InventarioResponse inventario, JsonApiFieldset fieldset) {
+        if (fieldset.esCompleto()) {
+            return inventario;
+        }
+
+        InventarioResponse.Attributes attrs = inventario.getAttributes();
+        InventarioResponse.Attributes filtrados = InventarioResponse.Attributes.builder()
+                .cantidad(fieldset.incluye("cantidad") ? attrs.getCantidad() : null)
+                .cantidadMinima(fieldset.incluye("cantidadMinima") ? attrs.getCantidadMinima() : null)
+                .cantidadMaxima(fieldset.incluye("cantidadMaxima") ? attrs.getCantidadMaxima() : null)
+                .stockBajo(fieldset.incluye("stockBajo") ? attrs.getStockBajo() : null)
+                .ultimaActualizacion(fieldset.incluye("ultimaActualizacion") ? attrs.getUltimaActualizacion() : null)
+                .build();
+
+        return InventarioResponse.builder()
+                .type(inventario.getType())
+                .id(inventario.getId())
+                .attributes(filtrados)
+                .relationships(inventario.getRelationships())
+                .build();
+    }
+}
@@ -0,0 +1,23 @@
+package com.linktic.inventario_service.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Página obtenida por cursor (keyset). No incluye conteo total.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorSlice<T> {
+    private List<T> content;
+    private boolean hasNext;
+
+    /**
+     * Último ID recorrido en base de datos; es el valor de page[after] para la siguiente página.
+     * Puede no coincidir con el último elemento de content si se filtraron inventarios huérfanos.
+     */
+    private Long nextCursor;
+}
@@ -0,0 +1,48 @@
+package com.linktic.inventario_service.dto;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sparse fieldset de JSON:API (fields[tipo]=a,b).
+ * Sin parámetro se incluyen todos los campos. Los nombres se comparan sin distinguir
+ * mayúsculas ni guiones bajos, por lo que stockBajo y stock_bajo son equivalentes.
+ */
+public final class JsonApiFieldset {
+
+    private static final JsonApiFieldset TODOS = new JsonApiFieldset(null);
+
+    private final Set<String> campos;
+
+    private JsonApiFieldset(Set<String> campos) {
+        this.campos = campos;
+    }
+
+    public static JsonApiFieldset todos() {
+        return TODOS;
+    }
+
+    public static JsonApiFieldset of(String valor) {
+        if (valor == null) {
+            return TODOS;
+        }
+        return new JsonApiFieldset(Arrays.stream(valor.split(","))
+                .map(JsonApiFieldset::normalizar)
+                .filter(campo -> !campo.isEmpty())
+                .collect(Collectors.toSet()));
+    }
+
+    public boolean esCompleto() {
+        return campos == null;
+    }
+
+    public boolean incluye(String campo) {
+        return campos == null || campos.contains(normalizar(campo));
+    }
+
+    private static String normalizar(String campo) {
+        return campo.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,36 @@
+package com.linktic.inventario_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MovimientoResponse {
+
+    private String type = "movimientos";
+    private Long id;
+    private Attributes attributes;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Attributes {
+        @JsonProperty("producto_id")
+        private Long productoId;
+
+        private String tipo;
+
+        private Integer delta;
+
+        @JsonProperty("registrado_en")
+        private LocalDateTime registradoEn;
+    }
+}
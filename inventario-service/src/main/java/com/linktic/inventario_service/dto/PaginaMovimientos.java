@@ -0,0 +1,22 @@
+package com.linktic.inventario_service.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Página del historial de movimientos por cursor (registrado_en, id), del más reciente al más antiguo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaginaMovimientos {
+    private List<MovimientoResponse> content;
+    private boolean hasNext;
+
+    /**
+     * Valor de page[after] para la siguiente página ("microsegundos:id"); null si no hay más.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,42 @@
+package com.linktic.inventario_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stock de un producto en un instante pasado, reconstruido desde el libro de movimientos.
+ * El id es el del producto.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StockHistoricoResponse {
+
+    private String type = "stock_historico";
+    private Long id;
+    private Attributes attributes;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Attributes {
+        private Integer cantidad;
+
+        private LocalDateTime instante;
+
+        /** Corte del snapshot de partida; null si se reprodujo el historial desde el inicio. */
+        @JsonProperty("snapshot_hasta")
+        private LocalDateTime snapshotHasta;
+
+        /** Movimientos posteriores al snapshot sumados para llegar al instante. */
+        @JsonProperty("movimientos_aplicados")
+        private Integer movimientosAplicados;
+    }
+}
@@ -0,0 +1,54 @@
+package com.linktic.inventario_service.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de inventario pendiente de despacho. Se inserta en la misma transacción que el cambio
+ * de stock, de modo que solo existe si el cambio se confirmó, y se borra una vez entregado a todos
+ * los destinos.
+ */
+@Entity
+@Table(name = "eventos_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class EventoOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @Column(name = "tipo_operacion", nullable = false, length = 30)
+    private String tipoOperacion;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(name = "creado_en", nullable = false)
+    private LocalDateTime creadoEn;
+
+    @Column(nullable = false)
+    private int intentos;
+
+    @Column(name = "ultimo_error", length = 500)
+    private String ultimoError;
+
+    /**
+     * Antes de este instante el relay no lo toma: espera entre reintentos o reserva de la instancia
+     * que lo está entregando. Null si está listo desde su inserción.
+     */
+    @Column(name = "siguiente_intento")
+    private LocalDateTime siguienteIntento;
+
+    /** Nombres de los destinos que ya lo recibieron, separados por comas. */
+    @Column(name = "entregado_a", length = 200)
+    private String entregadoA;
+}
@@ -0,0 +1,47 @@
+package com.linktic.inventario_service.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento retirado del outbox sin entregar a todos los destinos: payload ilegible o intentos agotados.
+ * Conserva el ID del outbox y los destinos pendientes para poder reenviarlo a mano.
+ */
+@Entity
+@Table(name = "eventos_outbox_descartados")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class EventoOutboxDescartado {
+
+    @Id
+    private Long id;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @Column(name = "tipo_operacion", nullable = false, length = 30)
+    private String tipoOperacion;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(name = "creado_en", nullable = false)
+    private LocalDateTime creadoEn;
+
+    @Column(nullable = false)
+    private int intentos;
+
+    @Column(name = "ultimo_error", length = 500)
+    private String ultimoError;
+
+    @Column(name = "destinos_pendientes", length = 200)
+    private String destinosPendientes;
+
+    @Column(name = "descartado_en", nullable = false)
+    private LocalDateTime descartadoEn;
+}
@@ -0,0 +1,41 @@
+package com.linktic.inventario_service.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Movimiento de stock: fila de solo inserción en el libro de movimientos. La tabla está particionada
+ * por mes sobre registrado_en (ver schema-postgresql.sql) y el stock de un producto en cualquier
+ * instante es la suma de sus deltas hasta ese instante.
+ */
+@Entity
+@Table(name = "movimientos")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class Movimiento {
+
+    // Secuencia con asignación en bloques de 50: permite que Hibernate agrupe los INSERT en lotes JDBC
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movimientos_seq")
+    @SequenceGenerator(name = "movimientos_seq", sequenceName = "movimientos_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "producto_id", nullable = false, updatable = false)
+    private Long productoId;
+
+    /** CREACION, COMPRA, ACTUALIZACION, ELIMINACION_HUERFANO o APERTURA (inventarios anteriores al libro). */
+    @Column(nullable = false, updatable = false, length = 30)
+    private String tipo;
+
+    /** Variación de la cantidad: negativa en compras y eliminaciones. */
+    @Column(nullable = false, updatable = false)
+    private Integer delta;
+
+    @Column(name = "registrado_en", nullable = false, updatable = false)
+    private LocalDateTime registradoEn;
+}
@@ -0,0 +1,38 @@
+package com.linktic.inventario_service.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progreso persistido de una reconciliación por lotes. Mientras la fila exista la
+ * ejecución está incompleta y la siguiente continúa desde ultimoId.
+ */
+@Entity
+@Table(name = "reconciliacion_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliacionCheckpoint {
+
+    @Id
+    @Column(length = 50)
+    private String nombre;
+
+    @Column(name = "ultimo_id", nullable = false)
+    private Long ultimoId;
+
+    @Column(nullable = false)
+    private Long revisados;
+
+    @Column(nullable = false)
+    private Long eliminados;
+
+    @Column(name = "iniciado_en", nullable = false)
+    private LocalDateTime iniciadoEn;
+
+    @Column(name = "actualizado_en", nullable = false)
+    private LocalDateTime actualizadoEn;
+}
@@ -0,0 +1,47 @@
+package com.linktic.inventario_service.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+
+/**
+ * Stock de un producto acumulado hasta un instante: cantidad es la suma de todos sus movimientos
+ * con registrado_en menor o igual que hasta. Reconstruir el stock en un instante posterior solo
+ * requiere sumar los movimientos desde el snapshot, no todo el historial.
+ */
+@Entity
+@Table(name = "stock_snapshots", indexes = {
+        @Index(name = "idx_stock_snapshots_producto_hasta", columnList = "producto_id, hasta"),
+        @Index(name = "idx_stock_snapshots_hasta", columnList = "hasta")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class SnapshotStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @Column(nullable = false)
+    private Integer cantidad;
+
+    @Column(nullable = false)
+    private LocalDateTime hasta;
+
+    @Column(name = "tomado_en", nullable = false)
+    private LocalDateTime tomadoEn;
+
+    /**
+     * Inicio de la transacción más antigua en curso al tomar el corte: los movimientos que el corte no
+     * vio se insertaron en transacciones iniciadas después. Nulo en los snapshots que no toma el corte.
+     */
+    private OffsetDateTime horizonte;
+}
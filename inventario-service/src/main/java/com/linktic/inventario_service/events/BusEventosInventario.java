@@ -0,0 +1,47 @@
+package com.linktic.inventario_service.events;
+
+import com.linktic.inventario_service.entity.InventarioCambiadoEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Bus en proceso: reparte los eventos confirmados entre los componentes suscritos.
+ * El fallo de un suscriptor se registra y no afecta a los demás ni provoca reintentos.
+ */
+@Component
+@Slf4j
+public class BusEventosInventario implements EventoSink {
+
+    private final List<Consumer<InventarioCambiadoEvent>> suscriptores = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String nombre() {
+        return "bus";
+    }
+
+    /**
+     * Registra un suscriptor; el Runnable devuelto lo da de baja.
+     */
+    public Runnable suscribir(Consumer<InventarioCambiadoEvent> suscriptor) {
+        suscriptores.add(suscriptor);
+        return () -> suscriptores.remove(suscriptor);
+    }
+
+    @Override
+    public void enviar(List<InventarioCambiadoEvent> eventos) {
+        for (Consumer<InventarioCambiadoEvent> suscriptor : suscriptores) {
+            for (InventarioCambiadoEvent event : eventos) {
+                try {
+                    suscriptor.accept(event);
+                } catch (RuntimeException ex) {
+                    log.warn("Suscriptor del bus de eventos falló con productoId={}: {}",
+                            event.getProductoId(), ex.getMessage());
+                }
+            }
+        }
+    }
+}
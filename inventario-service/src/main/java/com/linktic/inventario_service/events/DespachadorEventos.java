@@ -0,0 +1,502 @@
+package com.linktic.inventario_service.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.linktic.inventario_service.entity.InventarioCambiadoEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Entrega asíncrona de eventos de inventario cuando el outbox está deshabilitado.
+ * Los eventos entran en una cola acotada y un hilo dedicado los agrupa durante una ventana corta,
+ * combina los de un mismo producto (cantidad anterior del primero, nueva del último) y entrega el
+ * lote a los EventoSink. Con la cola llena se aplica la PoliticaDesborde configurada; con
+ * DERRAMAR_A_DISCO los hilos que encolan solo apartan el evento y otro hilo dedicado lo escribe en el
+ * archivo por lotes, con un solo flush por lote.
+ * Métricas: inventario.eventos.cola, .encolados, .despachados, .coalescidos, .descartados,
+ * .derramados, .ilegibles, .fallidos y el retraso entre encolado y entrega (inventario.eventos.retraso).
+ */
+@Component
+@ConditionalOnProperty(name = "inventario.outbox.enabled", havingValue = "false")
+@Slf4j
+public class DespachadorEventos implements InitializingBean, DisposableBean {
+
+    private static final Duration ESPERA_COLA = Duration.ofMillis(200);
+
+    record Encolado(InventarioCambiadoEvent evento, long encoladoEn) {
+    }
+
+    private final List<EventoSink> sinks;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<Encolado> cola;
+    private final Duration ventana;
+    private final int tamanioLote;
+    private final PoliticaDesborde politica;
+    private final Duration bloqueoMaximo;
+    private final Path archivoDesborde;
+    private final Path archivoEnProceso;
+    private final Path archivoPosicion;
+
+    /** Decide si un evento va a la cola o al desborde; solo se retiene durante esa decisión. */
+    private final Object desbordeLock = new Object();
+    private boolean derramando;
+    /** Eventos apartados para el archivo de desborde, que el hilo escritor vacía por lotes. */
+    private final BlockingQueue<Encolado> porDerramar;
+    /** Apartados que aún no están en el archivo, incluido el lote que se está escribiendo. */
+    private final AtomicInteger sinEscribir = new AtomicInteger();
+    /** Protege el archivo de desborde y su escritor. */
+    private final Object archivoLock = new Object();
+    private BufferedWriter escritorDesborde;
+
+    private volatile boolean activo;
+    private Thread consumidor;
+    private Thread escritor;
+
+    private final Counter encolados;
+    private final Counter despachados;
+    private final Counter coalescidos;
+    private final Counter descartados;
+    private final Counter derramados;
+    private final Counter ilegibles;
+    private final Counter fallidos;
+    private final Timer retraso;
+
+    public DespachadorEventos(List<EventoSink> sinks,
+                              ObjectMapper objectMapper,
+                              @Value("${inventario.eventos.asincrono.capacidad:10000}") int capacidad,
+                              @Value("${inventario.eventos.asincrono.ventana:50ms}") Duration ventana,
+                              @Value("${inventario.eventos.asincrono.tamanio-lote:500}") int tamanioLote,
+                              @Value("${inventario.eventos.asincrono.desborde:DERRAMAR_A_DISCO}") PoliticaDesborde politica,
+                              @Value("${inventario.eventos.asincrono.bloqueo-maximo:1s}") Duration bloqueoMaximo,
+                              @Value("${inventario.eventos.asincrono.archivo-desborde:${java.io.tmpdir}/inventario-eventos.ndjson}")
+                              Path archivoDesborde,
+                              MeterRegistry meterRegistry) {
+        this.sinks = sinks;
+        this.objectMapper = objectMapper;
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        this.porDerramar = new ArrayBlockingQueue<>(capacidad);
+        this.ventana = ventana;
+        this.tamanioLote = tamanioLote;
+        this.politica = politica;
+        this.bloqueoMaximo = bloqueoMaximo;
+        this.archivoDesborde = archivoDesborde;
+        this.archivoEnProceso = archivoDesborde.resolveSibling(archivoDesborde.getFileName() + ".procesando");
+        this.archivoPosicion = archivoDesborde.resolveSibling(archivoDesborde.getFileName() + ".posicion");
+
+        meterRegistry.gaugeCollectionSize("inventario.eventos.cola", List.of(), cola);
+        this.encolados = contador(meterRegistry, "inventario.eventos.encolados", "Eventos recibidos por el despachador");
+        this.despachados = contador(meterRegistry, "inventario.eventos.despachados",
+                "Eventos entregados a los destinos, ya combinados por producto");
+        this.coalescidos = contador(meterRegistry, "inventario.eventos.coalescidos",
+                "Eventos absorbidos por otro del mismo producto dentro de la ventana");
+        this.descartados = contador(meterRegistry, "inventario.eventos.descartados",
+                "Eventos perdidos por cola llena o por no poder escribirse en el archivo de desborde");
+        this.derramados = contador(meterRegistry, "inventario.eventos.derramados",
+                "Eventos escritos en el archivo de desborde");
+        this.ilegibles = contador(meterRegistry, "inventario.eventos.ilegibles",
+                "Líneas del archivo de desborde que no se pudieron leer y se omitieron");
+        this.fallidos = contador(meterRegistry, "inventario.eventos.fallidos",
+                "Eventos que un destino no recibió porque falló (se cuentan una vez por destino)");
+        this.retraso = Timer.builder("inventario.eventos.retraso")
+                .description("Tiempo entre el encolado de un evento y su entrega")
+                .register(meterRegistry);
+    }
+
+    private static Counter contador(MeterRegistry registry, String nombre, String descripcion) {
+        return Counter.builder(nombre).description(descripcion).register(registry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        synchronized (desbordeLock) {
+            // Un archivo de una ejecución anterior se reproduce antes que los eventos nuevos
+            derramando |= Files.exists(archivoDesborde) || Files.exists(archivoEnProceso);
+        }
+        activo = true;
+        consumidor = new Thread(this::consumir, "inventario-eventos");
+        consumidor.setDaemon(true);
+        consumidor.start();
+        if (politica == PoliticaDesborde.DERRAMAR_A_DISCO) {
+            escritor = new Thread(this::escribirDesborde, "inventario-eventos-desborde");
+            escritor.setDaemon(true);
+            escritor.start();
+        }
+        log.info("Despachador asíncrono de eventos: capacidad={}, ventana={}, desborde={}",
+                cola.remainingCapacity(), ventana, politica);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        activo = false;
+        if (consumidor != null) {
+            consumidor.join(Duration.ofSeconds(5).toMillis());
+        }
+        // Lo apartado y aún sin escribir queda en el archivo, para reproducirlo en el próximo arranque
+        if (escritor != null) {
+            escritor.join(Duration.ofSeconds(5).toMillis());
+        }
+        synchronized (archivoLock) {
+            cerrarEscritor();
+        }
+    }
+
+    /**
+     * Encola el evento sin esperar su entrega. Solo bloquea con la política BLOQUEAR y la cola llena;
+     * con DERRAMAR_A_DISCO no escribe en disco desde el hilo que llama.
+     */
+    public void encolar(InventarioCambiadoEvent evento) {
+        Encolado encolado = new Encolado(evento, System.currentTimeMillis());
+        encolados.increment();
+
+        switch (politica) {
+            case BLOQUEAR -> {
+                boolean aceptado;
+                try {
+                    aceptado = cola.offer(encolado, bloqueoMaximo.toNanos(), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    aceptado = false;
+                }
+                if (!aceptado) {
+                    descartar(evento);
+                }
+            }
+            case DESCARTAR_ANTIGUO -> {
+                while (!cola.offer(encolado)) {
+                    Encolado antiguo = cola.poll();
+                    if (antiguo != null) {
+                        descartar(antiguo.evento());
+                    }
+                }
+            }
+            case DERRAMAR_A_DISCO -> {
+                synchronized (desbordeLock) {
+                    // Mientras haya eventos en disco los nuevos van detrás, para conservar el orden
+                    if (derramando || !cola.offer(encolado)) {
+                        apartar(encolado);
+                    }
+                }
+            }
+        }
+    }
+
+    private void consumir() {
+        while (activo || !cola.isEmpty()) {
+            try {
+                ciclo();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.error("Error en el despachador de eventos de inventario: {}", ex.getMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * Una iteración del consumidor: reproduce el archivo de desborde si la cola está vacía o,
+     * si no, reúne un lote durante la ventana y lo entrega. Retorna los eventos procesados.
+     */
+    private int ciclo() throws InterruptedException {
+        Encolado primero = cola.poll(ESPERA_COLA.toNanos(), TimeUnit.NANOSECONDS);
+        if (primero == null) {
+            return reproducirDesborde();
+        }
+
+        List<Encolado> lote = new ArrayList<>(tamanioLote);
+        lote.add(primero);
+        long limite = System.nanoTime() + ventana.toNanos();
+        while (lote.size() < tamanioLote) {
+            long restante = limite - System.nanoTime();
+            if (restante <= 0) {
+                break;
+            }
+            Encolado siguiente = cola.poll(restante, TimeUnit.NANOSECONDS);
+            if (siguiente == null) {
+                break;
+            }
+            lote.add(siguiente);
+        }
+
+        despachar(lote);
+        return lote.size();
+    }
+
+    private void despachar(List<Encolado> lote) {
+        Map<Long, InventarioCambiadoEvent> porProducto = new LinkedHashMap<>();
+        for (Encolado encolado : lote) {
+            porProducto.merge(encolado.evento().getProductoId(), encolado.evento(), DespachadorEventos::combinar);
+        }
+        List<InventarioCambiadoEvent> eventos = new ArrayList<>(porProducto.values());
+
+        for (EventoSink sink : sinks) {
+            try {
+                sink.enviar(eventos);
+            } catch (RuntimeException ex) {
+                fallidos.increment(eventos.size());
+                log.warn("Destino de eventos '{}' falló con un lote de {} eventos: {}",
+                        sink.nombre(), eventos.size(), ex.getMessage());
+            }
+        }
+
+        long ahora = System.currentTimeMillis();
+        for (Encolado encolado : lote) {
+            retraso.record(Math.max(0, ahora - encolado.encoladoEn()), TimeUnit.MILLISECONDS);
+        }
+        despachados.increment(eventos.size());
+        coalescidos.increment(lote.size() - eventos.size());
+    }
+
+    private static InventarioCambiadoEvent combinar(InventarioCambiadoEvent previo, InventarioCambiadoEvent nuevo) {
+        return new InventarioCambiadoEvent(
+                nuevo.getProductoId(),
+                previo.getCantidadAnterior(),
+                nuevo.getCantidadNueva(),
+                nuevo.getTipoOperacion(),
+                nuevo.getTimestamp()
+        );
+    }
+
+    private void descartar(InventarioCambiadoEvent evento) {
+        descartados.increment();
+        log.warn("Cola de eventos llena, se descarta el evento de productoId={} ({})",
+                evento.getProductoId(), evento.getTipoOperacion());
+    }
+
+    private void apartar(Encolado encolado) {
+        if (porDerramar.offer(encolado)) {
+            sinEscribir.incrementAndGet();
+            derramando = true;
+        } else {
+            descartar(encolado.evento());
+        }
+    }
+
+    /**
+     * Hilo escritor: vacía los eventos apartados en el archivo de desborde, un lote por escritura.
+     */
+    private void escribirDesborde() {
+        List<Encolado> lote = new ArrayList<>(tamanioLote);
+        while (activo || !porDerramar.isEmpty()) {
+            try {
+                Encolado primero = porDerramar.poll(ESPERA_COLA.toNanos(), TimeUnit.NANOSECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+                porDerramar.drainTo(lote, tamanioLote - 1);
+                derramar(lote);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.error("Error en el escritor del archivo de desborde: {}", ex.getMessage(), ex);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void derramar(List<Encolado> lote) {
+        synchronized (archivoLock) {
+            try {
+                if (escritorDesborde == null) {
+                    terminarLinea(archivoDesborde);
+                    escritorDesborde = Files.newBufferedWriter(archivoDesborde, StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+                for (Encolado encolado : lote) {
+                    escritorDesborde.write(objectMapper.writeValueAsString(encolado));
+                    // Siempre \n: la posición de reproducción se cuenta en bytes
+                    escritorDesborde.write('\n');
+                }
+                escritorDesborde.flush();
+                derramados.increment(lote.size());
+            } catch (IOException ex) {
+                log.error("No fue posible escribir {} eventos en el archivo de desborde {}: {}",
+                        lote.size(), archivoDesborde, ex.getMessage());
+                cerrarEscritor();
+                lote.forEach(encolado -> descartar(encolado.evento()));
+            } finally {
+                sinEscribir.addAndGet(-lote.size());
+            }
+        }
+    }
+
+    /**
+     * Con la cola vacía, toma el archivo de desborde (lo que se aparte después va a un archivo nuevo)
+     * y lo entrega por lotes. Todo lo que contiene es anterior a la cola actual. Los eventos nuevos
+     * vuelven a la cola solo cuando no queda nada apartado ni escrito tras la toma; si no, se
+     * reproducen en el siguiente ciclo. Tras cada lote guarda en el archivo .posicion hasta dónde
+     * llegó: una reproducción interrumpida continúa desde ahí en vez de repetir lo ya entregado.
+     */
+    private int reproducirDesborde() {
+        synchronized (desbordeLock) {
+            if (!derramando) {
+                return 0;
+            }
+        }
+        // Sin retener desbordeLock: la copia de un archivo grande no detiene a quienes encolan
+        synchronized (archivoLock) {
+            try {
+                cerrarEscritor();
+                if (Files.exists(archivoDesborde)) {
+                    if (Files.exists(archivoEnProceso)) {
+                        // Restos de una reproducción interrumpida: se entregan primero. Una última línea
+                        // truncada se cierra para que no se junte con la primera del archivo nuevo
+                        terminarLinea(archivoEnProceso);
+                        try (InputStream entrada = Files.newInputStream(archivoDesborde);
+                             OutputStream salida = Files.newOutputStream(archivoEnProceso, StandardOpenOption.APPEND)) {
+                            entrada.transferTo(salida);
+                        }
+                        Files.delete(archivoDesborde);
+                    } else {
+                        Files.deleteIfExists(archivoPosicion);
+                        Files.move(archivoDesborde, archivoEnProceso, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        synchronized (desbordeLock) {
+            // Mientras se tenga el bloqueo no se aparta nada nuevo, así que ambas condiciones son estables
+            if (sinEscribir.get() == 0 && !Files.exists(archivoDesborde)) {
+                derramando = false;
+            }
+        }
+        if (!Files.exists(archivoEnProceso)) {
+            return 0;
+        }
+
+        try {
+            int reproducidos = reproducir();
+            // Primero el archivo: sin él, una posición que quede huérfana no se vuelve a usar
+            Files.deleteIfExists(archivoEnProceso);
+            Files.deleteIfExists(archivoPosicion);
+            log.info("Archivo de desborde reproducido: {} eventos", reproducidos);
+            return reproducidos;
+        } catch (IOException ex) {
+            synchronized (desbordeLock) {
+                // Se reintenta en el siguiente ciclo desde la última posición guardada
+                derramando = true;
+            }
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private int reproducir() throws IOException {
+        long posicion = Math.min(leerPosicion(), Files.size(archivoEnProceso));
+        int reproducidos = 0;
+        try (InputStream entrada = Files.newInputStream(archivoEnProceso)) {
+            entrada.skipNBytes(posicion);
+            BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+            List<Encolado> lote = new ArrayList<>(tamanioLote);
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                posicion += linea.getBytes(StandardCharsets.UTF_8).length + 1;
+                if (linea.isBlank()) {
+                    continue;
+                }
+                try {
+                    lote.add(objectMapper.readValue(linea, Encolado.class));
+                } catch (JsonProcessingException ex) {
+                    // Típicamente la última línea de una escritura interrumpida por una caída
+                    ilegibles.increment();
+                    log.warn("Línea ilegible en el archivo de desborde, se omite: {}", ex.getOriginalMessage());
+                    continue;
+                }
+                if (lote.size() == tamanioLote) {
+                    reproducidos += entregar(lote);
+                    Files.writeString(archivoPosicion, Long.toString(posicion));
+                }
+            }
+            reproducidos += entregar(lote);
+        }
+        return reproducidos;
+    }
+
+    private long leerPosicion() throws IOException {
+        if (!Files.exists(archivoPosicion)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(Files.readString(archivoPosicion).trim());
+        } catch (NumberFormatException ex) {
+            log.warn("Posición de reproducción ilegible en {}, se reproduce desde el inicio", archivoPosicion);
+            return 0;
+        }
+    }
+
+    /**
+     * Agrega un salto de línea si el archivo existe y no termina en uno.
+     */
+    private static void terminarLinea(Path archivo) throws IOException {
+        if (!Files.exists(archivo)) {
+            return;
+        }
+        try (SeekableByteChannel canal = Files.newByteChannel(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long tamanio = canal.size();
+            if (tamanio == 0) {
+                return;
+            }
+            ByteBuffer ultimo = ByteBuffer.allocate(1);
+            canal.position(tamanio - 1).read(ultimo);
+            if (ultimo.get(0) != '\n') {
+                canal.position(tamanio).write(ByteBuffer.wrap(new byte[]{'\n'}));
+            }
+        }
+    }
+
+    private int entregar(List<Encolado> lote) {
+        int n = lote.size();
+        if (n > 0) {
+            despachar(lote);
+            lote.clear();
+        }
+        return n;
+    }
+
+    private void cerrarEscritor() {
+        if (escritorDesborde != null) {
+            try {
+                escritorDesborde.close();
+            } catch (IOException ex) {
+                log.warn("No fue posible cerrar el archivo de desborde: {}", ex.getMessage());
+            }
+            escritorDesborde = null;
+        }
+    }
+
+}
@@ -0,0 +1,331 @@
+package com.linktic.inventario_service.events;
+
+import com.linktic.inventario_service.entity.InventarioCambiadoEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reparte los eventos del bus en proceso entre los clientes de GET /api/v1/inventarios/stream (SSE).
+ * El hilo que publica en el bus (relay del outbox o despachador) solo encola en el buffer acotado de
+ * cada suscriptor interesado y nunca espera a la red; el envío lo hace un pool compartido, con a lo
+ * sumo un envío en curso por suscriptor para conservar el orden. Si un suscriptor no consume a tiempo
+ * y su buffer se llena, se aplica la política de descarte.
+ * Un envío es una escritura bloqueante del servlet: si uno sigue en curso después de envio-maximo
+ * (cliente con la ventana TCP llena), el suscriptor se expulsa, su hilo se interrumpe y el pool suma
+ * un hilo mientras esa escritura no termine, de modo que los demás siempre disponen de {@code hilos}.
+ * send y complete del emitter se sincronizan sobre el mismo monitor: solo el hilo de envío del
+ * suscriptor cierra su emitter, nunca el hilo que publica ni el apagado.
+ */
+@Component
+@Slf4j
+public class DifusorEventosSse implements InitializingBean, DisposableBean {
+
+    static final String EVENTO = "inventario";
+
+    private final BusEventosInventario bus;
+    private final int capacidad;
+    private final PoliticaDescarteSse politica;
+    private final Duration timeout;
+    private final Duration envioMaximo;
+    private final int hilos;
+    private final ThreadPoolExecutor envios;
+    private int bloqueados;
+
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final Counter enviados;
+    private final Counter descartados;
+    private final Counter expulsados;
+    private Runnable bajaDelBus;
+
+    public DifusorEventosSse(BusEventosInventario bus,
+                             @Value("${inventario.sse.capacidad:256}") int capacidad,
+                             @Value("${inventario.sse.descarte:DESCARTAR_ANTIGUO}") PoliticaDescarteSse politica,
+                             @Value("${inventario.sse.timeout:30m}") Duration timeout,
+                             @Value("${inventario.sse.hilos:4}") int hilos,
+                             @Value("${inventario.sse.envio-maximo:5s}") Duration envioMaximo,
+                             MeterRegistry meterRegistry) {
+        this.bus = bus;
+        this.capacidad = capacidad;
+        this.politica = politica;
+        this.timeout = timeout;
+        this.envioMaximo = envioMaximo;
+        this.hilos = hilos;
+
+        AtomicInteger numero = new AtomicInteger();
+        this.envios = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "inventario-sse-" + numero.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+
+        meterRegistry.gaugeCollectionSize("inventario.sse.suscriptores", List.of(), suscriptores);
+        this.enviados = Counter.builder("inventario.sse.enviados")
+                .description("Eventos de inventario enviados a suscriptores SSE")
+                .register(meterRegistry);
+        this.descartados = Counter.builder("inventario.sse.descartados")
+                .description("Eventos de inventario descartados por buffer SSE lleno")
+                .register(meterRegistry);
+        this.expulsados = Counter.builder("inventario.sse.expulsados")
+                .description("Suscriptores SSE desconectados por un envío bloqueado más de envio-maximo")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        bajaDelBus = bus.suscribir(this::publicar);
+    }
+
+    /**
+     * Cierra cada emitter desde su hilo de envío y espera a lo sumo envio-maximo; las escrituras que
+     * siguen bloqueadas después se interrumpen.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        if (bajaDelBus != null) {
+            bajaDelBus.run();
+        }
+        suscriptores.forEach(this::desconectar);
+        envios.shutdown();
+        if (!envios.awaitTermination(envioMaximo.toMillis(), TimeUnit.MILLISECONDS)) {
+            envios.shutdownNow();
+        }
+    }
+
+    /**
+     * Registra un cliente SSE. Con productoIds vacío o null recibe los eventos de todos los productos.
+     */
+    public SseEmitter suscribir(Set<Long> productoIds) {
+        SseEmitter emitter = crearEmitter();
+        Suscriptor suscriptor = new Suscriptor(emitter,
+                productoIds == null || productoIds.isEmpty() ? Set.of() : Set.copyOf(productoIds),
+                new ArrayBlockingQueue<>(capacidad));
+
+        emitter.onCompletion(() -> suscriptores.remove(suscriptor));
+        emitter.onTimeout(() -> suscriptores.remove(suscriptor));
+        emitter.onError(ex -> suscriptores.remove(suscriptor));
+        suscriptores.add(suscriptor);
+
+        log.debug("Suscriptor SSE registrado (productos: {}), activos: {}",
+                suscriptor.productoIds.isEmpty() ? "todos" : suscriptor.productoIds, suscriptores.size());
+        return emitter;
+    }
+
+    protected SseEmitter crearEmitter() {
+        return new SseEmitter(timeout.toMillis());
+    }
+
+    /**
+     * Invocado por el bus: encola sin bloquear y programa el envío.
+     */
+    private void publicar(InventarioCambiadoEvent event) {
+        for (Suscriptor suscriptor : suscriptores) {
+            if (suscriptor.interesa(event) && encolar(suscriptor, event)) {
+                programarEnvio(suscriptor);
+            }
+        }
+    }
+
+    private boolean encolar(Suscriptor suscriptor, InventarioCambiadoEvent event) {
+        if (suscriptor.buffer.offer(event)) {
+            return true;
+        }
+        descartados.increment();
+        switch (politica) {
+            case DESCARTAR_ANTIGUO -> {
+                // El envío puede haber vaciado el buffer entre medias: poll y offer no fallan por ello
+                suscriptor.buffer.poll();
+                return suscriptor.buffer.offer(event);
+            }
+            case DESCONECTAR -> {
+                log.warn("Suscriptor SSE desconectado por buffer lleno ({} eventos)", capacidad);
+                desconectar(suscriptor);
+                return false;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Comentario periódico: mantiene la conexión abierta a través de proxies y detecta clientes caídos.
+     */
+    @Scheduled(fixedDelayString = "${inventario.sse.latido:15s}")
+    public void latido() {
+        for (Suscriptor suscriptor : suscriptores) {
+            suscriptor.latidoPendiente.set(true);
+            programarEnvio(suscriptor);
+        }
+    }
+
+    /**
+     * Expulsa a los suscriptores con un envío en curso desde hace más de envio-maximo. No espera a que
+     * la escritura termine: el emitter se cierra desde el hilo de envío cuando esta retorna.
+     */
+    @Scheduled(fixedDelayString = "${inventario.sse.vigilancia:1s}")
+    public void vigilarEnvios() {
+        long limite = System.nanoTime() - envioMaximo.toNanos();
+        for (Suscriptor suscriptor : suscriptores) {
+            if (suscriptor.expulsarSiBloqueado(limite)) {
+                suscriptores.remove(suscriptor);
+                suscriptor.buffer.clear();
+                expulsados.increment();
+                compensar(1);
+                log.warn("Suscriptor SSE expulsado: envío bloqueado más de {}", envioMaximo);
+            }
+        }
+    }
+
+    /**
+     * Ajusta el pool a hilos + envíos bloqueados de suscriptores expulsados.
+     */
+    private synchronized void compensar(int delta) {
+        bloqueados += delta;
+        int tamanio = hilos + bloqueados;
+        if (delta > 0) {
+            envios.setMaximumPoolSize(tamanio);
+            envios.setCorePoolSize(tamanio);
+        } else {
+            envios.setCorePoolSize(tamanio);
+            envios.setMaximumPoolSize(tamanio);
+        }
+    }
+
+    private void programarEnvio(Suscriptor suscriptor) {
+        if (suscriptor.enviando.compareAndSet(false, true)) {
+            envios.execute(() -> enviar(suscriptor));
+        }
+    }
+
+    private void enviar(Suscriptor suscriptor) {
+        try {
+            do {
+                if (suscriptor.cerrado.get()) {
+                    suscriptor.emitter.complete();
+                    return;
+                }
+                if (suscriptor.latidoPendiente.getAndSet(false)) {
+                    enviarEvento(suscriptor, SseEmitter.event().comment("latido"));
+                }
+                InventarioCambiadoEvent event;
+                while ((event = suscriptor.buffer.poll()) != null) {
+                    enviarEvento(suscriptor, SseEmitter.event()
+                            .name(EVENTO)
+                            .data(event, MediaType.APPLICATION_JSON));
+                    enviados.increment();
+                }
+                suscriptor.enviando.set(false);
+                // Lo encolado después de vaciar el buffer y antes de liberar el envío no debe quedar esperando
+            } while ((!suscriptor.buffer.isEmpty() || suscriptor.latidoPendiente.get() || suscriptor.cerrado.get())
+                    && suscriptor.enviando.compareAndSet(false, true));
+        } catch (IOException | IllegalStateException ex) {
+            log.debug("Suscriptor SSE desconectado: {}", ex.getMessage());
+            suscriptores.remove(suscriptor);
+            suscriptor.buffer.clear();
+            suscriptor.emitter.complete();
+        }
+    }
+
+    private void enviarEvento(Suscriptor suscriptor, SseEmitter.SseEventBuilder evento) throws IOException {
+        suscriptor.iniciarEnvio();
+        boolean expulsado;
+        try {
+            suscriptor.emitter.send(evento);
+        } finally {
+            expulsado = suscriptor.terminarEnvio();
+            if (expulsado) {
+                // La interrupción era para este envío, no para la siguiente tarea del hilo
+                Thread.interrupted();
+                compensar(-1);
+            }
+        }
+        if (expulsado) {
+            throw new IllegalStateException("envío bloqueado más de " + envioMaximo);
+        }
+    }
+
+    /**
+     * Da de baja al suscriptor sin tocar el emitter: lo cierra su hilo de envío, al terminar el envío
+     * en curso si lo hay.
+     */
+    private void desconectar(Suscriptor suscriptor) {
+        suscriptor.cerrado.set(true);
+        suscriptores.remove(suscriptor);
+        suscriptor.buffer.clear();
+        programarEnvio(suscriptor);
+    }
+
+    /**
+     * Igualdad por identidad: cada conexión es un suscriptor distinto aunque filtre los mismos productos.
+     */
+    private static final class Suscriptor {
+        private final SseEmitter emitter;
+        private final Set<Long> productoIds;
+        private final BlockingQueue<InventarioCambiadoEvent> buffer;
+        private final AtomicBoolean enviando = new AtomicBoolean();
+        private final AtomicBoolean latidoPendiente = new AtomicBoolean();
+        private final AtomicBoolean cerrado = new AtomicBoolean();
+        private Thread hiloEnvio;
+        private long envioDesde;
+        private boolean expulsado;
+
+        private Suscriptor(SseEmitter emitter, Set<Long> productoIds, BlockingQueue<InventarioCambiadoEvent> buffer) {
+            this.emitter = emitter;
+            this.productoIds = productoIds;
+            this.buffer = buffer;
+        }
+
+        boolean interesa(InventarioCambiadoEvent event) {
+            return productoIds.isEmpty() || productoIds.contains(event.getProductoId());
+        }
+
+        synchronized void iniciarEnvio() {
+            hiloEnvio = Thread.currentThread();
+            envioDesde = System.nanoTime();
+        }
+
+        /**
+         * Retorna si el suscriptor fue expulsado durante el envío.
+         */
+        synchronized boolean terminarEnvio() {
+            hiloEnvio = null;
+            return expulsado;
+        }
+
+        /**
+         * Con el envío en curso iniciado antes de {@code limite}, marca al suscriptor como expulsado e
+         * interrumpe su hilo. Bajo el mismo monitor que terminarEnvio: la interrupción no alcanza al hilo
+         * una vez que pasó a otra tarea.
+         */
+        synchronized boolean expulsarSiBloqueado(long limite) {
+            if (hiloEnvio == null || expulsado || envioDesde - limite > 0) {
+                return false;
+            }
+            expulsado = true;
+            hiloEnvio.interrupt();
+            return true;
+        }
+    }
+}
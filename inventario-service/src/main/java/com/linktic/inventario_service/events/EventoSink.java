@@ -0,0 +1,17 @@
+package com.linktic.inventario_service.events;
+
+import com.linktic.inventario_service.entity.InventarioCambiadoEvent;
+
+import java.util.List;
+
+/**
+ * Destino de los eventos de inventario confirmados. Recibe lotes en orden de confirmación y la entrega
+ * es al menos una vez. Lanzar una excepción hace que el lote se reintente solo para este destino, con
+ * espera creciente: un evento reintentado puede llegar después de otros más recientes.
+ */
+public interface EventoSink {
+
+    String nombre();
+
+    void enviar(List<InventarioCambiadoEvent> eventos);
+}
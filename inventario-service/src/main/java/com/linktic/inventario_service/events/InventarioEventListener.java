@@ -1,30 +1,25 @@
 package com.linktic.inventario_service.events;
 
 import com.linktic.inventario_service.entity.InventarioCambiadoEvent;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.event.EventListener;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+/**
+ * Sin outbox (inventario.outbox.enabled=false), pasa cada evento confirmado al despachador asíncrono:
+ * el hilo de la petición solo encola, y un cambio revertido no genera evento.
+ */
 @Component
-@Slf4j
+@ConditionalOnProperty(name = "inventario.outbox.enabled", havingValue = "false")
+@RequiredArgsConstructor
 public class InventarioEventListener {
 
-    @EventListener
-    public void handleInventarioCambiado(InventarioCambiadoEvent event) {
-        log.info("=== EVENTO DE INVENTARIO ===");
-        log.info("Producto ID: {}", event.getProductoId());
-        log.info("Cantidad anterior: {}", event.getCantidadAnterior());
-        log.info("Cantidad nueva: {}", event.getCantidadNueva());
-        log.info("Tipo de operación: {}", event.getTipoOperacion());
-        log.info("Timestamp: {}", event.getTimestamp());
-
-        log.info("==========================");
+    private final DespachadorEventos despachador;
 
-        if (event.getCantidadNueva() < 5) {
-            log.error("¡ALERTA CRÍTICA! Stock MUY BAJO: {} unidades", event.getCantidadNueva());
-        } else if (event.getCantidadNueva() < 10) {
-            log.warn("¡ALERTA! Stock bajo para producto: {} con {} unidades", event.getProductoId(), event.getCantidadNueva());
-        }
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleInventarioCambiado(InventarioCambiadoEvent event) {
+        despachador.encolar(event);
     }
 }
-
@@ -0,0 +1,33 @@
+package com.linktic.inventario_service.events;
+
+import com.linktic.inventario_service.entity.InventarioCambiadoEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Slf4j
+public class LogEventoSink implements EventoSink {
+
+    @Override
+    public String nombre() {
+        return "log";
+    }
+
+    @Override
+    public void enviar(List<InventarioCambiadoEvent> eventos) {
+        for (InventarioCambiadoEvent event : eventos) {
+            log.info("Evento de inventario - productoId: {}, operación: {}, cantidad: {} -> {}, timestamp: {}",
+                    event.getProductoId(), event.getTipoOperacion(), event.getCantidadAnterior(),
+                    event.getCantidadNueva(), event.getTimestamp());
+
+            if (event.getCantidadNueva() < 5) {
+                log.error("¡ALERTA CRÍTICA! Stock MUY BAJO: {} unidades", event.getCantidadNueva());
+            } else if (event.getCantidadNueva() < 10) {
+                log.warn("¡ALERTA! Stock bajo para producto: {} con {} unidades",
+                        event.getProductoId(), event.getCantidadNueva());
+            }
+        }
+    }
+}
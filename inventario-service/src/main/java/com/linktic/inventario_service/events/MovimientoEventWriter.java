@@ -0,0 +1,40 @@
+package com.linktic.inventario_service.events;
+
+import com.linktic.inventario_service.entity.InventarioCambiadoEvent;
+import com.linktic.inventario_service.entity.Movimiento;
+import com.linktic.inventario_service.repository.MovimientoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Registra cada InventarioCambiadoEvent en el libro de movimientos dentro de la transacción que lo
+ * publica: el movimiento se confirma o se revierte junto con el cambio de stock. Los INSERT de una
+ * misma transacción (p. ej. un lote de la reconciliación) se envían a la base en lotes JDBC.
+ */
+@Component
+@RequiredArgsConstructor
+public class MovimientoEventWriter {
+
+    private final MovimientoRepository movimientoRepository;
+
+    @EventListener
+    public void registrar(InventarioCambiadoEvent event) {
+        LocalDateTime registradoEn = event.getTimestamp() != null ? event.getTimestamp() : LocalDateTime.now();
+
+        movimientoRepository.save(Movimiento.builder()
+                .productoId(event.getProductoId())
+                .tipo(event.getTipoOperacion())
+                .delta(valor(event.getCantidadNueva()) - valor(event.getCantidadAnterior()))
+                // TIMESTAMP(6): se trunca a microsegundos para que el cursor de paginación sea exacto
+                .registradoEn(registradoEn.truncatedTo(ChronoUnit.MICROS))
+                .build());
+    }
+
+    private static int valor(Integer cantidad) {
+        return cantidad != null ? cantidad : 0;
+    }
+}
@@ -0,0 +1,44 @@
+package com.linktic.inventario_service.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.linktic.inventario_service.entity.EventoOutbox;
+import com.linktic.inventario_service.entity.InventarioCambiadoEvent;
+import com.linktic.inventario_service.repository.EventoOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Guarda cada InventarioCambiadoEvent en eventos_outbox dentro de la transacción que lo publica:
+ * si la transacción se revierte, el evento desaparece con ella. El despacho lo hace OutboxRelay.
+ */
+@Component
+@ConditionalOnProperty(name = "inventario.outbox.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class OutboxEventWriter {
+
+    private final EventoOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    @EventListener
+    public void registrar(InventarioCambiadoEvent event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("No fue posible serializar el evento de inventario", ex);
+        }
+
+        outboxRepository.save(EventoOutbox.builder()
+                .productoId(event.getProductoId())
+                .tipoOperacion(event.getTipoOperacion())
+                .payload(payload)
+                .creadoEn(LocalDateTime.now())
+                .intentos(0)
+                .build());
+    }
+}
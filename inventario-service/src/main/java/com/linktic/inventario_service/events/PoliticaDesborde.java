@@ -0,0 +1,19 @@
+package com.linktic.inventario_service.events;
+
+/**
+ * Qué hace DespachadorEventos cuando la cola está llena.
+ */
+public enum PoliticaDesborde {
+    /**
+     * Espera hasta bloqueo-maximo a que haya espacio; si no lo hay, descarta el evento nuevo.
+     * Retiene el hilo de la petición, por eso no es la política por defecto.
+     */
+    BLOQUEAR,
+    /** Descarta el evento más antiguo de la cola para hacer sitio al nuevo. */
+    DESCARTAR_ANTIGUO,
+    /**
+     * Aparta el evento para que un hilo propio lo escriba por lotes en un archivo NDJSON local, que se
+     * reproduce en orden cuando la cola se vacía. Política por defecto.
+     */
+    DERRAMAR_A_DISCO
+}
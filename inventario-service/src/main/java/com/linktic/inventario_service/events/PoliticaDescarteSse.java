@@ -0,0 +1,13 @@
+package com.linktic.inventario_service.events;
+
+/**
+ * Qué hace DifusorEventosSse cuando el buffer de un suscriptor lento está lleno.
+ */
+public enum PoliticaDescarteSse {
+    /** Descarta el evento más antiguo del buffer para hacer sitio al nuevo. */
+    DESCARTAR_ANTIGUO,
+    /** Descarta el evento nuevo y conserva los que ya esperan. */
+    DESCARTAR_NUEVO,
+    /** Cierra la conexión del suscriptor; el cliente reconecta y vuelve a consultar el stock. */
+    DESCONECTAR
+}
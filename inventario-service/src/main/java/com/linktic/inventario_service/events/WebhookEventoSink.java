@@ -0,0 +1,46 @@
+package com.linktic.inventario_service.events;
+
+import com.linktic.inventario_service.entity.InventarioCambiadoEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Envía cada lote de eventos como un arreglo JSON en un solo POST. Solo se registra si
+ * inventario.eventos.webhook.url tiene valor; una respuesta de error provoca el reintento del lote.
+ */
+@Component
+@ConditionalOnExpression("!'${inventario.eventos.webhook.url:}'.isEmpty()")
+@Slf4j
+public class WebhookEventoSink implements EventoSink {
+
+    private final RestTemplate restTemplate;
+    private final String url;
+
+    public WebhookEventoSink(RestTemplateBuilder builder,
+                             @Value("${inventario.eventos.webhook.url}") String url,
+                             @Value("${inventario.eventos.webhook.timeout:5s}") Duration timeout) {
+        this.restTemplate = builder
+                .connectTimeout(timeout)
+                .readTimeout(timeout)
+                .build();
+        this.url = url;
+        log.info("Webhook de eventos de inventario configurado: {}", url);
+    }
+
+    @Override
+    public String nombre() {
+        return "webhook";
+    }
+
+    @Override
+    public void enviar(List<InventarioCambiadoEvent> eventos) {
+        restTemplate.postForEntity(url, eventos, Void.class);
+    }
+}
@@ -0,0 +1,9 @@
+package com.linktic.inventario_service.repository;
+
+import com.linktic.inventario_service.entity.EventoOutboxDescartado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EventoOutboxDescartadoRepository extends JpaRepository<EventoOutboxDescartado, Long> {
+}
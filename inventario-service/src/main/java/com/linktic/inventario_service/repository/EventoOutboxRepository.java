@@ -0,0 +1,24 @@
+package com.linktic.inventario_service.repository;
+
+import com.linktic.inventario_service.entity.EventoOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+
+    /**
+     * Bloquea el siguiente lote de eventos listos en orden de inserción. Las filas que otra instancia
+     * está reservando se saltan (SKIP LOCKED); las que ya reservó o esperan un reintento tienen
+     * siguiente_intento en el futuro.
+     */
+    @Query(value = "SELECT * FROM eventos_outbox WHERE siguiente_intento IS NULL OR siguiente_intento <= :ahora " +
+            "ORDER BY id LIMIT :limite FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EventoOutbox> bloquearPendientes(@Param("ahora") LocalDateTime ahora,
+                                          @Param("limite") int limite);
+}
@@ -1,6 +1,9 @@
 package com.linktic.inventario_service.repository;
 
 import com.linktic.inventario_service.entity.Inventario;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
@@ -9,6 +12,8 @@ import org.springframework.data.repository.query.Param;
 import jakarta.persistence.LockModeType;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -18,10 +23,42 @@ public interface InventarioRepository extends JpaRepository<Inventario, Long> {
 
     boolean existsByProductoId(Long productoId);
 
+    /**
+     * Paginación por cursor: busca por índice de la PK a partir del último ID visto, sin OFFSET ni count(*).
+     */
+    Slice<Inventario> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Stock bajo resuelto en la base de datos, apoyado en el índice parcial idx_inventarios_stock_bajo.
+     */
+    @Query("SELECT i FROM Inventario i WHERE i.cantidad <= i.cantidadMinima")
+    Page<Inventario> findConStockBajo(Pageable pageable);
+
+    @Query("SELECT COUNT(i) FROM Inventario i WHERE i.cantidad <= i.cantidadMinima")
+    long countConStockBajo();
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT i FROM Inventario i WHERE i.productoId = :productoId")
     Optional<Inventario> findByProductoIdWithLock(@Param("productoId") Long productoId);
 
+    /**
+     * Bloquea los inventarios de los IDs en orden de ID; los que ya no existen no se devuelven.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventario i WHERE i.id IN :ids ORDER BY i.id")
+    List<Inventario> findAllByIdInWithLock(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT i.cantidad FROM Inventario i WHERE i.productoId = :productoId")
     Optional<Integer> findCantidadByProductoId(@Param("productoId") Long productoId);
+
+    /**
+     * Descuenta stock en una sola sentencia, solo si hay cantidad suficiente.
+     * Retorna vacío si no existe el inventario o si el stock no alcanza.
+     */
+    @Query(value = "UPDATE inventarios SET cantidad = cantidad - :cantidad, " +
+            "version = version + 1, ultima_actualizacion = CURRENT_TIMESTAMP " +
+            "WHERE producto_id = :productoId AND cantidad >= :cantidad " +
+            "RETURNING *", nativeQuery = true)
+    Optional<Inventario> descontarStock(@Param("productoId") Long productoId,
+                                        @Param("cantidad") int cantidad);
 }
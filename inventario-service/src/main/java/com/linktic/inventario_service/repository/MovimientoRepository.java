@@ -0,0 +1,36 @@
+package com.linktic.inventario_service.repository;
+
+import com.linktic.inventario_service.entity.Movimiento;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MovimientoRepository extends JpaRepository<Movimiento, Long> {
+
+    /**
+     * Primera página del historial de un producto, del más reciente al más antiguo.
+     */
+    List<Movimiento> findByProductoIdOrderByRegistradoEnDescIdDesc(Long productoId, Pageable pageable);
+
+    /**
+     * Página siguiente por cursor (registrado_en, id): la comparación de filas recorre
+     * idx_movimientos_producto_fecha desde el cursor, sin OFFSET, y descarta las particiones posteriores.
+     */
+    @Query(value = """
+            SELECT * FROM movimientos
+            WHERE producto_id = :productoId
+              AND (registrado_en, id) < (:registradoEn, :id)
+            ORDER BY registrado_en DESC, id DESC
+            LIMIT :limite
+            """, nativeQuery = true)
+    List<Movimiento> findAnteriores(@Param("productoId") Long productoId,
+                                    @Param("registradoEn") LocalDateTime registradoEn,
+                                    @Param("id") long id,
+                                    @Param("limite") int limite);
+}
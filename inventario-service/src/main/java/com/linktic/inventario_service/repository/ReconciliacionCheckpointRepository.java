@@ -0,0 +1,9 @@
+package com.linktic.inventario_service.repository;
+
+import com.linktic.inventario_service.entity.ReconciliacionCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReconciliacionCheckpointRepository extends JpaRepository<ReconciliacionCheckpoint, String> {
+}
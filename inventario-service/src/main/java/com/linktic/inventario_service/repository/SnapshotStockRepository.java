@@ -0,0 +1,85 @@
+package com.linktic.inventario_service.repository;
+
+import com.linktic.inventario_service.entity.SnapshotStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+
+@Repository
+public interface SnapshotStockRepository extends JpaRepository<SnapshotStock, Long> {
+
+    /**
+     * Toma en una sola sentencia un snapshot, con corte en {@code hasta}, de cada producto con
+     * movimientos desde el corte anterior: su snapshot previo más la suma de esos movimientos.
+     * Solo lee las particiones de la ventana. Cada snapshot guarda el {@code horizonte} del corte,
+     * leído antes de esta sentencia. Retorna los snapshots creados.
+     */
+    @Modifying
+    @Query(value = """
+            WITH ventana AS (
+                SELECT producto_id, SUM(delta) AS delta
+                FROM movimientos
+                WHERE registrado_en > COALESCE((SELECT MAX(hasta) FROM stock_snapshots), '-infinity')
+                  AND registrado_en <= :hasta
+                GROUP BY producto_id
+            )
+            INSERT INTO stock_snapshots (producto_id, cantidad, hasta, tomado_en, horizonte)
+            SELECT v.producto_id, COALESCE(u.cantidad, 0) + v.delta, :hasta, CURRENT_TIMESTAMP, :horizonte
+            FROM ventana v
+            LEFT JOIN LATERAL (
+                SELECT s.cantidad FROM stock_snapshots s
+                WHERE s.producto_id = v.producto_id
+                ORDER BY s.hasta DESC
+                LIMIT 1
+            ) u ON true
+            """, nativeQuery = true)
+    int tomarSnapshots(@Param("hasta") LocalDateTime hasta, @Param("horizonte") OffsetDateTime horizonte);
+
+    /**
+     * Recalcula los snapshots a los que no llegó un movimiento confirmado más de un margen después de
+     * su registrado_en: cae en una ventana ya cerrada y ningún corte posterior lo recoge. Solo revisa
+     * los movimientos fechados hasta el último corte e insertados después de su horizonte (los que ese
+     * corte pudo no ver), y de cada producto afectado solo los snapshots desde el primero de ellos,
+     * partiendo del snapshot anterior. Los que ya cuadraban no se reescriben. Retorna los snapshots
+     * recalculados.
+     */
+    @Modifying
+    @Query(value = """
+            WITH tardios AS (
+                SELECT m.producto_id, MIN(m.registrado_en) AS desde
+                FROM movimientos m
+                WHERE m.insertado_en >= COALESCE((
+                        SELECT s.horizonte FROM stock_snapshots s
+                        WHERE s.horizonte IS NOT NULL
+                        ORDER BY s.hasta DESC
+                        LIMIT 1), '-infinity')
+                  AND m.registrado_en <= (SELECT MAX(hasta) FROM stock_snapshots)
+                GROUP BY m.producto_id
+            ),
+            recalculados AS (
+                SELECT s.id, COALESCE(b.cantidad, 0) + COALESCE((
+                        SELECT SUM(m.delta) FROM movimientos m
+                        WHERE m.producto_id = s.producto_id
+                          AND m.registrado_en > COALESCE(b.hasta, '-infinity')
+                          AND m.registrado_en <= s.hasta), 0) AS cantidad
+                FROM tardios t
+                LEFT JOIN LATERAL (
+                    SELECT a.cantidad, a.hasta FROM stock_snapshots a
+                    WHERE a.producto_id = t.producto_id AND a.hasta < t.desde
+                    ORDER BY a.hasta DESC
+                    LIMIT 1
+                ) b ON true
+                JOIN stock_snapshots s ON s.producto_id = t.producto_id AND s.hasta >= t.desde
+            )
+            UPDATE stock_snapshots s
+            SET cantidad = r.cantidad
+            FROM recalculados r
+            WHERE s.id = r.id AND s.cantidad <> r.cantidad
+            """, nativeQuery = true)
+    int corregirDesviados();
+}
@@ -2,6 +2,7 @@ package com.linktic.inventario_service.service;
 
 import com.linktic.inventario_service.client.ProductoClient;
 import com.linktic.inventario_service.dto.CompraRequest;
+import com.linktic.inventario_service.dto.CursorSlice;
 import com.linktic.inventario_service.dto.InventarioRequest;
 import com.linktic.inventario_service.dto.InventarioResponse;
 import com.linktic.inventario_service.dto.ProductoDTO;
@@ -12,16 +13,21 @@ import com.linktic.inventario_service.exception.ResourceNotFoundException;
 import com.linktic.inventario_service.repository.InventarioRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -34,12 +40,25 @@ public class InventarioService {
     private final ProductoClient productoClient;
     private final ApplicationEventPublisher eventPublisher;
 
-    @Transactional
+    /**
+     * Las operaciones de escritura consultan productos-service antes de abrir la transacción,
+     * de modo que un servicio de productos lento no retiene bloqueos de fila ni conexiones del pool.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${inventario.compra.modo:BLOQUEO}")
+    private ModoCompra modoCompra = ModoCompra.BLOQUEO;
+
     public InventarioResponse crearInventario(Long productoId, InventarioRequest request) {
         log.debug("Creando inventario para producto ID: {}", productoId);
 
         ProductoDTO producto = productoClient.obtenerProducto(productoId);
 
+        Inventario guardado = transactionTemplate.execute(status -> guardarNuevo(productoId, request));
+        return mapToResponse(guardado, producto);
+    }
+
+    private Inventario guardarNuevo(Long productoId, InventarioRequest request) {
         if (inventarioRepository.existsByProductoId(productoId)) {
             throw new IllegalArgumentException("Ya existe inventario para productoId=" + productoId);
         }
@@ -68,39 +87,39 @@ public class InventarioService {
         );
         eventPublisher.publishEvent(event);
 
-        return mapToResponse(guardado, producto);
+        return guardado;
     }
 
-    @Transactional(readOnly = true)
-    public InventarioResponse consultarInventario(Long productoId) {
-        log.debug("Consultando inventario para producto ID: {}", productoId);
+    public InventarioResponse consultarInventario(Long productoId, boolean incluirProducto) {
+        log.debug("Consultando inventario para producto ID: {}, incluirProducto: {}", productoId, incluirProducto);
 
         Inventario inv = inventarioRepository.findByProductoId(productoId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Inventario no encontrado para productoId=" + productoId));
 
+        if (!incluirProducto) {
+            return mapToResponse(inv, null);
+        }
+
         ProductoDTO producto = productoClient.obtenerProducto(productoId);
         return mapToResponse(inv, producto);
     }
 
-    @Transactional
     public InventarioResponse procesarCompra(Long productoId, CompraRequest request) {
-        log.debug("Procesando compra para producto ID: {}, cantidad: {}", productoId, request.getCantidad());
+        log.debug("Procesando compra para producto ID: {}, cantidad: {}, modo: {}",
+                productoId, request.getCantidad(), modoCompra);
 
-        Inventario inv = inventarioRepository.findByProductoIdWithLock(productoId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Inventario no encontrado para productoId=" + productoId));
+        ProductoDTO producto = productoClient.obtenerProducto(productoId);
 
-        int anterior = inv.getCantidad();
-        int aRestar = request.getCantidad();
-        if (anterior < aRestar) {
-            throw new IllegalArgumentException(
-                    "Stock insuficiente para productoId=" + productoId +
-                            ". Disponible: " + anterior + ", Solicitado: " + aRestar);
-        }
+        Inventario actualizado = transactionTemplate.execute(status -> registrarCompra(productoId, request.getCantidad()));
+        return mapToResponse(actualizado, producto);
+    }
 
-        inv.setCantidad(anterior - aRestar);
-        Inventario actualizado = inventarioRepository.save(inv);
+    private Inventario registrarCompra(Long productoId, int aRestar) {
+        Inventario actualizado = modoCompra == ModoCompra.ATOMICO
+                ? descontarAtomico(productoId, aRestar)
+                : descontarConBloqueo(productoId, aRestar);
+        int anterior = actualizado.getCantidad() + aRestar;
 
         log.info("Compra procesada: productoId={}, cantidadAnterior={}, cantidadNueva={}",
                 productoId, anterior, actualizado.getCantidad());
@@ -114,14 +133,50 @@ public class InventarioService {
         );
         eventPublisher.publishEvent(event);
 
-        ProductoDTO producto = productoClient.obtenerProducto(productoId);
-        return mapToResponse(actualizado, producto);
+        return actualizado;
+    }
+
+    private Inventario descontarConBloqueo(Long productoId, int aRestar) {
+        Inventario inv = inventarioRepository.findByProductoIdWithLock(productoId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Inventario no encontrado para productoId=" + productoId));
+
+        int anterior = inv.getCantidad();
+        if (anterior < aRestar) {
+            throw stockInsuficiente(productoId, anterior, aRestar);
+        }
+
+        inv.setCantidad(anterior - aRestar);
+        return inventarioRepository.save(inv);
+    }
+
+    private Inventario descontarAtomico(Long productoId, int aRestar) {
+        return inventarioRepository.descontarStock(productoId, aRestar)
+                .orElseThrow(() -> {
+                    // Ninguna fila actualizada: o no existe el inventario o el stock no alcanza
+                    Integer disponible = inventarioRepository.findCantidadByProductoId(productoId)
+                            .orElseThrow(() -> new ResourceNotFoundException(
+                                    "Inventario no encontrado para productoId=" + productoId));
+                    return stockInsuficiente(productoId, disponible, aRestar);
+                });
+    }
+
+    private IllegalArgumentException stockInsuficiente(Long productoId, int disponible, int solicitado) {
+        return new IllegalArgumentException(
+                "Stock insuficiente para productoId=" + productoId +
+                        ". Disponible: " + disponible + ", Solicitado: " + solicitado);
     }
 
-    @Transactional
     public InventarioResponse actualizarInventario(Long productoId, InventarioRequest request) {
         log.debug("Actualizando inventario para producto ID: {}", productoId);
 
+        ProductoDTO producto = productoClient.obtenerProducto(productoId);
+
+        Inventario actualizado = transactionTemplate.execute(status -> aplicarActualizacion(productoId, request));
+        return mapToResponse(actualizado, producto);
+    }
+
+    private Inventario aplicarActualizacion(Long productoId, InventarioRequest request) {
         Inventario inv = inventarioRepository.findByProductoId(productoId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Inventario no encontrado para productoId=" + productoId));
@@ -149,12 +204,11 @@ public class InventarioService {
         );
         eventPublisher.publishEvent(event);
 
-        ProductoDTO producto = productoClient.obtenerProducto(productoId);
-        return mapToResponse(actualizado, producto);
+        return actualizado;
     }
 
     @Transactional(readOnly = true)
-    public Page<InventarioResponse> listarInventarios(Pageable pageable) {
+    public Page<InventarioResponse> listarInventarios(Pageable pageable, boolean incluirProducto) {
         log.debug("Listando inventarios - página: {}, tamaño: {}",
                 pageable.getPageNumber(), pageable.getPageSize());
 
@@ -165,11 +219,7 @@ public class InventarioService {
             return Page.empty(pageable);
         }
 
-        List<InventarioResponse> inventariosValidos = inventarios.getContent()
-                .stream()
-                .map(this::mapToResponseSafe)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        List<InventarioResponse> inventariosValidos = mapearInventarios(inventarios.getContent(), incluirProducto);
 
         log.debug("Inventarios válidos encontrados: {}/{}",
                 inventariosValidos.size(), inventarios.getContent().size());
@@ -178,88 +228,119 @@ public class InventarioService {
     }
 
     @Transactional(readOnly = true)
-    public Page<InventarioResponse> listarInventariosConStockBajo(Pageable pageable) {
-        log.debug("Listando inventarios con stock bajo");
+    public CursorSlice<InventarioResponse> listarInventariosDespuesDe(Long afterId, int size,
+                                                                      boolean incluirProducto) {
+        log.debug("Listando inventarios por cursor - después de ID: {}, tamaño: {}", afterId, size);
 
-        Page<Inventario> inventarios = inventarioRepository.findAll(pageable);
+        Slice<Inventario> inventarios = inventarioRepository.findByIdGreaterThanOrderByIdAsc(
+                afterId, PageRequest.of(0, size));
 
-        List<InventarioResponse> stockBajo = inventarios.getContent()
-                .stream()
-                .filter(inv -> inv.getCantidad() <= inv.getCantidadMinima())
-                .map(this::mapToResponseSafe)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        List<InventarioResponse> inventariosValidos = mapearInventarios(inventarios.getContent(), incluirProducto);
 
-        log.debug("Inventarios con stock bajo encontrados: {}", stockBajo.size());
+        Long nextCursor = inventarios.hasContent()
+                ? inventarios.getContent().get(inventarios.getNumberOfElements() - 1).getId()
+                : null;
 
-        return new PageImpl<>(stockBajo, pageable, stockBajo.size());
+        return CursorSlice.<InventarioResponse>builder()
+                .content(inventariosValidos)
+                .hasNext(inventarios.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public Page<InventarioResponse> listarInventariosConStockBajo(Pageable pageable, boolean incluirProducto) {
+        log.debug("Listando inventarios con stock bajo - página: {}, tamaño: {}",
+                pageable.getPageNumber(), pageable.getPageSize());
+
+        Page<Inventario> conStockBajo = inventarioRepository.findConStockBajo(pageable);
+
+        List<InventarioResponse> stockBajo = mapearInventarios(conStockBajo.getContent(), incluirProducto);
+
+        log.debug("Inventarios con stock bajo encontrados: {}/{}",
+                stockBajo.size(), conStockBajo.getTotalElements());
+
+        return new PageImpl<>(stockBajo, pageable, conStockBajo.getTotalElements());
     }
 
-    @Transactional
-    public int limpiarInventariosHuerfanos() {
-        log.info("Iniciando limpieza de inventarios huérfanos...");
-
-        List<Inventario> todosInventarios = inventarioRepository.findAll();
-        int eliminados = 0;
-
-        for (Inventario inventario : todosInventarios) {
-            try {
-                productoClient.obtenerProducto(inventario.getProductoId());
-            } catch (ProductoServiceException ex) {
-                log.info("Eliminando inventario huérfano: ID={}, productoId={}",
-                        inventario.getId(), inventario.getProductoId());
-
-                inventarioRepository.delete(inventario);
-
-                InventarioCambiadoEvent event = new InventarioCambiadoEvent(
-                        inventario.getProductoId(),
-                        inventario.getCantidad(),
-                        0,
-                        "ELIMINACION_HUERFANO",
-                        LocalDateTime.now()
-                );
-                eventPublisher.publishEvent(event);
-
-                eliminados++;
-            }
+    @Transactional(readOnly = true)
+    public long contarInventariosConStockBajo() {
+        return inventarioRepository.countConStockBajo();
+    }
+
+    /**
+     * Sin la relación producto no se consulta el servicio de productos ni se filtran huérfanos.
+     */
+    private List<InventarioResponse> mapearInventarios(List<Inventario> inventarios, boolean incluirProducto) {
+        if (!incluirProducto) {
+            return inventarios.stream()
+                    .map(inv -> mapToResponse(inv, null))
+                    .collect(Collectors.toList());
         }
 
-        log.info("Limpieza completada. Inventarios huérfanos eliminados: {}", eliminados);
-        return eliminados;
+        Map<Long, ProductoDTO> productos = obtenerProductosSafe(inventarios);
+
+        return inventarios.stream()
+                .map(inv -> mapToResponseSafe(inv, productos))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
-    private InventarioResponse mapToResponseSafe(Inventario inventario) {
-        try {
-            ProductoDTO producto = productoClient.obtenerProducto(inventario.getProductoId());
-            return mapToResponse(inventario, producto);
+    /**
+     * Consulta en una sola llamada los productos de una página de inventarios.
+     * Si el servicio de productos falla, se devuelve un mapa vacío y los inventarios se filtran.
+     */
+    private Map<Long, ProductoDTO> obtenerProductosSafe(List<Inventario> inventarios) {
+        if (inventarios.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<Long> productoIds = inventarios.stream()
+                .map(Inventario::getProductoId)
+                .collect(Collectors.toList());
 
+        try {
+            return productoClient.obtenerProductos(productoIds);
         } catch (ProductoServiceException ex) {
+            log.warn("No fue posible obtener los productos {}. " +
+                    "Los inventarios serán filtrados de la respuesta: {}", productoIds, ex.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    private InventarioResponse mapToResponseSafe(Inventario inventario, Map<Long, ProductoDTO> productos) {
+        ProductoDTO producto = productos.get(inventario.getProductoId());
+
+        if (producto == null) {
             log.warn("Producto no encontrado para inventario ID={}, productoId={}. " +
-                            "Inventario será filtrado de la respuesta: {}",
-                    inventario.getId(), inventario.getProductoId(), ex.getMessage());
+                            "Inventario será filtrado de la respuesta",
+                    inventario.getId(), inventario.getProductoId());
             return null;
         }
+
+        return mapToResponse(inventario, producto);
     }
 
     private InventarioResponse mapToResponse(Inventario inv, ProductoDTO producto) {
-        String nombre = producto.getAttributes().getNombre();
-        BigDecimal precio = producto.getAttributes().getPrecio();
-
-        InventarioResponse.Relationships.ProductoData dataProducto =
-                InventarioResponse.Relationships.ProductoData.builder()
-                        .type("productos")
-                        .id(producto.getId())
-                        .nombre(nombre)
-                        .precio(precio)
-                        .build();
-
-        InventarioResponse.Relationships rel = InventarioResponse.Relationships.builder()
-                .producto(
-                        InventarioResponse.Relationships.Producto.builder()
-                                .data(dataProducto)
-                                .build()
-                )
-                .build();
+        InventarioResponse.Relationships rel = null;
+
+        if (producto != null) {
+            InventarioResponse.Relationships.ProductoData dataProducto =
+                    InventarioResponse.Relationships.ProductoData.builder()
+                            .type("productos")
+                            .id(producto.getId())
+                            .nombre(producto.getAttributes().getNombre())
+                            .precio(producto.getAttributes().getPrecio())
+                            .build();
+
+            rel = InventarioResponse.Relationships.builder()
+                    .producto(
+                            InventarioResponse.Relationships.Producto.builder()
+                                    .data(dataProducto)
+                                    .build()
+                    )
+                    .build();
+        }
 
         return InventarioResponse.builder()
                 .type("inventarios")
@@ -0,0 +1,17 @@
+package com.linktic.inventario_service.service;
+
+/**
+ * Estrategia para descontar stock en una compra. Se selecciona con inventario.compra.modo.
+ */
+public enum ModoCompra {
+
+    /**
+     * SELECT ... FOR UPDATE, validación en Java y guardado de la entidad.
+     */
+    BLOQUEO,
+
+    /**
+     * Un único UPDATE condicional (cantidad >= solicitada) con RETURNING; sin lectura previa bloqueante.
+     */
+    ATOMICO
+}
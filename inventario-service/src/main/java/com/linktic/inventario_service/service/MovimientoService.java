@@ -0,0 +1,112 @@
+package com.linktic.inventario_service.service;
+
+import com.linktic.inventario_service.dto.MovimientoResponse;
+import com.linktic.inventario_service.dto.PaginaMovimientos;
+import com.linktic.inventario_service.entity.Movimiento;
+import com.linktic.inventario_service.repository.MovimientoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Consulta del libro de movimientos de stock. Las filas las escribe MovimientoEventWriter.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MovimientoService {
+
+    static final int TAMANIO_MAXIMO = 100;
+
+    private final MovimientoRepository movimientoRepository;
+
+    /**
+     * Historial de un producto del más reciente al más antiguo. Sin cursor retorna la primera página;
+     * con cursor, los movimientos estrictamente anteriores a él.
+     */
+    @Transactional(readOnly = true)
+    public PaginaMovimientos historial(Long productoId, String after, int size) {
+        if (size < 1 || size > TAMANIO_MAXIMO) {
+            throw new IllegalArgumentException("size debe estar entre 1 y " + TAMANIO_MAXIMO);
+        }
+        log.debug("Historial de movimientos para producto ID: {}, después de: {}, tamaño: {}",
+                productoId, after, size);
+
+        // Se pide una fila de más para saber si hay página siguiente sin contar
+        List<Movimiento> movimientos;
+        if (after == null || after.isBlank()) {
+            movimientos = movimientoRepository.findByProductoIdOrderByRegistradoEnDescIdDesc(
+                    productoId, PageRequest.of(0, size + 1));
+        } else {
+            Cursor cursor = Cursor.parse(after);
+            movimientos = movimientoRepository.findAnteriores(
+                    productoId, cursor.registradoEn(), cursor.id(), size + 1);
+        }
+
+        boolean hasNext = movimientos.size() > size;
+        List<Movimiento> pagina = hasNext ? movimientos.subList(0, size) : movimientos;
+
+        return PaginaMovimientos.builder()
+                .content(pagina.stream().map(MovimientoService::mapToResponse).collect(Collectors.toList()))
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? Cursor.de(pagina.get(pagina.size() - 1)).toString() : null)
+                .build();
+    }
+
+    static MovimientoResponse mapToResponse(Movimiento movimiento) {
+        return MovimientoResponse.builder()
+                .type("movimientos")
+                .id(movimiento.getId())
+                .attributes(MovimientoResponse.Attributes.builder()
+                        .productoId(movimiento.getProductoId())
+                        .tipo(movimiento.getTipo())
+                        .delta(movimiento.getDelta())
+                        .registradoEn(movimiento.getRegistradoEn())
+                        .build())
+                .build();
+    }
+
+    /**
+     * Cursor opaco "microsegundos:id": registrado_en se expresa en microsegundos desde la época
+     * (leído como UTC) para que el valor viaje sin pérdida en el query string.
+     */
+    record Cursor(LocalDateTime registradoEn, long id) {
+
+        static Cursor de(Movimiento movimiento) {
+            return new Cursor(movimiento.getRegistradoEn(), movimiento.getId());
+        }
+
+        static Cursor parse(String valor) {
+            int separador = valor.indexOf(':');
+            if (separador <= 0) {
+                throw new IllegalArgumentException("page[after] inválido: " + valor);
+            }
+            try {
+                long micros = Long.parseLong(valor.substring(0, separador));
+                long id = Long.parseLong(valor.substring(separador + 1));
+                LocalDateTime registradoEn = LocalDateTime.ofEpochSecond(
+                        Math.floorDiv(micros, 1_000_000L),
+                        (int) Math.floorMod(micros, 1_000_000L) * 1_000,
+                        ZoneOffset.UTC);
+                return new Cursor(registradoEn, id);
+            } catch (NumberFormatException | DateTimeException ex) {
+                throw new IllegalArgumentException("page[after] inválido: " + valor);
+            }
+        }
+
+        @Override
+        public String toString() {
+            long micros = ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), registradoEn);
+            return micros + ":" + id;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.linktic.inventario_service.service;
+
+import com.linktic.inventario_service.config.EsquemaPostgresConfig;
+import com.linktic.inventario_service.repository.SnapshotStockRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+
+/**
+ * Mantenimiento del libro de movimientos:
+ * <ul>
+ *   <li>Crea por adelantado las particiones mensuales de movimientos, para que las filas nuevas no
+ *       caigan en movimientos_default. Al arrancar y una vez al día; solo sobre PostgreSQL. Dependen de
+ *       la fecha, por eso no están en schema-postgresql.sql (ver EsquemaPostgresConfig).</li>
+ *   <li>Registra una sola vez un movimiento APERTURA para cada inventario anterior al libro, de modo
+ *       que la suma de sus movimientos coincida con su cantidad actual.</li>
+ *   <li>Toma periódicamente snapshots del stock por producto. El corte queda un margen por detrás
+ *       del reloj para no dejar fuera movimientos de transacciones que aún no confirman; los que
+ *       confirman más tarde que ese margen se insertaron después del horizonte del corte, y los
+ *       snapshots del producto se recalculan desde su fecha.</li>
+ * </ul>
+ */
+@Service
+@Slf4j
+public class MovimientosMantenimiento {
+
+    /**
+     * Productos cuyo historial en el libro no empieza con su alta: inventarios sin CREACION ni APERTURA
+     * (existían antes del libro) e inventarios anteriores al libro eliminados después como huérfanos
+     * (ELIMINACION_HUERFANO sin CREACION previa), aunque el producto se haya vuelto a dar de alta.
+     * Las consultas se resuelven con el índice parcial idx_movimientos_alta.
+     */
+    static final String PENDIENTES = """
+            SELECT i.producto_id FROM inventarios i
+            WHERE NOT EXISTS (
+                SELECT 1 FROM movimientos a
+                WHERE a.producto_id = i.producto_id AND a.tipo IN ('CREACION', 'APERTURA'))
+            UNION
+            SELECT e.producto_id FROM movimientos e
+            WHERE e.tipo = 'ELIMINACION_HUERFANO'
+              AND NOT EXISTS (
+                SELECT 1 FROM movimientos a
+                WHERE a.producto_id = e.producto_id AND a.tipo = 'APERTURA')
+              AND NOT EXISTS (
+                SELECT 1 FROM movimientos c
+                WHERE c.producto_id = e.producto_id AND c.tipo = 'CREACION'
+                  AND c.registrado_en < e.registrado_en)
+            """;
+
+    static final String SQL_HAY_APERTURAS_PENDIENTES = "SELECT EXISTS (" + PENDIENTES + ")";
+
+    /**
+     * Bloqueos de la apertura: detienen los cambios de stock y los snapshots mientras dura, y entre
+     * instancias (el modo es excluyente consigo mismo) garantizan que solo una la ejecute. Las lecturas
+     * siguen permitidas.
+     */
+    static final String SQL_BLOQUEAR_INVENTARIOS = "LOCK TABLE inventarios IN SHARE ROW EXCLUSIVE MODE";
+    static final String SQL_BLOQUEAR_SNAPSHOTS = "LOCK TABLE stock_snapshots IN SHARE ROW EXCLUSIVE MODE";
+
+    /**
+     * Apertura de cada producto pendiente: su cantidad actual (0 si ya no tiene inventario) menos todo
+     * lo registrado en el libro, fechada antes de su primer movimiento (o en su alta si no tiene
+     * ninguno), para que las consultas históricas la incluyan.
+     */
+    static final String SQL_CALCULAR_APERTURAS = """
+            CREATE TEMP TABLE aperturas_pendientes ON COMMIT DROP AS
+            WITH pendientes AS (""" + PENDIENTES + """
+            )
+            SELECT p.producto_id,
+                   CAST(COALESCE(i.cantidad, 0) - COALESCE(SUM(m.delta), 0) AS integer) AS delta,
+                   LEAST(i.created_at, MIN(m.registrado_en) - INTERVAL '1 microsecond') AS registrado_en
+            FROM pendientes p
+            LEFT JOIN inventarios i ON i.producto_id = p.producto_id
+            LEFT JOIN movimientos m ON m.producto_id = p.producto_id
+            GROUP BY p.producto_id, i.cantidad, i.created_at
+            """;
+
+    static final String SQL_INSERTAR_APERTURAS = """
+            INSERT INTO movimientos (id, producto_id, tipo, delta, registrado_en)
+            SELECT nextval('movimientos_seq'), producto_id, 'APERTURA', delta, registrado_en
+            FROM aperturas_pendientes
+            """;
+
+    /**
+     * Los snapshots ya tomados de esos productos no incluían la apertura: todos son posteriores a ella.
+     */
+    static final String SQL_AJUSTAR_SNAPSHOTS = """
+            UPDATE stock_snapshots s SET cantidad = s.cantidad + p.delta
+            FROM aperturas_pendientes p
+            WHERE s.producto_id = p.producto_id
+            """;
+
+    /**
+     * Una apertura fechada antes del último corte queda fuera de las ventanas de los próximos snapshots:
+     * si el producto aún no tiene snapshot, se le toma uno en ese corte.
+     */
+    static final String SQL_SNAPSHOTS_APERTURA = """
+            INSERT INTO stock_snapshots (producto_id, cantidad, hasta, tomado_en)
+            SELECT p.producto_id, p.delta, c.hasta, CURRENT_TIMESTAMP
+            FROM aperturas_pendientes p
+            CROSS JOIN (SELECT MAX(hasta) AS hasta FROM stock_snapshots) c
+            WHERE p.registrado_en <= c.hasta
+              AND NOT EXISTS (SELECT 1 FROM stock_snapshots s WHERE s.producto_id = p.producto_id)
+            """;
+
+    /**
+     * Horizonte del corte: inicio de la transacción más antigua en curso en la base de datos, incluida la
+     * del propio corte. Se lee antes de las sentencias del corte, así que toda transacción que estas no
+     * vean empezó después. Requiere que las sesiones sean del mismo usuario (pg_stat_activity oculta el
+     * resto).
+     */
+    static final String SQL_HORIZONTE = """
+            SELECT MIN(xact_start) FROM pg_stat_activity
+            WHERE datname = current_database() AND xact_start IS NOT NULL
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SnapshotStockRepository snapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int mesesAdelante;
+    private final Duration margen;
+
+    private final Counter snapshotsTomados;
+    private final Counter snapshotsCorregidos;
+    private Boolean postgres;
+
+    public MovimientosMantenimiento(JdbcTemplate jdbcTemplate,
+                                    SnapshotStockRepository snapshotRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${inventario.movimientos.particiones.meses-adelante:3}") int mesesAdelante,
+                                    @Value("${inventario.movimientos.snapshot.margen:1m}") Duration margen,
+                                    MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotRepository = snapshotRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.mesesAdelante = mesesAdelante;
+        this.margen = margen;
+
+        this.snapshotsTomados = Counter.builder("inventario.movimientos.snapshots")
+                .description("Snapshots de stock por producto tomados")
+                .register(meterRegistry);
+        this.snapshotsCorregidos = Counter.builder("inventario.movimientos.snapshots.corregidos")
+                .description("Snapshots recalculados porque no cuadraban con el stock actual")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alArrancar() {
+        crearParticiones();
+        registrarAperturas();
+    }
+
+    /**
+     * Registra la apertura de los inventarios que existían antes del libro de movimientos y corrige sus
+     * snapshots. Idempotente: cuando ya no quedan pendientes solo ejecuta la verificación inicial.
+     * Retorna cuántas aperturas registró.
+     */
+    public int registrarAperturas() {
+        if (!esPostgres()) {
+            return 0;
+        }
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(SQL_HAY_APERTURAS_PENDIENTES, Boolean.class))) {
+            log.debug("Todos los inventarios tienen movimiento de alta en el libro");
+            return 0;
+        }
+
+        Integer registradas = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute(SQL_BLOQUEAR_INVENTARIOS);
+            jdbcTemplate.execute(SQL_BLOQUEAR_SNAPSHOTS);
+            // Tras esperar los bloqueos se recalcula: otra instancia pudo haberlas registrado ya
+            jdbcTemplate.execute(SQL_CALCULAR_APERTURAS);
+            int insertadas = jdbcTemplate.update(SQL_INSERTAR_APERTURAS);
+            int ajustados = jdbcTemplate.update(SQL_AJUSTAR_SNAPSHOTS);
+            int nuevos = jdbcTemplate.update(SQL_SNAPSHOTS_APERTURA);
+            jdbcTemplate.execute("DROP TABLE aperturas_pendientes");
+            log.info("Aperturas del libro de movimientos registradas: {} (snapshots corregidos: {}, tomados: {})",
+                    insertadas, ajustados, nuevos);
+            return insertadas;
+        });
+        return registradas != null ? registradas : 0;
+    }
+
+    /**
+     * Crea, si faltan, las particiones del mes en curso y de los meses siguientes. Retorna cuántas verificó.
+     */
+    @Scheduled(cron = "${inventario.movimientos.particiones.cron:0 0 3 * * *}")
+    public int crearParticiones() {
+        if (!esPostgres()) {
+            log.info("Base de datos no es PostgreSQL, se omiten las particiones de movimientos");
+            return 0;
+        }
+
+        YearMonth mes = YearMonth.now();
+        int verificadas = 0;
+        for (int i = 0; i <= mesesAdelante; i++, mes = mes.plusMonths(1)) {
+            try {
+                jdbcTemplate.execute(ddlParticion(mes));
+                verificadas++;
+            } catch (DataAccessException ex) {
+                // Ocurre si movimientos_default ya tiene filas de ese mes: quedan ahí hasta moverlas a mano
+                log.warn("No fue posible crear la partición de movimientos para {}: {}", mes, ex.getMessage());
+            }
+        }
+        log.info("Particiones de movimientos verificadas: {}", verificadas);
+        return verificadas;
+    }
+
+    static String ddlParticion(YearMonth mes) {
+        return String.format("CREATE TABLE IF NOT EXISTS movimientos_y%04dm%02d PARTITION OF movimientos " +
+                        "FOR VALUES FROM ('%s-01') TO ('%s-01')",
+                mes.getYear(), mes.getMonthValue(), mes, mes.plusMonths(1));
+    }
+
+    /**
+     * Recalcula los snapshots a los que no llegaron movimientos confirmados después del corte anterior y
+     * toma un snapshot de cada producto con movimientos desde ese corte. Retorna cuántos tomó.
+     */
+    @Scheduled(cron = "${inventario.movimientos.snapshot.cron:0 0 * * * *}")
+    public int tomarSnapshots() {
+        LocalDateTime hasta = LocalDateTime.now().minus(margen);
+        int[] resultado = transactionTemplate.execute(status -> {
+            // Un solo corte a la vez entre instancias, y nunca a mitad de registrarAperturas
+            jdbcTemplate.execute(SQL_BLOQUEAR_SNAPSHOTS);
+            OffsetDateTime horizonte = jdbcTemplate.queryForObject(SQL_HORIZONTE, OffsetDateTime.class);
+            // Se corrige antes de tomar, para que los snapshots nuevos partan de los ya corregidos
+            int corregidos = snapshotRepository.corregirDesviados();
+            return new int[]{snapshotRepository.tomarSnapshots(hasta, horizonte), corregidos};
+        });
+        int total = resultado != null ? resultado[0] : 0;
+        int corregidos = resultado != null ? resultado[1] : 0;
+
+        snapshotsTomados.increment(total);
+        snapshotsCorregidos.increment(corregidos);
+        if (corregidos > 0) {
+            log.warn("Snapshots de stock recalculados por movimientos confirmados después de su corte: {}", corregidos);
+        }
+        log.info("Snapshots de stock tomados hasta {}: {}", hasta, total);
+        return total;
+    }
+
+    private boolean esPostgres() {
+        if (postgres == null) {
+            postgres = EsquemaPostgresConfig.esPostgres(jdbcTemplate);
+        }
+        return postgres;
+    }
+}
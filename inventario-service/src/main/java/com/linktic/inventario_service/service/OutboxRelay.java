@@ -0,0 +1,278 @@
+package com.linktic.inventario_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.linktic.inventario_service.entity.EventoOutbox;
+import com.linktic.inventario_service.entity.EventoOutboxDescartado;
+import com.linktic.inventario_service.entity.InventarioCambiadoEvent;
+import com.linktic.inventario_service.events.EventoSink;
+import com.linktic.inventario_service.repository.EventoOutboxDescartadoRepository;
+import com.linktic.inventario_service.repository.EventoOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Despacha los eventos de eventos_outbox a los EventoSink registrados, fuera del hilo de la petición.
+ * Cada lote se reserva en una transacción corta (FOR UPDATE SKIP LOCKED y siguiente_intento = fin de
+ * la reserva) y se entrega después, sin bloqueos ni conexión abiertos durante las llamadas remotas.
+ * Cada destino es un dominio de fallo propio: un evento recuerda a qué destinos ya llegó, se borra
+ * cuando llegó a todos y, si alguno falla, se reintenta solo para ese destino con espera exponencial.
+ * Los payloads ilegibles y los eventos que agotan max-intentos pasan a eventos_outbox_descartados.
+ */
+@Service
+@ConditionalOnProperty(name = "inventario.outbox.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class OutboxRelay {
+
+    private final EventoOutboxRepository outboxRepository;
+    private final EventoOutboxDescartadoRepository descartadoRepository;
+    private final List<EventoSink> sinks;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanioLote;
+    private final int maxIntentos;
+    private final Duration reserva;
+    private final Duration backoffInicial;
+    private final Duration backoffMaximo;
+
+    private final AtomicBoolean enEjecucion = new AtomicBoolean();
+    private final Counter despachados;
+    private final Counter fallidos;
+    private final Counter descartados;
+    private final Timer duracionLote;
+
+    public OutboxRelay(EventoOutboxRepository outboxRepository,
+                       EventoOutboxDescartadoRepository descartadoRepository,
+                       List<EventoSink> sinks,
+                       ObjectMapper objectMapper,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${inventario.outbox.tamanio-lote:100}") int tamanioLote,
+                       @Value("${inventario.outbox.max-intentos:10}") int maxIntentos,
+                       @Value("${inventario.outbox.reserva:1m}") Duration reserva,
+                       @Value("${inventario.outbox.backoff-inicial:1s}") Duration backoffInicial,
+                       @Value("${inventario.outbox.backoff-maximo:5m}") Duration backoffMaximo,
+                       MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.descartadoRepository = descartadoRepository;
+        this.sinks = sinks;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.tamanioLote = tamanioLote;
+        this.maxIntentos = maxIntentos;
+        this.reserva = reserva;
+        this.backoffInicial = backoffInicial;
+        this.backoffMaximo = backoffMaximo;
+
+        this.despachados = Counter.builder("inventario.outbox.despachados")
+                .description("Eventos de inventario entregados a todos los destinos")
+                .register(meterRegistry);
+        this.fallidos = Counter.builder("inventario.outbox.fallidos")
+                .description("Eventos de inventario con algún destino fallido que se reintentarán")
+                .register(meterRegistry);
+        this.descartados = Counter.builder("inventario.outbox.descartados")
+                .description("Eventos de inventario movidos a eventos_outbox_descartados")
+                .register(meterRegistry);
+        this.duracionLote = Timer.builder("inventario.outbox.lote")
+                .description("Duración del despacho de cada lote del outbox")
+                .register(meterRegistry);
+
+        log.info("Relay del outbox de inventario: lotes de {}, destinos {}", tamanioLote,
+                sinks.stream().map(EventoSink::nombre).collect(Collectors.toList()));
+    }
+
+    /**
+     * Despacha lotes hasta vaciar el outbox o hasta el primer lote con algún destino fallido;
+     * retorna los eventos entregados a todos los destinos.
+     */
+    @Scheduled(fixedDelayString = "${inventario.outbox.intervalo:1s}")
+    public int despachar() {
+        if (!enEjecucion.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            int entregados = 0;
+            List<EventoOutbox> lote;
+            boolean sinFallos;
+            do {
+                lote = reservar();
+                if (lote.isEmpty()) {
+                    break;
+                }
+                int completos = entregar(lote);
+                entregados += completos;
+                sinFallos = completos == lote.size();
+            } while (sinFallos && lote.size() == tamanioLote);
+            return entregados;
+        } finally {
+            enEjecucion.set(false);
+        }
+    }
+
+    /**
+     * Toma el siguiente lote y lo aparta durante {@code reserva}: si esta instancia cae a mitad de la
+     * entrega, otra lo retoma al vencer la reserva.
+     */
+    private List<EventoOutbox> reservar() {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<EventoOutbox> pendientes = transactionTemplate.execute(status -> {
+            List<EventoOutbox> bloqueados = outboxRepository.bloquearPendientes(ahora, tamanioLote);
+            bloqueados.forEach(evento -> evento.setSiguienteIntento(ahora.plus(reserva)));
+            return bloqueados;
+        });
+        return pendientes != null ? pendientes : List.of();
+    }
+
+    /**
+     * Entrega el lote a cada destino que aún no lo recibió y registra el resultado; retorna cuántos
+     * eventos quedaron entregados a todos los destinos.
+     */
+    private int entregar(List<EventoOutbox> pendientes) {
+        Timer.Sample muestra = Timer.start();
+
+        Map<EventoOutbox, InventarioCambiadoEvent> legibles = new LinkedHashMap<>();
+        List<EventoOutbox> ilegibles = new ArrayList<>();
+        for (EventoOutbox evento : pendientes) {
+            try {
+                legibles.put(evento, leer(evento));
+            } catch (IllegalStateException ex) {
+                evento.setUltimoError(recortar(ex.getMessage()));
+                ilegibles.add(evento);
+            }
+        }
+
+        Map<EventoOutbox, String> errores = new HashMap<>();
+        for (EventoSink sink : sinks) {
+            List<EventoOutbox> porEntregar = legibles.keySet().stream()
+                    .filter(evento -> !entregadoA(evento).contains(sink.nombre()))
+                    .collect(Collectors.toList());
+            if (porEntregar.isEmpty()) {
+                continue;
+            }
+            try {
+                sink.enviar(porEntregar.stream().map(legibles::get).collect(Collectors.toList()));
+                porEntregar.forEach(evento -> marcarEntregado(evento, sink.nombre()));
+            } catch (RuntimeException ex) {
+                String detalle = recortar(sink.nombre() + ": " + ex.getMessage());
+                porEntregar.forEach(evento -> errores.putIfAbsent(evento, detalle));
+                log.warn("Destino {} falló con {} eventos del outbox desde ID={}: {}",
+                        sink.nombre(), porEntregar.size(), porEntregar.get(0).getId(), ex.getMessage());
+            }
+        }
+        muestra.stop(duracionLote);
+
+        List<EventoOutbox> completos = legibles.keySet().stream()
+                .filter(evento -> !errores.containsKey(evento))
+                .collect(Collectors.toList());
+        transactionTemplate.executeWithoutResult(status -> registrar(completos, errores, ilegibles));
+
+        despachados.increment(completos.size());
+        log.debug("Outbox: {} eventos despachados, {} con reintento, {} ilegibles",
+                completos.size(), errores.size(), ilegibles.size());
+        return completos.size();
+    }
+
+    private void registrar(List<EventoOutbox> completos, Map<EventoOutbox, String> errores,
+                           List<EventoOutbox> ilegibles) {
+        if (!completos.isEmpty()) {
+            outboxRepository.deleteAllByIdInBatch(completos.stream()
+                    .map(EventoOutbox::getId)
+                    .collect(Collectors.toList()));
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        List<EventoOutbox> reintentos = new ArrayList<>();
+        List<EventoOutbox> agotados = new ArrayList<>(ilegibles);
+        errores.forEach((evento, detalle) -> {
+            evento.setIntentos(evento.getIntentos() + 1);
+            evento.setUltimoError(detalle);
+            if (evento.getIntentos() >= maxIntentos) {
+                agotados.add(evento);
+            } else {
+                evento.setSiguienteIntento(ahora.plus(espera(evento.getIntentos())));
+                reintentos.add(evento);
+            }
+        });
+        if (!reintentos.isEmpty()) {
+            outboxRepository.saveAll(reintentos);
+            fallidos.increment(reintentos.size());
+        }
+        if (!agotados.isEmpty()) {
+            descartar(agotados, ahora);
+        }
+    }
+
+    private void descartar(List<EventoOutbox> agotados, LocalDateTime ahora) {
+        descartadoRepository.saveAll(agotados.stream()
+                .map(evento -> EventoOutboxDescartado.builder()
+                        .id(evento.getId())
+                        .productoId(evento.getProductoId())
+                        .tipoOperacion(evento.getTipoOperacion())
+                        .payload(evento.getPayload())
+                        .creadoEn(evento.getCreadoEn())
+                        .intentos(evento.getIntentos())
+                        .ultimoError(evento.getUltimoError())
+                        .destinosPendientes(sinks.stream()
+                                .map(EventoSink::nombre)
+                                .filter(nombre -> !entregadoA(evento).contains(nombre))
+                                .collect(Collectors.joining(",")))
+                        .descartadoEn(ahora)
+                        .build())
+                .collect(Collectors.toList()));
+        outboxRepository.deleteAllByIdInBatch(agotados.stream()
+                .map(EventoOutbox::getId)
+                .collect(Collectors.toList()));
+
+        descartados.increment(agotados.size());
+        for (EventoOutbox evento : agotados) {
+            log.error("Evento de outbox ID={} (productoId={}) descartado tras {} intentos: {}",
+                    evento.getId(), evento.getProductoId(), evento.getIntentos(), evento.getUltimoError());
+        }
+    }
+
+    /**
+     * Espera antes del siguiente intento: backoff-inicial duplicado en cada fallo, hasta backoff-maximo.
+     */
+    Duration espera(int intentos) {
+        Duration espera = backoffInicial.multipliedBy(1L << Math.min(intentos - 1, 30));
+        return espera.compareTo(backoffMaximo) > 0 ? backoffMaximo : espera;
+    }
+
+    private static Set<String> entregadoA(EventoOutbox evento) {
+        if (evento.getEntregadoA() == null || evento.getEntregadoA().isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(Arrays.asList(evento.getEntregadoA().split(",")));
+    }
+
+    private static void marcarEntregado(EventoOutbox evento, String sink) {
+        evento.setEntregadoA(evento.getEntregadoA() == null || evento.getEntregadoA().isEmpty()
+                ? sink
+                : evento.getEntregadoA() + "," + sink);
+    }
+
+    private static String recortar(String mensaje) {
+        String error = String.valueOf(mensaje);
+        return error.length() > 500 ? error.substring(0, 500) : error;
+    }
+
+    private InventarioCambiadoEvent leer(EventoOutbox evento) {
+        try {
+            return objectMapper.readValue(evento.getPayload(), InventarioCambiadoEvent.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Payload ilegible en el evento de outbox ID=" + evento.getId(), ex);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.linktic.inventario_service.service;
+
+import com.linktic.inventario_service.client.ProductoClient;
+import com.linktic.inventario_service.dto.ProductoDTO;
+import com.linktic.inventario_service.entity.Inventario;
+import com.linktic.inventario_service.entity.InventarioCambiadoEvent;
+import com.linktic.inventario_service.entity.ReconciliacionCheckpoint;
+import com.linktic.inventario_service.exception.ProductoServiceException;
+import com.linktic.inventario_service.repository.InventarioRepository;
+import com.linktic.inventario_service.repository.ReconciliacionCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Elimina inventarios cuyo producto ya no existe en productos-service.
+ * Recorre la tabla por lotes de ID ascendente, consulta la existencia de cada lote en una
+ * sola llamada y borra los huérfanos con un único DELETE. Cada lote se confirma junto con
+ * su checkpoint, de modo que un reinicio continúa donde se quedó la ejecución anterior.
+ */
+@Service
+@Slf4j
+public class ReconciliacionHuerfanosService {
+
+    static final String CHECKPOINT = "inventarios-huerfanos";
+
+    private final InventarioRepository inventarioRepository;
+    private final ReconciliacionCheckpointRepository checkpointRepository;
+    private final ProductoClient productoClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanioLote;
+
+    private final AtomicBoolean enEjecucion = new AtomicBoolean();
+    private final AtomicLong cursor = new AtomicLong();
+    private final Counter revisados;
+    private final Counter eliminados;
+    private final Timer duracionLote;
+
+    public ReconciliacionHuerfanosService(InventarioRepository inventarioRepository,
+                                          ReconciliacionCheckpointRepository checkpointRepository,
+                                          ProductoClient productoClient,
+                                          ApplicationEventPublisher eventPublisher,
+                                          TransactionTemplate transactionTemplate,
+                                          @Value("${inventario.reconciliacion.tamanio-lote:100}") int tamanioLote,
+                                          MeterRegistry meterRegistry) {
+        this.inventarioRepository = inventarioRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.productoClient = productoClient;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.tamanioLote = tamanioLote;
+
+        this.revisados = Counter.builder("inventario.reconciliacion.revisados")
+                .description("Inventarios revisados por la reconciliación de huérfanos")
+                .register(meterRegistry);
+        this.eliminados = Counter.builder("inventario.reconciliacion.eliminados")
+                .description("Inventarios huérfanos eliminados")
+                .register(meterRegistry);
+        this.duracionLote = Timer.builder("inventario.reconciliacion.lote")
+                .description("Duración de cada lote de la reconciliación de huérfanos")
+                .register(meterRegistry);
+        meterRegistry.gauge("inventario.reconciliacion.cursor", cursor);
+    }
+
+    /**
+     * Ejecuta (o reanuda) la reconciliación y retorna los inventarios eliminados en esta ejecución.
+     * Si productos-service falla, se detiene sin borrar nada del lote en curso y conserva el checkpoint.
+     */
+    @Scheduled(cron = "${inventario.reconciliacion.cron:-}")
+    public int ejecutar() {
+        if (!enEjecucion.compareAndSet(false, true)) {
+            log.warn("Reconciliación de huérfanos ya en ejecución, se omite esta invocación");
+            return 0;
+        }
+        try {
+            return reconciliar();
+        } finally {
+            enEjecucion.set(false);
+        }
+    }
+
+    private int reconciliar() {
+        ReconciliacionCheckpoint checkpoint = checkpointRepository.findById(CHECKPOINT)
+                .orElseGet(() -> ReconciliacionCheckpoint.builder()
+                        .nombre(CHECKPOINT)
+                        .ultimoId(0L)
+                        .revisados(0L)
+                        .eliminados(0L)
+                        .iniciadoEn(LocalDateTime.now())
+                        .build());
+
+        if (checkpoint.getUltimoId() > 0) {
+            log.info("Reanudando reconciliación de huérfanos desde ID={} (iniciada {})",
+                    checkpoint.getUltimoId(), checkpoint.getIniciadoEn());
+        } else {
+            log.info("Iniciando reconciliación de huérfanos en lotes de {}", tamanioLote);
+        }
+
+        int eliminadosEnEjecucion = 0;
+        Slice<Inventario> lote;
+
+        do {
+            lote = inventarioRepository.findByIdGreaterThanOrderByIdAsc(
+                    checkpoint.getUltimoId(), PageRequest.of(0, tamanioLote));
+            if (!lote.hasContent()) {
+                break;
+            }
+
+            Timer.Sample muestra = Timer.start();
+            List<Inventario> inventarios = lote.getContent();
+            Map<Long, ProductoDTO> existentes;
+
+            try {
+                existentes = productoClient.refrescarProductos(inventarios.stream()
+                        .map(Inventario::getProductoId)
+                        .collect(Collectors.toList()));
+            } catch (ProductoServiceException ex) {
+                log.warn("Reconciliación interrumpida en ID={}, se reanudará en la próxima ejecución: {}",
+                        checkpoint.getUltimoId(), ex.getMessage());
+                return eliminadosEnEjecucion;
+            }
+
+            List<Long> huerfanos = inventarios.stream()
+                    .filter(inv -> !existentes.containsKey(inv.getProductoId()))
+                    .map(Inventario::getId)
+                    .collect(Collectors.toList());
+
+            checkpoint.setUltimoId(inventarios.get(inventarios.size() - 1).getId());
+            checkpoint.setRevisados(checkpoint.getRevisados() + inventarios.size());
+            checkpoint.setActualizadoEn(LocalDateTime.now());
+
+            Integer eliminadosEnLote = transactionTemplate.execute(status -> eliminarLote(huerfanos, checkpoint));
+            int borrados = eliminadosEnLote != null ? eliminadosEnLote : 0;
+
+            eliminadosEnEjecucion += borrados;
+            cursor.set(checkpoint.getUltimoId());
+            revisados.increment(inventarios.size());
+            eliminados.increment(borrados);
+            muestra.stop(duracionLote);
+        } while (lote.hasNext());
+
+        checkpointRepository.deleteById(CHECKPOINT);
+        log.info("Reconciliación completada. Revisados: {}, huérfanos eliminados: {}",
+                checkpoint.getRevisados(), checkpoint.getEliminados());
+        return eliminadosEnEjecucion;
+    }
+
+    /**
+     * Vuelve a leer los huérfanos con bloqueo y borra solo los que siguen existiendo; los eventos llevan
+     * la cantidad que tenían al borrarse. Retorna los inventarios eliminados.
+     */
+    private int eliminarLote(List<Long> huerfanos, ReconciliacionCheckpoint checkpoint) {
+        List<Inventario> bloqueados = huerfanos.isEmpty()
+                ? List.of()
+                : inventarioRepository.findAllByIdInWithLock(huerfanos);
+
+        if (!bloqueados.isEmpty()) {
+            inventarioRepository.deleteAllByIdInBatch(bloqueados.stream()
+                    .map(Inventario::getId)
+                    .collect(Collectors.toList()));
+
+            for (Inventario inventario : bloqueados) {
+                log.info("Inventario huérfano eliminado: ID={}, productoId={}",
+                        inventario.getId(), inventario.getProductoId());
+
+                eventPublisher.publishEvent(new InventarioCambiadoEvent(
+                        inventario.getProductoId(),
+                        inventario.getCantidad(),
+                        0,
+                        "ELIMINACION_HUERFANO",
+                        LocalDateTime.now()
+                ));
+            }
+        }
+
+        checkpoint.setEliminados(checkpoint.getEliminados() + bloqueados.size());
+        checkpointRepository.save(checkpoint);
+        return bloqueados.size();
+    }
+}
@@ -0,0 +1,201 @@
+package com.linktic.inventario_service.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.linktic.inventario_service.dto.StockHistoricoResponse;
+import com.linktic.inventario_service.exception.ResourceNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Stock de uno o de todos los productos en un instante pasado. Parte del último snapshot con corte
+ * anterior o igual al instante y suma solo los movimientos entre ese corte y el instante, de modo que
+ * el costo depende de la antigüedad del snapshot y no del tamaño del historial.
+ */
+@Service
+@Slf4j
+public class StockHistoricoService implements DisposableBean {
+
+    /**
+     * Stock de cada ID del arreglo (literal de PostgreSQL, {1,2,3}): snapshot más reciente hasta el
+     * instante (idx_stock_snapshots_producto_hasta) más los deltas posteriores, leídos sobre
+     * idx_movimientos_producto_fecha y solo en las particiones del intervalo.
+     */
+    static final String SQL_STOCK = """
+            SELECT p.producto_id, s.hasta,
+                   CAST(COALESCE(s.cantidad, 0) + COALESCE(d.delta, 0) AS integer) AS cantidad,
+                   CAST(COALESCE(d.movimientos, 0) AS integer) AS movimientos
+            FROM unnest(CAST(? AS bigint[])) AS p(producto_id)
+            LEFT JOIN LATERAL (
+                SELECT cantidad, hasta FROM stock_snapshots
+                WHERE producto_id = p.producto_id AND hasta <= ?
+                ORDER BY hasta DESC
+                LIMIT 1
+            ) s ON true
+            LEFT JOIN LATERAL (
+                SELECT SUM(delta) AS delta, COUNT(*) AS movimientos FROM movimientos
+                WHERE producto_id = p.producto_id
+                  AND registrado_en > COALESCE(s.hasta, '-infinity') AND registrado_en <= ?
+            ) d ON true
+            ORDER BY p.producto_id
+            """;
+
+    /**
+     * Candidatos de la exportación completa: los inventarios actuales y los eliminados como huérfanos
+     * (su stock en un instante anterior a la baja puede no ser cero). Todo producto con historial tiene
+     * alta en el libro (CREACION o APERTURA), así que no falta ninguno. El tamaño depende del número de
+     * productos, no del de snapshots ni movimientos; las bajas se leen del índice parcial idx_movimientos_alta.
+     */
+    static final String SQL_PRODUCTOS = """
+            SELECT producto_id FROM inventarios
+            UNION
+            SELECT producto_id FROM movimientos WHERE tipo = 'ELIMINACION_HUERFANO'
+            ORDER BY producto_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int tamanioLote;
+    private final int paralelismo;
+    private final ExecutorService executor;
+
+    public StockHistoricoService(JdbcTemplate jdbcTemplate,
+                                 ObjectMapper objectMapper,
+                                 @Value("${inventario.movimientos.historico.tamanio-lote:500}") int tamanioLote,
+                                 @Value("${inventario.movimientos.historico.paralelismo:3}") int paralelismo) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.tamanioLote = tamanioLote;
+        this.paralelismo = paralelismo;
+
+        AtomicInteger hilos = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(paralelismo, tarea -> {
+            Thread hilo = new Thread(tarea, "stock-historico-" + hilos.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    public StockHistoricoResponse stockEn(Long productoId, LocalDateTime instante) {
+        log.debug("Consultando stock de producto ID: {} en {}", productoId, instante);
+
+        StockHistoricoResponse stock = calcular(List.of(productoId), instante).get(0);
+        if (!tieneHistorial(stock)) {
+            throw new ResourceNotFoundException(
+                    "Sin movimientos para productoId=" + productoId + " hasta " + instante);
+        }
+        return stock;
+    }
+
+    /**
+     * Escribe como NDJSON, en orden de ID, el stock en el instante de cada producto con historial hasta
+     * entonces y retorna cuántos escribió. Los productos se calculan por lotes, hasta {@code paralelismo} lotes a
+     * la vez; cada lote se escribe en cuanto él y los anteriores terminan, sin esperar al resto.
+     */
+    public long exportarStockEn(LocalDateTime instante, OutputStream salida) throws IOException {
+        List<Long> productos = jdbcTemplate.queryForList(SQL_PRODUCTOS, Long.class);
+        log.debug("Exportando stock en {} de {} productos", instante, productos.size());
+
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(salida);
+        generator.setRootValueSeparator(null);
+
+        Deque<Future<List<StockHistoricoResponse>>> enCurso = new ArrayDeque<>();
+        long exportados = 0;
+        try {
+            for (int desde = 0; desde < productos.size(); desde += tamanioLote) {
+                List<Long> lote = productos.subList(desde, Math.min(desde + tamanioLote, productos.size()));
+                if (enCurso.size() == paralelismo) {
+                    exportados += escribir(esperar(enCurso.poll()), writer, generator);
+                }
+                enCurso.add(executor.submit(() -> calcular(lote, instante).stream()
+                        .filter(StockHistoricoService::tieneHistorial)
+                        .toList()));
+            }
+            while (!enCurso.isEmpty()) {
+                exportados += escribir(esperar(enCurso.poll()), writer, generator);
+            }
+        } finally {
+            // Si el cliente corta la conexión o falla un lote, no se siguen calculando los demás
+            enCurso.forEach(lote -> lote.cancel(true));
+        }
+        generator.flush();
+
+        log.info("Stock en {} exportado: {} productos", instante, exportados);
+        return exportados;
+    }
+
+    List<StockHistoricoResponse> calcular(List<Long> productoIds, LocalDateTime instante) {
+        String ids = productoIds.stream().map(String::valueOf).collect(Collectors.joining(",", "{", "}"));
+        return jdbcTemplate.query(SQL_STOCK, filaStock(instante), ids, instante, instante);
+    }
+
+    /**
+     * Sin snapshot ni movimientos hasta el instante: el inventario aún no existía.
+     */
+    private static boolean tieneHistorial(StockHistoricoResponse stock) {
+        return stock.getAttributes().getSnapshotHasta() != null || stock.getAttributes().getMovimientosAplicados() > 0;
+    }
+
+    private static RowMapper<StockHistoricoResponse> filaStock(LocalDateTime instante) {
+        return (rs, fila) -> StockHistoricoResponse.builder()
+                .type("stock_historico")
+                .id(rs.getLong("producto_id"))
+                .attributes(StockHistoricoResponse.Attributes.builder()
+                        .cantidad(rs.getInt("cantidad"))
+                        .instante(instante)
+                        .snapshotHasta(rs.getObject("hasta", LocalDateTime.class))
+                        .movimientosAplicados(rs.getInt("movimientos"))
+                        .build())
+                .build();
+    }
+
+    private long escribir(List<StockHistoricoResponse> lote, ObjectWriter writer, JsonGenerator generator)
+            throws IOException {
+        for (StockHistoricoResponse stock : lote) {
+            writer.writeValue(generator, stock);
+            generator.writeRaw('\n');
+        }
+        // Cada lote se entrega al cliente en cuanto está listo
+        generator.flush();
+        return lote.size();
+    }
+
+    private static <T> T esperar(Future<T> lote) {
+        try {
+            return lote.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Exportación de stock histórico interrumpida", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException("Error calculando un lote de stock histórico", ex.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,6 @@
+-- Índices que ddl-auto no sabe generar (parciales, de expresión). Lo ejecuta EsquemaPostgresConfig, solo
+-- sobre PostgreSQL y después de que Hibernate actualiza el esquema.
+
+-- Solo indexa las filas con stock bajo: el listado y el conteo no recorren la tabla completa
+CREATE INDEX IF NOT EXISTS idx_inventarios_stock_bajo
+    ON inventarios (id) WHERE cantidad <= cantidad_minima;
@@ -0,0 +1,35 @@
+-- Libro de movimientos particionado por mes. Lo ejecuta EsquemaPostgresConfig, solo sobre PostgreSQL
+-- y antes de que Hibernate actualice el esquema, porque ddl-auto no sabe crear tablas particionadas;
+-- las particiones mensuales las crea MovimientosMantenimiento al arrancar y cada día.
+-- La clave primaria incluye la columna de partición.
+CREATE SEQUENCE IF NOT EXISTS movimientos_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS movimientos (
+    id            BIGINT       NOT NULL,
+    producto_id   BIGINT       NOT NULL,
+    tipo          VARCHAR(30)  NOT NULL,
+    delta         INTEGER      NOT NULL,
+    registrado_en TIMESTAMP(6) NOT NULL,
+    insertado_en  TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    PRIMARY KEY (id, registrado_en)
+) PARTITION BY RANGE (registrado_en);
+
+-- Inicio de la transacción que insertó el movimiento: permite encontrar los que un corte de snapshots
+-- no vio (ver SnapshotStockRepository.corregirDesviados). Las filas anteriores a la columna quedan en
+-- -infinity, porque ya las verificó la corrección completa de versiones previas.
+ALTER TABLE movimientos ADD COLUMN IF NOT EXISTS insertado_en TIMESTAMPTZ NOT NULL DEFAULT '-infinity';
+ALTER TABLE movimientos ALTER COLUMN insertado_en SET DEFAULT now();
+
+CREATE TABLE IF NOT EXISTS movimientos_default PARTITION OF movimientos DEFAULT;
+
+-- Historial de un producto del más reciente al más antiguo (paginación por cursor)
+CREATE INDEX IF NOT EXISTS idx_movimientos_producto_fecha
+    ON movimientos (producto_id, registrado_en DESC, id DESC);
+
+-- Altas y bajas (CREACION, APERTURA, ELIMINACION_HUERFANO): verificación de aperturas pendientes al arrancar
+CREATE INDEX IF NOT EXISTS idx_movimientos_alta
+    ON movimientos (producto_id, tipo) WHERE tipo IN ('CREACION', 'APERTURA', 'ELIMINACION_HUERFANO');
+
+-- Movimientos insertados desde el último corte de snapshots
+CREATE INDEX IF NOT EXISTS idx_movimientos_insertado
+    ON movimientos (insertado_en);
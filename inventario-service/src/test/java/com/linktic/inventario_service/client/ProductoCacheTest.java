@@ -0,0 +1,61 @@
+package com.linktic.inventario_service.client;
+
+import com.linktic.inventario_service.dto.ProductoDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ProductoCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductoCache productoCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productoCache = new ProductoCache(Duration.ofMinutes(5), 100, Duration.ofHours(1), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Registra aciertos y fallos en Micrometer")
+    void obtener_RegistraMetricas() {
+        productoCache.guardar(ProductoDTO.builder().id(1L).build());
+
+        productoCache.obtener(1L);
+        productoCache.obtener(2L);
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "productos").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "productos").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Invalidar elimina una entrada o todas")
+    void invalidar_EliminaEntradas() {
+        productoCache.guardar(ProductoDTO.builder().id(1L).build());
+        productoCache.guardar(ProductoDTO.builder().id(2L).build());
+
+        productoCache.invalidar(1L);
+        assertThat(productoCache.obtener(1L)).isNull();
+        assertThat(productoCache.obtenerTodos(List.of(1L, 2L))).containsOnlyKeys(2L);
+
+        productoCache.invalidarTodos();
+        assertThat(productoCache.obtener(2L)).isNull();
+    }
+
+    @Test
+    @DisplayName("Las entradas expiran tras el TTL")
+    void obtener_EntradaExpirada() {
+        ProductoCache cacheSinTtl = new ProductoCache(Duration.ZERO, 100, Duration.ZERO, new SimpleMeterRegistry());
+        cacheSinTtl.guardar(ProductoDTO.builder().id(1L).build());
+
+        assertThat(cacheSinTtl.obtener(1L)).isNull();
+    }
+}
@@ -3,6 +3,7 @@ package com.linktic.inventario_service.client;
 import com.linktic.inventario_service.dto.JsonApiDocument;
 import com.linktic.inventario_service.dto.ProductoDTO;
 import com.linktic.inventario_service.exception.ProductoServiceException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -18,9 +19,19 @@ import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -34,6 +45,8 @@ class ProductoClientTest {
     @Mock private CircuitBreaker circuitBreaker;
 
     private ProductoClient productoClient;
+    private ProductoCache productoCache;
+    private SimpleMeterRegistry meterRegistry;
     private final String serviceUrl = "http://productos-service:8081";
     private final String apiKey = "productos-secret-key";
 
@@ -56,7 +69,10 @@ class ProductoClientTest {
                     }
                 });
 
-        productoClient = new ProductoClient(restTemplate, serviceUrl, apiKey, circuitBreakerFactory);
+        meterRegistry = new SimpleMeterRegistry();
+        productoCache = new ProductoCache(Duration.ofMinutes(5), 100, Duration.ofHours(1), meterRegistry);
+        productoClient = new ProductoClient(restTemplate, serviceUrl, apiKey, circuitBreakerFactory,
+                productoCache, meterRegistry);
     }
 
     @Test
@@ -313,4 +329,261 @@ class ProductoClientTest {
 
         verify(circuitBreaker).run(any(Supplier.class), any(Function.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Obtener varios productos en una sola llamada")
+    void obtenerProductos_Exitoso() {
+        ProductoDTO producto1 = ProductoDTO.builder().type("productos").id(1L).build();
+        ProductoDTO producto2 = ProductoDTO.builder().type("productos").id(2L).build();
+
+        JsonApiDocument<List<ProductoDTO>> body = JsonApiDocument.<List<ProductoDTO>>builder()
+                .data(List.of(producto1, producto2))
+                .build();
+
+        when(restTemplate.exchange(
+                eq(serviceUrl + "/api/v1/productos?filter[id]=1,2,3"),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenReturn(new ResponseEntity<>(body, HttpStatus.OK));
+
+        Map<Long, ProductoDTO> resultado = productoClient.obtenerProductos(List.of(1L, 2L, 3L, 2L));
+
+        assertThat(resultado).containsOnlyKeys(1L, 2L);
+        assertThat(resultado.get(2L)).isSameAs(producto2);
+
+        verify(restTemplate, times(1)).exchange(
+                anyString(),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        );
+    }
+
+    @Test
+    @DisplayName("Obtener productos divide en lotes cuando se supera el máximo por petición")
+    void obtenerProductos_DivideEnLotes() {
+        List<Long> ids = LongStream.rangeClosed(1, ProductoClient.MAX_IDS_POR_LOTE + 1)
+                .boxed()
+                .collect(Collectors.toList());
+
+        when(restTemplate.exchange(
+                anyString(),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenReturn(new ResponseEntity<>(
+                JsonApiDocument.<List<ProductoDTO>>builder().data(List.of()).build(), HttpStatus.OK));
+
+        Map<Long, ProductoDTO> resultado = productoClient.obtenerProductos(ids);
+
+        assertThat(resultado).isEmpty();
+        verify(restTemplate, times(2)).exchange(
+                anyString(),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        );
+        verify(restTemplate).exchange(
+                eq(serviceUrl + "/api/v1/productos?filter[id]=" + (ProductoClient.MAX_IDS_POR_LOTE + 1)),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        );
+    }
+
+    @Test
+    @DisplayName("Error al obtener varios productos debe lanzar excepción")
+    void obtenerProductos_ErrorConexion() {
+        when(restTemplate.exchange(
+                anyString(),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenThrow(new RuntimeException("Connection refused"));
+
+        assertThatThrownBy(() -> productoClient.obtenerProductos(List.of(1L, 2L)))
+                .isInstanceOf(ProductoServiceException.class)
+                .hasMessageContaining("Servicio de productos no disponible para IDs=1,2");
+    }
+
+    @Test
+    @DisplayName("Segunda consulta del mismo producto se resuelve desde caché")
+    void obtenerProducto_UsaCache() {
+        ProductoDTO productoData = ProductoDTO.builder().type("productos").id(1L).build();
+
+        when(restTemplate.exchange(
+                anyString(),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenReturn(new ResponseEntity<>(
+                JsonApiDocument.<ProductoDTO>builder().data(productoData).build(), HttpStatus.OK));
+
+        productoClient.obtenerProducto(1L);
+        ProductoDTO resultado = productoClient.obtenerProducto(1L);
+
+        assertThat(resultado).isSameAs(productoData);
+        verify(restTemplate, times(1)).exchange(
+                anyString(),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        );
+    }
+
+    @Test
+    @DisplayName("Refrescar producto ignora la caché")
+    void refrescarProducto_ConsultaServicio() {
+        productoCache.guardar(ProductoDTO.builder().type("productos").id(1L).build());
+        ProductoDTO actualizado = ProductoDTO.builder().type("productos").id(1L).build();
+
+        when(restTemplate.exchange(
+                anyString(),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenReturn(new ResponseEntity<>(
+                JsonApiDocument.<ProductoDTO>builder().data(actualizado).build(), HttpStatus.OK));
+
+        ProductoDTO resultado = productoClient.refrescarProducto(1L);
+
+        assertThat(resultado).isSameAs(actualizado);
+        assertThat(productoCache.obtener(1L)).isSameAs(actualizado);
+    }
+
+    @Test
+    @DisplayName("Obtener varios productos solo consulta los que no están en caché")
+    void obtenerProductos_SoloConsultaFaltantesEnCache() {
+        ProductoDTO producto1 = ProductoDTO.builder().type("productos").id(1L).build();
+        ProductoDTO producto2 = ProductoDTO.builder().type("productos").id(2L).build();
+        productoCache.guardar(producto1);
+
+        when(restTemplate.exchange(
+                eq(serviceUrl + "/api/v1/productos?filter[id]=2"),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenReturn(new ResponseEntity<>(
+                JsonApiDocument.<List<ProductoDTO>>builder().data(List.of(producto2)).build(), HttpStatus.OK));
+
+        Map<Long, ProductoDTO> resultado = productoClient.obtenerProductos(List.of(1L, 2L));
+
+        assertThat(resultado).containsOnlyKeys(1L, 2L);
+        assertThat(productoCache.obtener(2L)).isSameAs(producto2);
+    }
+
+    @Test
+    @DisplayName("Refrescar varios productos ignora la caché y omite los inexistentes")
+    void refrescarProductos_ConsultaServicioSinCache() {
+        ProductoDTO producto1 = ProductoDTO.builder().type("productos").id(1L).build();
+        productoCache.guardar(ProductoDTO.builder().type("productos").id(2L).build());
+
+        when(restTemplate.exchange(
+                eq(serviceUrl + "/api/v1/productos?filter[id]=1,2"),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenReturn(new ResponseEntity<>(
+                JsonApiDocument.<List<ProductoDTO>>builder().data(List.of(producto1)).build(), HttpStatus.OK));
+
+        Map<Long, ProductoDTO> resultado = productoClient.refrescarProductos(List.of(1L, 2L));
+
+        assertThat(resultado).containsOnlyKeys(1L);
+        assertThat(productoCache.obtener(2L)).isNull();
+    }
+
+    @Test
+    @DisplayName("Peticiones concurrentes por el mismo producto comparten una sola llamada HTTP")
+    void obtenerProducto_Concurrente_DeberiaCoalescer() throws Exception {
+        ProductoDTO producto = ProductoDTO.builder().type("productos").id(1L).build();
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        when(restTemplate.exchange(
+                eq(serviceUrl + "/api/v1/productos/1"),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenAnswer(invocation -> {
+            liberar.await(5, TimeUnit.SECONDS);
+            return new ResponseEntity<>(JsonApiDocument.<ProductoDTO>builder().data(producto).build(), HttpStatus.OK);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<ProductoDTO>> resultados = List.of(
+                    executor.submit(() -> productoClient.obtenerProducto(1L)),
+                    executor.submit(() -> productoClient.obtenerProducto(1L)),
+                    executor.submit(() -> productoClient.obtenerProducto(1L)));
+
+            long limite = System.currentTimeMillis() + 5000;
+            while (meterRegistry.get("solicitudes.coalescidas").counter().count() < 2
+                    && System.currentTimeMillis() < limite) {
+                Thread.sleep(10);
+            }
+            liberar.countDown();
+
+            for (Future<ProductoDTO> resultado : resultados) {
+                assertThat(resultado.get(5, TimeUnit.SECONDS)).isSameAs(producto);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(meterRegistry.get("solicitudes.coalescidas")
+                .tag("operacion", "obtenerProducto").counter().count()).isEqualTo(2);
+        verify(restTemplate, times(1)).exchange(
+                anyString(),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        );
+    }
+
+    @Test
+    @DisplayName("Al refrescar un producto con ETag envía If-None-Match y un 304 reutiliza la copia")
+    void refrescarProducto_ConETag_Revalida() {
+        ProductoDTO producto = ProductoDTO.builder().type("productos").id(1L).build();
+        HttpHeaders cabeceras = new HttpHeaders();
+        cabeceras.setETag("W/\"1-abc\"");
+
+        when(restTemplate.exchange(
+                eq(serviceUrl + "/api/v1/productos/1"),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenReturn(
+                new ResponseEntity<>(JsonApiDocument.<ProductoDTO>builder().data(producto).build(), cabeceras, HttpStatus.OK),
+                new ResponseEntity<>(HttpStatus.NOT_MODIFIED));
+
+        productoClient.obtenerProducto(1L);
+        ProductoDTO revalidado = productoClient.refrescarProducto(1L);
+
+        assertThat(revalidado).isSameAs(producto);
+        assertThat(productoCache.obtener(1L)).isSameAs(producto);
+
+        ArgumentCaptor<HttpEntity> entidades = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate, times(2)).exchange(
+                anyString(),
+                eq(HttpMethod.GET),
+                entidades.capture(),
+                any(ParameterizedTypeReference.class)
+        );
+        assertThat(entidades.getAllValues().get(0).getHeaders().getIfNoneMatch()).isEmpty();
+        assertThat(entidades.getAllValues().get(1).getHeaders().getIfNoneMatch()).containsExactly("W/\"1-abc\"");
+    }
+
+    @Test
+    @DisplayName("Un 304 sin copia previa se trata como error")
+    void obtenerProducto_304SinCopia_LanzaExcepcion() {
+        when(restTemplate.exchange(
+                anyString(),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenReturn(new ResponseEntity<>(HttpStatus.NOT_MODIFIED));
+
+        assertThatThrownBy(() -> productoClient.obtenerProducto(1L))
+                .isInstanceOf(ProductoServiceException.class);
+    }
+}
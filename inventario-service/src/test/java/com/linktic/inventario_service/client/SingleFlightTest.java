@@ -0,0 +1,113 @@
+package com.linktic.inventario_service.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static final int CONCURRENTES = 5;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight<Long, String> singleFlight;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>("prueba", meterRegistry);
+        executor = Executors.newFixedThreadPool(CONCURRENTES);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Llamadas concurrentes con la misma clave comparten una sola ejecución")
+    void ejecutar_Concurrente_DeberiaEjecutarUnaVez() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        List<Future<String>> resultados = lanzar(() -> {
+            ejecuciones.incrementAndGet();
+            esperar(liberar);
+            return "producto-1";
+        });
+        esperarCoalescidas(CONCURRENTES - 1);
+        liberar.countDown();
+
+        for (Future<String> resultado : resultados) {
+            assertThat(resultado.get(5, TimeUnit.SECONDS)).isEqualTo("producto-1");
+        }
+        assertThat(ejecuciones).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Si la ejecución falla, todas las llamadas agrupadas reciben la misma excepción")
+    void ejecutar_ConError_DeberiaPropagarloATodos() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        IllegalStateException error = new IllegalStateException("Servicio no disponible");
+
+        List<Future<String>> resultados = lanzar(() -> {
+            esperar(liberar);
+            throw error;
+        });
+        esperarCoalescidas(CONCURRENTES - 1);
+        liberar.countDown();
+
+        for (Future<String> resultado : resultados) {
+            assertThatThrownBy(() -> resultado.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCause(error);
+        }
+    }
+
+    @Test
+    @DisplayName("Una vez terminada, la siguiente llamada vuelve a ejecutar la operación")
+    void ejecutar_Secuencial_NoDeberiaReutilizarResultado() {
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        singleFlight.ejecutar(1L, () -> "v" + ejecuciones.incrementAndGet());
+        String segundo = singleFlight.ejecutar(1L, () -> "v" + ejecuciones.incrementAndGet());
+
+        assertThat(segundo).isEqualTo("v2");
+        assertThat(meterRegistry.get("solicitudes.coalescidas").counter().count()).isZero();
+    }
+
+    private List<Future<String>> lanzar(java.util.function.Supplier<String> operacion) {
+        List<Future<String>> resultados = new ArrayList<>();
+        for (int i = 0; i < CONCURRENTES; i++) {
+            resultados.add(executor.submit(() -> singleFlight.ejecutar(1L, operacion)));
+        }
+        return resultados;
+    }
+
+    private void esperarCoalescidas(int esperadas) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("solicitudes.coalescidas").counter().count() < esperadas
+                && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        assertThat(meterRegistry.get("solicitudes.coalescidas").tag("operacion", "prueba").counter().count())
+                .isEqualTo(esperadas);
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.linktic.inventario_service.controller;
+
+import com.linktic.inventario_service.client.ProductoCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(CacheController.class)
+@Import(com.linktic.inventario_service.config.SecurityConfig.class)
+class CacheControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProductoCache productoCache;
+
+    @Test
+    @DisplayName("DELETE /api/v1/cache/productos/{id} - Invalidar producto => 204")
+    @WithMockUser
+    void invalidarProducto_DeberiaRetornar204() throws Exception {
+        mockMvc.perform(delete("/api/v1/cache/productos/{productoId}", 1L)
+                        .header("X-API-Key", "test-key"))
+                .andExpect(status().isNoContent());
+
+        verify(productoCache).invalidar(1L);
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/cache/productos/invalidaciones - Invalidar varios productos => 204")
+    @WithMockUser
+    void invalidarProductos_DeberiaRetornar204() throws Exception {
+        mockMvc.perform(post("/api/v1/cache/productos/invalidaciones")
+                        .header("X-API-Key", "test-key")
+                        .contentType("application/json")
+                        .content("[1,2,3]"))
+                .andExpect(status().isNoContent());
+
+        verify(productoCache).invalidar(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    @DisplayName("DELETE /api/v1/cache/productos - Invalidar toda la caché => 204")
+    @WithMockUser
+    void invalidarTodos_DeberiaRetornar204() throws Exception {
+        mockMvc.perform(delete("/api/v1/cache/productos")
+                        .header("X-API-Key", "test-key"))
+                .andExpect(status().isNoContent());
+
+        verify(productoCache).invalidarTodos();
+    }
+
+    @Test
+    @DisplayName("Request sin API Key debe retornar 403")
+    void invalidarSinApiKey_DeberiaRetornar403() throws Exception {
+        mockMvc.perform(delete("/api/v1/cache/productos"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(productoCache);
+    }
+}
@@ -2,11 +2,18 @@ package com.linktic.inventario_service.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.linktic.inventario_service.dto.CompraRequest;
+import com.linktic.inventario_service.dto.CursorSlice;
 import com.linktic.inventario_service.dto.InventarioRequest;
 import com.linktic.inventario_service.dto.InventarioResponse;
 import com.linktic.inventario_service.dto.JsonApiDocument;
+import com.linktic.inventario_service.dto.MovimientoResponse;
+import com.linktic.inventario_service.dto.PaginaMovimientos;
+import com.linktic.inventario_service.dto.StockHistoricoResponse;
+import com.linktic.inventario_service.events.DifusorEventosSse;
 import com.linktic.inventario_service.exception.ResourceNotFoundException;
 import com.linktic.inventario_service.service.InventarioService;
+import com.linktic.inventario_service.service.MovimientoService;
+import com.linktic.inventario_service.service.StockHistoricoService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -17,9 +24,12 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -39,6 +49,15 @@ class InventarioControllerTest {
     @MockBean
     private InventarioService inventarioService;
 
+    @MockBean
+    private MovimientoService movimientoService;
+
+    @MockBean
+    private StockHistoricoService stockHistoricoService;
+
+    @MockBean
+    private DifusorEventosSse difusorEventosSse;
+
     private InventarioResponse sampleResponse;
 
     @BeforeEach
@@ -111,10 +130,10 @@ class InventarioControllerTest {
     }
 
     @Test
-    @DisplayName("GET /api/v1/inventarios/productos/{id} - Consultar inventario => 200")
+    @DisplayName("GET /api/v1/inventarios/productos/{id} - Consultar inventario => 200, sin include no consulta el producto")
     @WithMockUser
     void consultarInventario_DeberiaRetornar200() throws Exception {
-        when(inventarioService.consultarInventario(1L)).thenReturn(sampleResponse);
+        when(inventarioService.consultarInventario(1L, false)).thenReturn(sampleResponse);
 
         mockMvc.perform(get("/api/v1/inventarios/productos/{productoId}", 1L)
                         .header("X-API-Key", "test-key"))
@@ -126,14 +145,49 @@ class InventarioControllerTest {
                 .andExpect(jsonPath("$.links.self").value("/api/v1/inventarios/productos/1"))
                 .andExpect(jsonPath("$.links.related").value("/api/v1/productos/1"));
 
-        verify(inventarioService).consultarInventario(1L);
+        verify(inventarioService).consultarInventario(1L, false);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/inventarios/productos/{id}?fields[inventarios] - Solo los campos pedidos, sin producto")
+    @WithMockUser
+    void consultarInventario_ConFieldset_DeberiaOmitirCamposYProducto() throws Exception {
+        when(inventarioService.consultarInventario(1L, false)).thenReturn(sampleResponse);
+
+        mockMvc.perform(get("/api/v1/inventarios/productos/{productoId}", 1L)
+                        .header("X-API-Key", "test-key")
+                        .param("fields[inventarios]", "cantidad,stockBajo"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.attributes.cantidad").value(100))
+                .andExpect(jsonPath("$.data.attributes.stock_bajo").value(false))
+                .andExpect(jsonPath("$.data.attributes.cantidad_minima").doesNotExist())
+                .andExpect(jsonPath("$.data.attributes.ultima_actualizacion").doesNotExist());
+
+        verify(inventarioService).consultarInventario(1L, false);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/inventarios/productos/{id}?include=producto - include prevalece sobre fields")
+    @WithMockUser
+    void consultarInventario_ConInclude_DeberiaIncluirProducto() throws Exception {
+        when(inventarioService.consultarInventario(1L, true)).thenReturn(sampleResponse);
+
+        mockMvc.perform(get("/api/v1/inventarios/productos/{productoId}", 1L)
+                        .header("X-API-Key", "test-key")
+                        .param("include", "producto")
+                        .param("fields[inventarios]", "cantidad"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.attributes.cantidad").value(100))
+                .andExpect(jsonPath("$.data.relationships.producto.data.id").value(1));
+
+        verify(inventarioService).consultarInventario(1L, true);
     }
 
     @Test
     @DisplayName("GET /api/v1/inventarios/productos/{id} - Inventario no encontrado => 404")
     @WithMockUser
     void consultarInventarioNoExistente_DeberiaRetornar404() throws Exception {
-        when(inventarioService.consultarInventario(999L))
+        when(inventarioService.consultarInventario(999L, false))
                 .thenThrow(new ResourceNotFoundException("Inventario no encontrado para productoId=999"));
 
         mockMvc.perform(get("/api/v1/inventarios/productos/{productoId}", 999L)
@@ -142,7 +196,7 @@ class InventarioControllerTest {
                 .andExpect(jsonPath("$.status").value(404))
                 .andExpect(jsonPath("$.error").value("Inventario no encontrado para productoId=999"));
 
-        verify(inventarioService).consultarInventario(999L);
+        verify(inventarioService).consultarInventario(999L, false);
     }
 
     @Test
@@ -236,6 +290,147 @@ class InventarioControllerTest {
         verify(inventarioService).actualizarInventario(eq(1L), any(InventarioRequest.class));
     }
 
+    @Test
+    @DisplayName("GET /api/v1/inventarios?page[after] - Listar por cursor => 200 con links.next")
+    @WithMockUser
+    void listarInventariosPorCursor_DeberiaIncluirCursorEnNext() throws Exception {
+        CursorSlice<InventarioResponse> slice = CursorSlice.<InventarioResponse>builder()
+                .content(List.of(sampleResponse))
+                .hasNext(true)
+                .nextCursor(5L)
+                .build();
+
+        when(inventarioService.listarInventariosDespuesDe(0L, 10, false)).thenReturn(slice);
+
+        mockMvc.perform(get("/api/v1/inventarios")
+                        .header("X-API-Key", "test-key")
+                        .param("page[after]", "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].type").value("inventarios"))
+                .andExpect(jsonPath("$.meta.hasNext").value(true))
+                .andExpect(jsonPath("$.meta.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.links.next").value("/api/v1/inventarios?page[after]=5&size=10"));
+
+        verify(inventarioService).listarInventariosDespuesDe(0L, 10, false);
+        verify(inventarioService, never()).listarInventarios(any(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/inventarios/productos/{id}/movimientos - Historial por cursor => 200 con links.next")
+    @WithMockUser
+    void listarMovimientos_DeberiaIncluirCursorEnNext() throws Exception {
+        MovimientoResponse movimiento = MovimientoResponse.builder()
+                .type("movimientos")
+                .id(8L)
+                .attributes(MovimientoResponse.Attributes.builder()
+                        .productoId(1L)
+                        .tipo("COMPRA")
+                        .delta(-5)
+                        .registradoEn(LocalDateTime.now())
+                        .build())
+                .build();
+
+        when(movimientoService.historial(1L, null, 20)).thenReturn(PaginaMovimientos.builder()
+                .content(List.of(movimiento))
+                .hasNext(true)
+                .nextCursor("1760700000000000:8")
+                .build());
+
+        mockMvc.perform(get("/api/v1/inventarios/productos/{productoId}/movimientos", 1L)
+                        .header("X-API-Key", "test-key"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].type").value("movimientos"))
+                .andExpect(jsonPath("$.data[0].attributes.producto_id").value(1))
+                .andExpect(jsonPath("$.data[0].attributes.delta").value(-5))
+                .andExpect(jsonPath("$.meta.hasNext").value(true))
+                .andExpect(jsonPath("$.links.next").value(
+                        "/api/v1/inventarios/productos/1/movimientos?page[after]=1760700000000000:8&size=20"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/inventarios/productos/{id}/movimientos - Cursor inválido => 400")
+    @WithMockUser
+    void listarMovimientos_CursorInvalido_DeberiaRetornar400() throws Exception {
+        when(movimientoService.historial(1L, "abc", 20))
+                .thenThrow(new IllegalArgumentException("page[after] inválido: abc"));
+
+        mockMvc.perform(get("/api/v1/inventarios/productos/{productoId}/movimientos", 1L)
+                        .header("X-API-Key", "test-key")
+                        .param("page[after]", "abc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/inventarios/productos/{id}/stock?instante - Stock en un instante => 200")
+    @WithMockUser
+    void consultarStockEn_DeberiaRetornarStockHistorico() throws Exception {
+        LocalDateTime instante = LocalDateTime.of(2026, 9, 30, 23, 59);
+        when(stockHistoricoService.stockEn(1L, instante)).thenReturn(StockHistoricoResponse.builder()
+                .type("stock_historico")
+                .id(1L)
+                .attributes(StockHistoricoResponse.Attributes.builder()
+                        .cantidad(42)
+                        .instante(instante)
+                        .snapshotHasta(instante.minusMinutes(30))
+                        .movimientosAplicados(3)
+                        .build())
+                .build());
+
+        mockMvc.perform(get("/api/v1/inventarios/productos/{productoId}/stock", 1L)
+                        .header("X-API-Key", "test-key")
+                        .param("instante", "2026-09-30T23:59"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.type").value("stock_historico"))
+                .andExpect(jsonPath("$.data.attributes.cantidad").value(42))
+                .andExpect(jsonPath("$.data.attributes.movimientos_aplicados").value(3));
+
+        verify(stockHistoricoService).stockEn(1L, instante);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/inventarios/productos/{id}/stock - Sin instante => 400")
+    @WithMockUser
+    void consultarStockEn_SinInstante_DeberiaRetornar400() throws Exception {
+        mockMvc.perform(get("/api/v1/inventarios/productos/{productoId}/stock", 1L)
+                        .header("X-API-Key", "test-key"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(stockHistoricoService);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/inventarios/stream?productoIds - Suscripción SSE filtrada => stream asíncrono")
+    @WithMockUser
+    void streamInventarios_DeberiaSuscribirConFiltro() throws Exception {
+        when(difusorEventosSse.suscribir(Set.of(1L, 2L))).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/v1/inventarios/stream")
+                        .header("X-API-Key", "test-key")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .param("productoIds", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+
+        verify(difusorEventosSse).suscribir(Set.of(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/inventarios/stock-bajo/count - Contar stock bajo => 200 con meta.total")
+    @WithMockUser
+    void contarInventariosStockBajo_DeberiaRetornarTotal() throws Exception {
+        when(inventarioService.contarInventariosConStockBajo()).thenReturn(42L);
+
+        mockMvc.perform(get("/api/v1/inventarios/stock-bajo/count")
+                        .header("X-API-Key", "test-key"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.meta.total").value(42))
+                .andExpect(jsonPath("$.meta.filtro").value("stock_bajo"))
+                .andExpect(jsonPath("$.data").doesNotExist());
+
+        verify(inventarioService).contarInventariosConStockBajo();
+        verify(inventarioService, never()).listarInventariosConStockBajo(any(), anyBoolean());
+    }
+
     @Test
     @DisplayName("Request sin API Key debe retornar 403")
     void requestSinApiKey_DeberiaRetornar403() throws Exception {
@@ -0,0 +1,205 @@
+package com.linktic.inventario_service.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.linktic.inventario_service.entity.InventarioCambiadoEvent;
+import com.linktic.inventario_service.events.DespachadorEventos;
+import com.linktic.inventario_service.events.EventoSink;
+import com.linktic.inventario_service.events.PoliticaDesborde;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DespachadorEventosTest {
+
+    @TempDir
+    Path directorio;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<InventarioCambiadoEvent> entregados = new CopyOnWriteArrayList<>();
+
+    private final EventoSink sink = new EventoSink() {
+        @Override
+        public String nombre() {
+            return "prueba";
+        }
+
+        @Override
+        public void enviar(List<InventarioCambiadoEvent> eventos) {
+            entregados.addAll(eventos);
+        }
+    };
+
+    @Test
+    @DisplayName("Combina los eventos de un mismo producto dentro de la ventana")
+    void encolar_MismoProducto_DeberiaCoalescer() throws Exception {
+        // Given
+        DespachadorEventos despachador = despachador(10, PoliticaDesborde.BLOQUEAR);
+        despachador.afterPropertiesSet();
+
+        // When
+        despachador.encolar(evento(1L, 100, 90));
+        despachador.encolar(evento(2L, 50, 40));
+        despachador.encolar(evento(1L, 90, 70));
+
+        // Then
+        esperarHasta(() -> entregados.size() == 2);
+        despachador.destroy();
+
+        assertThat(entregados)
+                .extracting(InventarioCambiadoEvent::getProductoId,
+                        InventarioCambiadoEvent::getCantidadAnterior,
+                        InventarioCambiadoEvent::getCantidadNueva)
+                .containsExactly(tuple(1L, 100, 70), tuple(2L, 50, 40));
+        assertThat(meterRegistry.get("inventario.eventos.coalescidos").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("inventario.eventos.retraso").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("DESCARTAR_ANTIGUO: con la cola llena descarta el más antiguo y lo cuenta")
+    void encolar_ColaLlenaDescartarAntiguo_DeberiaDescartar() {
+        // Given
+        DespachadorEventos despachador = despachador(2, PoliticaDesborde.DESCARTAR_ANTIGUO);
+
+        // When
+        despachador.encolar(evento(1L, 10, 9));
+        despachador.encolar(evento(2L, 10, 9));
+        despachador.encolar(evento(3L, 10, 9));
+
+        // Then
+        assertThat(meterRegistry.get("inventario.eventos.descartados").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("inventario.eventos.cola").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("DERRAMAR_A_DISCO: desborda a archivo y lo reproduce antes que los eventos posteriores")
+    void encolar_ColaLlenaDerramar_DeberiaConservarOrden() throws Exception {
+        // Given
+        DespachadorEventos despachador = despachador(2, PoliticaDesborde.DERRAMAR_A_DISCO);
+        despachador.encolar(evento(1L, 10, 9));
+        despachador.encolar(evento(2L, 10, 9));
+        despachador.encolar(evento(3L, 10, 9));
+        despachador.encolar(evento(4L, 10, 9));
+        // Quien encola no escribe en disco: lo hace el hilo escritor
+        assertThat(Files.exists(directorio.resolve("eventos.ndjson"))).isFalse();
+
+        // When
+        despachador.afterPropertiesSet();
+        esperarHasta(() -> entregados.size() == 4);
+        assertThat(meterRegistry.get("inventario.eventos.derramados").counter().count()).isEqualTo(2);
+        despachador.encolar(evento(5L, 10, 9));
+        esperarHasta(() -> entregados.size() == 5);
+        despachador.destroy();
+
+        // Then
+        assertThat(entregados).extracting(InventarioCambiadoEvent::getProductoId).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(meterRegistry.get("inventario.eventos.descartados").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("DERRAMAR_A_DISCO: retoma una reproducción interrumpida desde su posición y omite la línea truncada")
+    void afterPropertiesSet_ReproduccionInterrumpida_DeberiaContinuarDesdeLaPosicion() throws Exception {
+        // Given: la primera línea ya se entregó y la última quedó a medio escribir
+        String primera = linea(evento(1L, 10, 9));
+        String segunda = linea(evento(2L, 10, 9));
+        Files.writeString(directorio.resolve("eventos.ndjson.procesando"),
+                primera + "\n" + segunda + "\n" + segunda.substring(0, 20));
+        Files.writeString(directorio.resolve("eventos.ndjson.posicion"),
+                Long.toString(primera.getBytes(StandardCharsets.UTF_8).length + 1));
+        DespachadorEventos despachador = despachador(10, PoliticaDesborde.DERRAMAR_A_DISCO);
+
+        // When
+        despachador.afterPropertiesSet();
+        esperarHasta(() -> !Files.exists(directorio.resolve("eventos.ndjson.procesando")));
+        despachador.destroy();
+
+        // Then
+        assertThat(entregados).extracting(InventarioCambiadoEvent::getProductoId).containsExactly(2L);
+        assertThat(meterRegistry.get("inventario.eventos.ilegibles").counter().count()).isEqualTo(1);
+        assertThat(directorio.resolve("eventos.ndjson.posicion")).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("DERRAMAR_A_DISCO: un desborde nuevo se reproduce detrás de los restos de una reproducción interrumpida")
+    void afterPropertiesSet_DesbordeYReproduccionInterrumpida_DeberiaReproducirEnOrden() throws Exception {
+        // Given
+        Files.writeString(directorio.resolve("eventos.ndjson.procesando"), linea(evento(1L, 10, 9)));
+        Files.writeString(directorio.resolve("eventos.ndjson"), linea(evento(2L, 10, 9)) + "\n");
+        DespachadorEventos despachador = despachador(10, PoliticaDesborde.DERRAMAR_A_DISCO);
+
+        // When
+        despachador.afterPropertiesSet();
+        esperarHasta(() -> entregados.size() == 2);
+        despachador.destroy();
+
+        // Then
+        assertThat(entregados).extracting(InventarioCambiadoEvent::getProductoId).containsExactly(1L, 2L);
+        assertThat(directorio.resolve("eventos.ndjson")).doesNotExist();
+        assertThat(meterRegistry.get("inventario.eventos.ilegibles").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Un destino que falla no frena a los demás y sus eventos se cuentan como fallidos")
+    void encolar_DestinoFalla_DeberiaContarFallidos() throws Exception {
+        // Given
+        EventoSink roto = new EventoSink() {
+            @Override
+            public String nombre() {
+                return "roto";
+            }
+
+            @Override
+            public void enviar(List<InventarioCambiadoEvent> eventos) {
+                throw new IllegalStateException("503");
+            }
+        };
+        DespachadorEventos despachador = new DespachadorEventos(List.of(roto, sink), new ObjectMapper().findAndRegisterModules(),
+                10, Duration.ofMillis(20), 100, PoliticaDesborde.BLOQUEAR, Duration.ofMillis(10),
+                directorio.resolve("eventos.ndjson"), meterRegistry);
+        despachador.afterPropertiesSet();
+
+        // When
+        despachador.encolar(evento(1L, 10, 9));
+        despachador.encolar(evento(2L, 10, 9));
+        esperarHasta(() -> entregados.size() == 2);
+        despachador.destroy();
+
+        // Then
+        assertThat(meterRegistry.get("inventario.eventos.fallidos").counter().count()).isEqualTo(2);
+    }
+
+    private DespachadorEventos despachador(int capacidad, PoliticaDesborde politica) {
+        return new DespachadorEventos(List.of(sink), new ObjectMapper().findAndRegisterModules(), capacidad,
+                Duration.ofMillis(20), 100, politica, Duration.ofMillis(10),
+                directorio.resolve("eventos.ndjson"), meterRegistry);
+    }
+
+    private static String linea(InventarioCambiadoEvent evento) throws Exception {
+        return new ObjectMapper().findAndRegisterModules()
+                .writeValueAsString(Map.of("evento", evento, "encoladoEn", System.currentTimeMillis()));
+    }
+
+    private static InventarioCambiadoEvent evento(Long productoId, int anterior, int nueva) {
+        return new InventarioCambiadoEvent(productoId, anterior, nueva, "COMPRA", LocalDateTime.now());
+    }
+
+    private static void esperarHasta(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condicion.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("tiempo de espera agotado").isLessThan(limite);
+            Thread.sleep(10);
+        }
+    }
+}
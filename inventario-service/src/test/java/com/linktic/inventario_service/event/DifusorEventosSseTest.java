@@ -0,0 +1,216 @@
+package com.linktic.inventario_service.event;
+
+import com.linktic.inventario_service.entity.InventarioCambiadoEvent;
+import com.linktic.inventario_service.events.BusEventosInventario;
+import com.linktic.inventario_service.events.DifusorEventosSse;
+import com.linktic.inventario_service.events.PoliticaDescarteSse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DifusorEventosSseTest {
+
+    private BusEventosInventario bus;
+    private SimpleMeterRegistry meterRegistry;
+    private DifusorEventosSse difusor;
+
+    /** Eventos recibidos por cada emitter creado, en orden de creación. */
+    private final List<List<Long>> recibidos = new CopyOnWriteArrayList<>();
+    private CountDownLatch liberarEnvios = new CountDownLatch(0);
+    private final List<Thread> cierres = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        bus = new BusEventosInventario();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        liberarEnvios.countDown();
+        if (difusor != null) {
+            difusor.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Solo envía a cada suscriptor los productos de su filtro, en orden")
+    void publicar_DeberiaFiltrarPorProducto() throws Exception {
+        // Given
+        difusor = crearDifusor(10, PoliticaDescarteSse.DESCARTAR_ANTIGUO);
+        difusor.suscribir(Set.of(1L));
+        difusor.suscribir(null);
+
+        // When
+        bus.enviar(List.of(evento(1L), evento(2L), evento(1L)));
+
+        // Then
+        esperarHasta(() -> recibidos.get(1).size() == 3);
+        esperarHasta(() -> recibidos.get(0).size() == 2);
+        assertThat(recibidos.get(0)).containsExactly(1L, 1L);
+        assertThat(recibidos.get(1)).containsExactly(1L, 2L, 1L);
+        assertThat(meterRegistry.get("inventario.sse.suscriptores").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("inventario.sse.enviados").counter().count()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Suscriptor lento: el publicador no espera y se descartan los eventos más antiguos del buffer")
+    void publicar_SuscriptorLento_DeberiaDescartarSinBloquear() throws Exception {
+        // Given
+        liberarEnvios = new CountDownLatch(1);
+        difusor = crearDifusor(2, PoliticaDescarteSse.DESCARTAR_ANTIGUO);
+        difusor.suscribir(null);
+
+        // When: el primer evento queda detenido en el envío; los demás llenan el buffer de 2
+        bus.enviar(List.of(evento(1L)));
+        esperarHasta(() -> recibidos.get(0).size() == 1);
+        long inicio = System.nanoTime();
+        bus.enviar(List.of(evento(2L), evento(3L), evento(4L), evento(5L)));
+        long duracion = System.nanoTime() - inicio;
+        liberarEnvios.countDown();
+
+        // Then
+        assertThat(Duration.ofNanos(duracion)).isLessThan(Duration.ofMillis(500));
+        esperarHasta(() -> recibidos.get(0).size() == 3);
+        assertThat(recibidos.get(0)).containsExactly(1L, 4L, 5L);
+        assertThat(meterRegistry.get("inventario.sse.descartados").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Política DESCONECTAR: da de baja sin esperar al envío en curso y cierra desde el hilo de envío")
+    void publicar_PoliticaDesconectar_DeberiaDarDeBajaSinBloquear() throws Exception {
+        // Given: el envío retiene el monitor del emitter, como la escritura de ResponseBodyEmitter
+        liberarEnvios = new CountDownLatch(1);
+        difusor = crearDifusor(1, PoliticaDescarteSse.DESCONECTAR);
+        difusor.suscribir(null);
+        bus.enviar(List.of(evento(1L)));
+        esperarHasta(() -> recibidos.get(0).size() == 1);
+
+        // When
+        long inicio = System.nanoTime();
+        bus.enviar(List.of(evento(2L), evento(3L)));
+        long duracion = System.nanoTime() - inicio;
+
+        // Then
+        assertThat(Duration.ofNanos(duracion)).isLessThan(Duration.ofMillis(500));
+        assertThat(meterRegistry.get("inventario.sse.suscriptores").gauge().value()).isZero();
+        assertThat(meterRegistry.get("inventario.sse.descartados").counter().count()).isEqualTo(1);
+        assertThat(cierres).isEmpty();
+
+        liberarEnvios.countDown();
+        esperarHasta(() -> cierres.size() == 1);
+        assertThat(cierres.get(0).getName()).startsWith("inventario-sse-");
+        assertThat(recibidos.get(0)).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Envío bloqueado más de envio-maximo: expulsa al suscriptor y los demás siguen recibiendo")
+    void vigilarEnvios_EnvioBloqueado_NoDeberiaFrenarALosDemas() throws Exception {
+        // Given: un solo hilo de envío; el emitter del producto 1 no retorna aunque se le interrumpa
+        liberarEnvios = new CountDownLatch(1);
+        List<Long> sano = new CopyOnWriteArrayList<>();
+        difusor = new DifusorEventosSse(bus, 10, PoliticaDescarteSse.DESCARTAR_ANTIGUO, Duration.ofMinutes(1), 1,
+                Duration.ofMillis(50), meterRegistry) {
+            @Override
+            protected SseEmitter crearEmitter() {
+                boolean bloqueante = recibidos.isEmpty();
+                List<Long> eventos = bloqueante ? new CopyOnWriteArrayList<>() : sano;
+                recibidos.add(eventos);
+                return new SseEmitter() {
+                    @Override
+                    public void send(SseEventBuilder builder) {
+                        eventos.add(0L);
+                        while (bloqueante) {
+                            try {
+                                if (liberarEnvios.await(5, TimeUnit.SECONDS)) {
+                                    return;
+                                }
+                            } catch (InterruptedException ignorada) {
+                                // Como una escritura del contenedor que no atiende la interrupción
+                            }
+                        }
+                    }
+                };
+            }
+        };
+        difusor.afterPropertiesSet();
+        difusor.suscribir(Set.of(1L));
+        difusor.suscribir(Set.of(2L));
+        bus.enviar(List.of(evento(1L)));
+        esperarHasta(() -> recibidos.get(0).size() == 1);
+        bus.enviar(List.of(evento(2L)));
+        Thread.sleep(100);
+        assertThat(sano).isEmpty();
+
+        // When
+        difusor.vigilarEnvios();
+
+        // Then
+        esperarHasta(() -> sano.size() == 1);
+        assertThat(meterRegistry.get("inventario.sse.expulsados").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("inventario.sse.suscriptores").gauge().value()).isEqualTo(1);
+    }
+
+    private DifusorEventosSse crearDifusor(int capacidad, PoliticaDescarteSse politica) {
+        DifusorEventosSse creado = new DifusorEventosSse(bus, capacidad, politica, Duration.ofMinutes(1), 2,
+                Duration.ofSeconds(5), meterRegistry) {
+            @Override
+            protected SseEmitter crearEmitter() {
+                List<Long> eventos = new CopyOnWriteArrayList<>();
+                recibidos.add(eventos);
+                return new SseEmitter() {
+                    @Override
+                    public synchronized void send(SseEventBuilder builder) throws IOException {
+                        builder.build().stream()
+                                .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                                .filter(InventarioCambiadoEvent.class::isInstance)
+                                .map(data -> ((InventarioCambiadoEvent) data).getProductoId())
+                                .forEach(eventos::add);
+                        try {
+                            // Simula un cliente que no lee: retiene el hilo de envío
+                            liberarEnvios.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+
+                    @Override
+                    public synchronized void complete() {
+                        cierres.add(Thread.currentThread());
+                        super.complete();
+                    }
+                };
+            }
+        };
+        creado.afterPropertiesSet();
+        return creado;
+    }
+
+    private static InventarioCambiadoEvent evento(Long productoId) {
+        return new InventarioCambiadoEvent(productoId, 10, 9, "COMPRA", LocalDateTime.now());
+    }
+
+    private static void esperarHasta(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condicion.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("tiempo de espera agotado").isLessThan(limite);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -4,34 +4,35 @@ import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.read.ListAppender;
 import com.linktic.inventario_service.entity.InventarioCambiadoEvent;
-import com.linktic.inventario_service.events.InventarioEventListener;
+import com.linktic.inventario_service.events.LogEventoSink;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
 
-class InventarioEventListenerTest {
+class LogEventoSinkTest {
 
-    private InventarioEventListener eventListener;
+    private LogEventoSink sink;
     private ListAppender<ILoggingEvent> listAppender;
 
     @BeforeEach
     void setUp() {
-        eventListener = new InventarioEventListener();
+        sink = new LogEventoSink();
 
-        Logger logger = (Logger) LoggerFactory.getLogger(InventarioEventListener.class);
+        Logger logger = (Logger) LoggerFactory.getLogger(LogEventoSink.class);
         listAppender = new ListAppender<>();
         listAppender.start();
         logger.addAppender(listAppender);
     }
 
     @Test
-    @DisplayName("Evento normal debe registrar información básica")
-    void handleInventarioCambiado_EventoNormal() {
+    @DisplayName("Evento normal debe registrar una sola línea con la información básica")
+    void enviar_EventoNormal() {
         // Given
         InventarioCambiadoEvent evento = InventarioCambiadoEvent.builder()
                 .productoId(1L)
@@ -42,21 +43,21 @@ class InventarioEventListenerTest {
                 .build();
 
         // When
-        eventListener.handleInventarioCambiado(evento);
+        sink.enviar(List.of(evento));
 
         // Then
         assertThat(listAppender.list)
                 .extracting(ILoggingEvent::getFormattedMessage)
-                .anyMatch(msg -> msg.contains("EVENTO DE INVENTARIO"))
-                .anyMatch(msg -> msg.contains("Producto ID: 1"))
-                .anyMatch(msg -> msg.contains("Cantidad anterior: 100"))
-                .anyMatch(msg -> msg.contains("Cantidad nueva: 80"))
-                .anyMatch(msg -> msg.contains("Tipo de operación: COMPRA"));
+                .singleElement()
+                .satisfies(msg -> assertThat(msg)
+                        .contains("productoId: 1")
+                        .contains("operación: COMPRA")
+                        .contains("cantidad: 100 -> 80"));
     }
 
     @Test
     @DisplayName("Stock bajo debe generar alerta WARNING")
-    void handleInventarioCambiado_StockBajo() {
+    void enviar_StockBajo() {
         // Given
         InventarioCambiadoEvent evento = InventarioCambiadoEvent.builder()
                 .productoId(1L)
@@ -67,7 +68,7 @@ class InventarioEventListenerTest {
                 .build();
 
         // When
-        eventListener.handleInventarioCambiado(evento);
+        sink.enviar(List.of(evento));
 
         // Then
         assertThat(listAppender.list)
@@ -78,7 +79,7 @@ class InventarioEventListenerTest {
 
     @Test
     @DisplayName("Stock crítico debe generar alerta CRÍTICA")
-    void handleInventarioCambiado_StockCritico() {
+    void enviar_StockCritico() {
         // Given
         InventarioCambiadoEvent evento = InventarioCambiadoEvent.builder()
                 .productoId(1L)
@@ -89,7 +90,7 @@ class InventarioEventListenerTest {
                 .build();
 
         // When
-        eventListener.handleInventarioCambiado(evento);
+        sink.enviar(List.of(evento));
 
         // Then
         assertThat(listAppender.list)
@@ -0,0 +1,48 @@
+package com.linktic.inventario_service.event;
+
+import com.linktic.inventario_service.entity.InventarioCambiadoEvent;
+import com.linktic.inventario_service.entity.Movimiento;
+import com.linktic.inventario_service.events.MovimientoEventWriter;
+import com.linktic.inventario_service.repository.MovimientoRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MovimientoEventWriterTest {
+
+    @Mock
+    private MovimientoRepository movimientoRepository;
+
+    @InjectMocks
+    private MovimientoEventWriter writer;
+
+    @Test
+    @DisplayName("registrar: guarda el delta de la cantidad y trunca la fecha a microsegundos")
+    void registrar_DeberiaGuardarDelta() {
+        // Given
+        LocalDateTime timestamp = LocalDateTime.of(2026, 10, 17, 9, 0, 0, 123_456_789);
+        InventarioCambiadoEvent event = new InventarioCambiadoEvent(1L, 50, 45, "COMPRA", timestamp);
+
+        // When
+        writer.registrar(event);
+
+        // Then
+        ArgumentCaptor<Movimiento> captor = ArgumentCaptor.forClass(Movimiento.class);
+        verify(movimientoRepository).save(captor.capture());
+        Movimiento movimiento = captor.getValue();
+        assertThat(movimiento.getProductoId()).isEqualTo(1L);
+        assertThat(movimiento.getTipo()).isEqualTo("COMPRA");
+        assertThat(movimiento.getDelta()).isEqualTo(-5);
+        assertThat(movimiento.getRegistradoEn()).isEqualTo(LocalDateTime.of(2026, 10, 17, 9, 0, 0, 123_456_000));
+    }
+}
@@ -7,6 +7,7 @@ import com.linktic.inventario_service.entity.Inventario;
 import com.linktic.inventario_service.repository.InventarioRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -18,8 +19,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -268,10 +273,9 @@ public class InventarioControllerIntegrationTest {
                         .build())
                 .build();
 
-        // Mockear las llamadas al servicio de productos
-        when(productoClient.obtenerProducto(1L)).thenReturn(producto1);
-        when(productoClient.obtenerProducto(2L)).thenReturn(producto2);
-        when(productoClient.obtenerProducto(3L)).thenReturn(producto3);
+        // Mockear la llamada en lote al servicio de productos
+        when(productoClient.obtenerProductos(anyCollection()))
+                .thenReturn(Map.of(1L, producto1, 2L, producto2, 3L, producto3));
 
         // Inventarios con stock normal
         Inventario inv1 = Inventario.builder()
@@ -314,10 +318,11 @@ public class InventarioControllerIntegrationTest {
                 .andExpect(jsonPath("$.meta.filtro").value("stock_bajo"))
                 .andExpect(jsonPath("$.meta.totalElements").value(2));
 
-        // Verificar que se llamó al cliente de productos para cada inventario con stock bajo
-        verify(productoClient, times(1)).obtenerProducto(2L);
-        verify(productoClient, times(1)).obtenerProducto(3L);
-        // No debería llamar al producto 1 porque no tiene stock bajo
-        verify(productoClient, never()).obtenerProducto(1L);
+        // Verificar que se consultaron en una sola llamada solo los productos con stock bajo
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> idsCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(productoClient, times(1)).obtenerProductos(idsCaptor.capture());
+        assertThat(idsCaptor.getValue()).containsExactlyInAnyOrder(2L, 3L);
+        verify(productoClient, never()).obtenerProducto(anyLong());
     }
 }
\ No newline at end of file
@@ -19,8 +19,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -59,6 +62,10 @@ public class InventarioServiceIntegrationTest {
                 .build();
 
         when(productoClient.obtenerProducto(anyLong())).thenReturn(productoMock);
+        when(productoClient.obtenerProductos(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().collect(Collectors.toMap(id -> id, id -> productoMock));
+        });
     }
 
     @Test
@@ -107,7 +114,7 @@ public class InventarioServiceIntegrationTest {
         inventarioRepository.save(inventario);
 
         // When
-        InventarioResponse response = inventarioService.consultarInventario(1L);
+        InventarioResponse response = inventarioService.consultarInventario(1L, true);
 
         // Then
         assertThat(response).isNotNull();
@@ -120,7 +127,7 @@ public class InventarioServiceIntegrationTest {
     @Test
     void consultarInventario_NoExistente_DebeLanzarExcepcion() {
         // When & Then
-        assertThatThrownBy(() -> inventarioService.consultarInventario(999L))
+        assertThatThrownBy(() -> inventarioService.consultarInventario(999L, true))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("Inventario no encontrado para productoId=999");
     }
@@ -178,7 +185,7 @@ public class InventarioServiceIntegrationTest {
 
         // When
         PageRequest pageRequest = PageRequest.of(0, 10);
-        Page<InventarioResponse> page = inventarioService.listarInventariosConStockBajo(pageRequest);
+        Page<InventarioResponse> page = inventarioService.listarInventariosConStockBajo(pageRequest, true);
 
         // Then
         assertThat(page.getContent()).hasSize(2);
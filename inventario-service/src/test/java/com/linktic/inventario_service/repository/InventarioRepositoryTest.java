@@ -9,6 +9,10 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
 import java.util.Optional;
 
@@ -129,4 +133,49 @@ class InventarioRepositoryTest {
                 .as("Verificar que al intentar persistir un inventario con productoId duplicado se lanza DataIntegrityViolationException")
                 .isInstanceOf(DataIntegrityViolationException.class);
     }
+
+    @Test
+    @DisplayName("findByIdGreaterThanOrderByIdAsc: retorna la siguiente página por cursor")
+    void testFindByIdGreaterThanOrderByIdAsc() {
+        Inventario segundo = inventarioRepository.save(Inventario.builder()
+                .productoId(101L)
+                .cantidad(5)
+                .build());
+
+        Slice<Inventario> slice = inventarioRepository.findByIdGreaterThanOrderByIdAsc(
+                inventarioPersistido.getId(), PageRequest.of(0, 10));
+
+        assertThat(slice.getContent())
+                .as("Verificar que solo se retornen inventarios posteriores al cursor")
+                .extracting(Inventario::getId)
+                .containsExactly(segundo.getId());
+        assertThat(slice.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("findConStockBajo: retorna solo inventarios con cantidad <= cantidad mínima y su total")
+    void testFindConStockBajo() {
+        Inventario bajo = inventarioRepository.save(Inventario.builder()
+                .productoId(101L)
+                .cantidad(5)
+                .cantidadMinima(10)
+                .build());
+        Inventario enElMinimo = inventarioRepository.save(Inventario.builder()
+                .productoId(102L)
+                .cantidad(10)
+                .cantidadMinima(10)
+                .build());
+
+        Page<Inventario> page = inventarioRepository.findConStockBajo(PageRequest.of(0, 1, Sort.by("id")));
+
+        assertThat(page.getContent())
+                .as("Verificar que la primera página contenga el primer inventario con stock bajo")
+                .extracting(Inventario::getId)
+                .containsExactly(bajo.getId());
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(inventarioRepository.countConStockBajo()).isEqualTo(2);
+        assertThat(inventarioRepository.findConStockBajo(PageRequest.of(1, 1, Sort.by("id"))).getContent())
+                .extracting(Inventario::getId)
+                .containsExactly(enElMinimo.getId());
+    }
 }
@@ -2,6 +2,7 @@ package com.linktic.inventario_service.service;
 
 import com.linktic.inventario_service.client.ProductoClient;
 import com.linktic.inventario_service.dto.CompraRequest;
+import com.linktic.inventario_service.dto.CursorSlice;
 import com.linktic.inventario_service.dto.InventarioRequest;
 import com.linktic.inventario_service.dto.InventarioResponse;
 import com.linktic.inventario_service.dto.ProductoDTO;
@@ -15,13 +16,24 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -40,6 +52,9 @@ class InventarioServiceTest {
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private InventarioService inventarioService;
 
@@ -48,6 +63,10 @@ class InventarioServiceTest {
 
     @BeforeEach
     void setUp() {
+        // Ejecutar el callback transaccional directamente
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
         // Crear un ProductoDTO simulado
         producto = ProductoDTO.builder()
                 .id(1L)
@@ -80,7 +99,7 @@ class InventarioServiceTest {
         when(productoClient.obtenerProducto(1L)).thenReturn(producto);
 
         // When
-        InventarioResponse response = inventarioService.consultarInventario(1L);
+        InventarioResponse response = inventarioService.consultarInventario(1L, true);
 
         // Then: verificar valores devueltos
         assertThat(response).isNotNull();
@@ -93,6 +112,22 @@ class InventarioServiceTest {
         verify(productoClient).obtenerProducto(1L);
     }
 
+    @Test
+    @DisplayName("consultarInventario: sin relación producto => no consulta el servicio de productos")
+    void consultarInventario_SinProducto_NoDeberiaLlamarProductoClient() {
+        // Given
+        when(inventarioRepository.findByProductoId(1L)).thenReturn(Optional.of(inventario));
+
+        // When
+        InventarioResponse response = inventarioService.consultarInventario(1L, false);
+
+        // Then
+        assertThat(response.getAttributes().getCantidad()).isEqualTo(100);
+        assertThat(response.getAttributes().getStockBajo()).isFalse();
+        assertThat(response.getRelationships()).isNull();
+        verifyNoInteractions(productoClient);
+    }
+
     @Test
     @DisplayName("consultarInventario: no existente => lanza ResourceNotFoundException")
     void consultarInventarioNoExistente_DeberiaLanzarExcepcion() {
@@ -100,7 +135,7 @@ class InventarioServiceTest {
         when(inventarioRepository.findByProductoId(1L)).thenReturn(Optional.empty());
 
         // When & Then
-        assertThatThrownBy(() -> inventarioService.consultarInventario(1L))
+        assertThatThrownBy(() -> inventarioService.consultarInventario(1L, true))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("Inventario no encontrado para productoId=1");
 
@@ -117,7 +152,7 @@ class InventarioServiceTest {
                 .thenThrow(new ProductoServiceException("Servicio no disponible"));
 
         // When & Then
-        assertThatThrownBy(() -> inventarioService.consultarInventario(1L))
+        assertThatThrownBy(() -> inventarioService.consultarInventario(1L, true))
                 .isInstanceOf(ProductoServiceException.class)
                 .hasMessageContaining("Servicio no disponible");
 
@@ -287,4 +322,229 @@ class InventarioServiceTest {
         verify(inventarioRepository, never()).save(any());
         verify(eventPublisher, never()).publishEvent(any());
     }
+
+    @Test
+    @DisplayName("listarInventarios: consulta los productos de la página en una sola llamada")
+    void listarInventarios_DeberiaConsultarProductosEnLote() {
+        // Given: dos inventarios, uno de ellos con producto inexistente
+        Inventario huerfano = Inventario.builder()
+                .id(2L)
+                .productoId(2L)
+                .cantidad(5)
+                .cantidadMinima(10)
+                .cantidadMaxima(200)
+                .build();
+        PageRequest pageRequest = PageRequest.of(0, 10);
+
+        when(inventarioRepository.findAll(pageRequest))
+                .thenReturn(new PageImpl<>(List.of(inventario, huerfano), pageRequest, 2));
+        when(productoClient.obtenerProductos(List.of(1L, 2L))).thenReturn(Map.of(1L, producto));
+
+        // When
+        Page<InventarioResponse> page = inventarioService.listarInventarios(pageRequest, true);
+
+        // Then
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.getContent().get(0).getRelationships().getProducto().getData().getNombre())
+                .isEqualTo("Laptop Dell XPS");
+
+        verify(productoClient).obtenerProductos(List.of(1L, 2L));
+        verify(productoClient, never()).obtenerProducto(anyLong());
+    }
+
+    @Test
+    @DisplayName("listarInventariosConStockBajo: filtra en base de datos y conserva el total real")
+    void listarInventariosConStockBajo_DeberiaUsarConsultaDeBaseDeDatos() {
+        // Given
+        Inventario bajo = Inventario.builder()
+                .id(2L)
+                .productoId(2L)
+                .cantidad(5)
+                .cantidadMinima(10)
+                .cantidadMaxima(200)
+                .build();
+        ProductoDTO productoBajo = ProductoDTO.builder()
+                .id(2L)
+                .attributes(ProductoDTO.Attributes.builder()
+                        .nombre("Mouse")
+                        .precio(new BigDecimal("20.00"))
+                        .build())
+                .build();
+        PageRequest pageRequest = PageRequest.of(0, 1);
+
+        when(inventarioRepository.findConStockBajo(pageRequest))
+                .thenReturn(new PageImpl<>(List.of(bajo), pageRequest, 25));
+        when(productoClient.obtenerProductos(List.of(2L))).thenReturn(Map.of(2L, productoBajo));
+
+        // When
+        Page<InventarioResponse> page = inventarioService.listarInventariosConStockBajo(pageRequest, true);
+
+        // Then
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.getContent().get(0).getAttributes().getStockBajo()).isTrue();
+        assertThat(page.getTotalElements()).isEqualTo(25);
+        assertThat(page.hasNext()).isTrue();
+        verify(inventarioRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("contarInventariosConStockBajo: delega el conteo en la base de datos")
+    void contarInventariosConStockBajo_DeberiaRetornarConteo() {
+        // Given
+        when(inventarioRepository.countConStockBajo()).thenReturn(42L);
+
+        // When & Then
+        assertThat(inventarioService.contarInventariosConStockBajo()).isEqualTo(42L);
+        verifyNoInteractions(productoClient);
+    }
+
+    @Test
+    @DisplayName("listarInventarios: error en servicio de productos => filtra los inventarios")
+    void listarInventarios_ErrorServicioProductos_DeberiaFiltrar() {
+        // Given
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        when(inventarioRepository.findAll(pageRequest))
+                .thenReturn(new PageImpl<>(List.of(inventario), pageRequest, 1));
+        when(productoClient.obtenerProductos(anyCollection()))
+                .thenThrow(new ProductoServiceException("Servicio no disponible"));
+
+        // When
+        Page<InventarioResponse> page = inventarioService.listarInventarios(pageRequest, true);
+
+        // Then
+        assertThat(page.getContent()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("listarInventarios: sin relación producto => no filtra ni consulta productos")
+    void listarInventarios_SinProducto_NoDeberiaLlamarProductoClient() {
+        // Given
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        when(inventarioRepository.findAll(pageRequest))
+                .thenReturn(new PageImpl<>(List.of(inventario), pageRequest, 1));
+
+        // When
+        Page<InventarioResponse> page = inventarioService.listarInventarios(pageRequest, false);
+
+        // Then
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.getContent().get(0).getRelationships()).isNull();
+        verifyNoInteractions(productoClient);
+    }
+
+    @Test
+    @DisplayName("listarInventariosDespuesDe: el cursor avanza aunque se filtren inventarios huérfanos")
+    void listarInventariosDespuesDe_DeberiaRetornarCursorDelUltimoRecorrido() {
+        // Given: el último inventario de la página es huérfano
+        Inventario huerfano = Inventario.builder()
+                .id(7L)
+                .productoId(7L)
+                .cantidad(5)
+                .cantidadMinima(10)
+                .cantidadMaxima(200)
+                .build();
+        PageRequest pageRequest = PageRequest.of(0, 2);
+
+        when(inventarioRepository.findByIdGreaterThanOrderByIdAsc(0L, pageRequest))
+                .thenReturn(new SliceImpl<>(List.of(inventario, huerfano), pageRequest, true));
+        when(productoClient.obtenerProductos(List.of(1L, 7L))).thenReturn(Map.of(1L, producto));
+
+        // When
+        CursorSlice<InventarioResponse> slice = inventarioService.listarInventariosDespuesDe(0L, 2, true);
+
+        // Then
+        assertThat(slice.getContent()).hasSize(1);
+        assertThat(slice.isHasNext()).isTrue();
+        assertThat(slice.getNextCursor()).isEqualTo(7L);
+        verify(inventarioRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("procesarCompra (ATOMICO): descuenta con UPDATE condicional sin bloqueo previo")
+    void procesarCompraAtomico_StockSuficiente_DeberiaDescontarConUpdate() {
+        // Given
+        ReflectionTestUtils.setField(inventarioService, "modoCompra", ModoCompra.ATOMICO);
+        inventario.setCantidad(90);
+        when(inventarioRepository.descontarStock(1L, 10)).thenReturn(Optional.of(inventario));
+        when(productoClient.obtenerProducto(1L)).thenReturn(producto);
+
+        // When
+        InventarioResponse response = inventarioService.procesarCompra(1L, CompraRequest.builder().cantidad(10).build());
+
+        // Then
+        assertThat(response.getAttributes().getCantidad()).isEqualTo(90);
+
+        ArgumentCaptor<InventarioCambiadoEvent> eventCaptor = ArgumentCaptor.forClass(InventarioCambiadoEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getCantidadAnterior()).isEqualTo(100);
+        assertThat(eventCaptor.getValue().getCantidadNueva()).isEqualTo(90);
+
+        verify(inventarioRepository, never()).findByProductoIdWithLock(anyLong());
+        verify(inventarioRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("procesarCompra (ATOMICO): ninguna fila actualizada con stock insuficiente => IllegalArgumentException")
+    void procesarCompraAtomico_StockInsuficiente_DeberiaLanzarExcepcion() {
+        // Given
+        ReflectionTestUtils.setField(inventarioService, "modoCompra", ModoCompra.ATOMICO);
+        when(inventarioRepository.descontarStock(1L, 150)).thenReturn(Optional.empty());
+        when(inventarioRepository.findCantidadByProductoId(1L)).thenReturn(Optional.of(100));
+
+        // When & Then
+        assertThatThrownBy(() -> inventarioService.procesarCompra(1L, CompraRequest.builder().cantidad(150).build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Stock insuficiente para productoId=1")
+                .hasMessageContaining("Disponible: 100");
+
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("procesarCompra (ATOMICO): inventario inexistente => ResourceNotFoundException")
+    void procesarCompraAtomico_NoExisteInventario_DeberiaLanzarExcepcion() {
+        // Given
+        ReflectionTestUtils.setField(inventarioService, "modoCompra", ModoCompra.ATOMICO);
+        when(inventarioRepository.descontarStock(1L, 10)).thenReturn(Optional.empty());
+        when(inventarioRepository.findCantidadByProductoId(1L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> inventarioService.procesarCompra(1L, CompraRequest.builder().cantidad(10).build()))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Inventario no encontrado para productoId=1");
+    }
+
+    @Test
+    @DisplayName("procesarCompra: consulta el producto antes de abrir la transacción")
+    void procesarCompra_ConsultaProductoAntesDeLaTransaccion() {
+        // Given
+        when(productoClient.obtenerProducto(1L)).thenReturn(producto);
+        when(inventarioRepository.findByProductoIdWithLock(1L)).thenReturn(Optional.of(inventario));
+        when(inventarioRepository.save(any(Inventario.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        inventarioService.procesarCompra(1L, CompraRequest.builder().cantidad(10).build());
+
+        // Then
+        InOrder inOrder = inOrder(productoClient, transactionTemplate, inventarioRepository);
+        inOrder.verify(productoClient).obtenerProducto(1L);
+        inOrder.verify(transactionTemplate).execute(any());
+        inOrder.verify(inventarioRepository).findByProductoIdWithLock(1L);
+    }
+
+    @Test
+    @DisplayName("actualizarInventario: error en servicio de productos => no abre transacción")
+    void actualizarInventario_ErrorServicioProductos_NoAbreTransaccion() {
+        // Given
+        when(productoClient.obtenerProducto(1L))
+                .thenThrow(new ProductoServiceException("Servicio no disponible"));
+
+        // When & Then
+        assertThatThrownBy(() -> inventarioService.actualizarInventario(1L,
+                InventarioRequest.builder().cantidad(200).build()))
+                .isInstanceOf(ProductoServiceException.class);
+
+        verify(transactionTemplate, never()).execute(any());
+        verifyNoInteractions(inventarioRepository);
+    }
 }
@@ -0,0 +1,95 @@
+package com.linktic.inventario_service.service;
+
+import com.linktic.inventario_service.dto.PaginaMovimientos;
+import com.linktic.inventario_service.entity.Movimiento;
+import com.linktic.inventario_service.repository.MovimientoRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MovimientoServiceTest {
+
+    @Mock
+    private MovimientoRepository movimientoRepository;
+
+    @InjectMocks
+    private MovimientoService movimientoService;
+
+    @Test
+    @DisplayName("historial: primera página con una fila de más => hasNext y cursor del último movimiento")
+    void historial_PrimeraPagina_DeberiaRetornarCursorDelUltimo() {
+        // Given
+        LocalDateTime t = LocalDateTime.of(2026, 10, 17, 12, 30, 15, 123_456_000);
+        when(movimientoRepository.findByProductoIdOrderByRegistradoEnDescIdDesc(1L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(movimiento(9L, t.plusSeconds(2), -5),
+                        movimiento(8L, t.plusSeconds(1), 20),
+                        movimiento(7L, t, 100)));
+
+        // When
+        PaginaMovimientos pagina = movimientoService.historial(1L, null, 2);
+
+        // Then
+        assertThat(pagina.getContent()).extracting(m -> m.getId()).containsExactly(9L, 8L);
+        assertThat(pagina.getContent().get(0).getAttributes().getDelta()).isEqualTo(-5);
+        assertThat(pagina.isHasNext()).isTrue();
+
+        MovimientoService.Cursor cursor = MovimientoService.Cursor.parse(pagina.getNextCursor());
+        assertThat(cursor.registradoEn()).isEqualTo(t.plusSeconds(1));
+        assertThat(cursor.id()).isEqualTo(8L);
+    }
+
+    @Test
+    @DisplayName("historial: con cursor => consulta los anteriores a (registrado_en, id) y sin página siguiente")
+    void historial_ConCursor_DeberiaConsultarAnteriores() {
+        // Given
+        LocalDateTime t = LocalDateTime.of(2026, 10, 17, 12, 30, 15, 123_456_000);
+        String after = new MovimientoService.Cursor(t, 8L).toString();
+        when(movimientoRepository.findAnteriores(1L, t, 8L, 3))
+                .thenReturn(List.of(movimiento(7L, t, 100)));
+
+        // When
+        PaginaMovimientos pagina = movimientoService.historial(1L, after, 2);
+
+        // Then
+        assertThat(pagina.getContent()).hasSize(1);
+        assertThat(pagina.isHasNext()).isFalse();
+        assertThat(pagina.getNextCursor()).isNull();
+        verify(movimientoRepository, never()).findByProductoIdOrderByRegistradoEnDescIdDesc(any(), any());
+    }
+
+    @Test
+    @DisplayName("historial: cursor o tamaño inválidos => IllegalArgumentException")
+    void historial_ParametrosInvalidos_DeberiaLanzarExcepcion() {
+        assertThatThrownBy(() -> movimientoService.historial(1L, "abc", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("page[after]");
+        assertThatThrownBy(() -> movimientoService.historial(1L, null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> movimientoService.historial(1L, null, 101))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(movimientoRepository);
+    }
+
+    private Movimiento movimiento(Long id, LocalDateTime registradoEn, int delta) {
+        return Movimiento.builder()
+                .id(id)
+                .productoId(1L)
+                .tipo("COMPRA")
+                .delta(delta)
+                .registradoEn(registradoEn)
+                .build();
+    }
+}
@@ -0,0 +1,179 @@
+package com.linktic.inventario_service.service;
+
+import com.linktic.inventario_service.entity.Inventario;
+import com.linktic.inventario_service.entity.Movimiento;
+import com.linktic.inventario_service.entity.SnapshotStock;
+import com.linktic.inventario_service.repository.InventarioRepository;
+import com.linktic.inventario_service.repository.MovimientoRepository;
+import com.linktic.inventario_service.repository.PostgresRepositoryTest;
+import com.linktic.inventario_service.repository.SnapshotStockRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MovimientosMantenimientoPostgresTest extends PostgresRepositoryTest {
+
+    @Autowired private InventarioRepository inventarioRepository;
+    @Autowired private MovimientoRepository movimientoRepository;
+    @Autowired private SnapshotStockRepository snapshotRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    private MovimientosMantenimiento mantenimiento;
+    private LocalDateTime alta;
+    private LocalDateTime compra;
+    private LocalDateTime corte;
+
+    @BeforeEach
+    void setUp() {
+        mantenimiento = new MovimientosMantenimiento(jdbcTemplate, snapshotRepository, transactionTemplate,
+                1, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+        LocalDateTime ahora = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        alta = ahora.minusDays(30);
+        compra = ahora.minusHours(2);
+        corte = ahora.minusHours(1);
+
+        // Producto 1: inventario anterior al libro (50 unidades) con una compra de 5 ya registrada y en un snapshot
+        inventarioRepository.save(inventario(1L, 45, alta));
+        movimientoRepository.save(movimiento(1L, "COMPRA", -5, compra));
+        snapshotRepository.save(snapshot(1L, -5));
+
+        // Producto 2: inventario anterior al libro sin movimientos, dado de alta antes del último corte
+        inventarioRepository.save(inventario(2L, 10, ahora.minusDays(10)));
+
+        // Producto 3: creado con el libro activo, no necesita apertura
+        inventarioRepository.save(inventario(3L, 20, compra));
+        movimientoRepository.save(movimiento(3L, "CREACION", 20, compra));
+        snapshotRepository.save(snapshot(3L, 20));
+
+        // Producto 4: inventario anterior al libro con 7 unidades, eliminado después como huérfano
+        movimientoRepository.save(movimiento(4L, "ELIMINACION_HUERFANO", -7, compra));
+        snapshotRepository.save(snapshot(4L, -7));
+
+        movimientoRepository.flush();
+        snapshotRepository.flush();
+        // Todos se insertaron antes del corte, que los vio
+        jdbcTemplate.update("UPDATE movimientos SET insertado_en = registrado_en");
+    }
+
+    @Test
+    @DisplayName("registrarAperturas: el libro y los snapshots cuadran con el stock actual y no se repite")
+    void registrarAperturas_DeberiaCuadrarLibroYSnapshots() {
+        // When
+        int registradas = mantenimiento.registrarAperturas();
+
+        // Then
+        assertThat(registradas).isEqualTo(3);
+        assertThat(sumaLibro(1L)).isEqualTo(45);
+        assertThat(sumaLibro(2L)).isEqualTo(10);
+        assertThat(sumaLibro(3L)).isEqualTo(20);
+        assertThat(sumaLibro(4L)).isZero();
+
+        // La apertura se fecha en el alta del inventario o, sin inventario, justo antes del primer movimiento
+        assertThat(fechaApertura(1L)).isEqualTo(alta);
+        assertThat(fechaApertura(4L)).isEqualTo(compra.minus(1, ChronoUnit.MICROS));
+
+        assertThat(cantidadSnapshot(1L)).isEqualTo(45);
+        assertThat(cantidadSnapshot(3L)).isEqualTo(20);
+        assertThat(cantidadSnapshot(4L)).isZero();
+        // El producto 2 no tenía snapshot y su apertura es anterior al corte: se le toma uno en ese corte
+        assertThat(cantidadSnapshot(2L)).isEqualTo(10);
+
+        assertThat(mantenimiento.registrarAperturas()).isZero();
+        assertThat(sumaLibro(1L)).isEqualTo(45);
+    }
+
+    @Test
+    @DisplayName("tomarSnapshots: recalcula el snapshot al que no llegó un movimiento confirmado tarde")
+    void tomarSnapshots_MovimientoConfirmadoTarde_DeberiaCorregirSnapshot() {
+        // Given: el libro ya cuadra y una compra fechada antes del corte se confirma después de él
+        mantenimiento.registrarAperturas();
+        movimientoRepository.save(movimiento(3L, "COMPRA", -3, corte.minusMinutes(10)));
+        Inventario inventario = inventarioRepository.findByProductoId(3L).orElseThrow();
+        inventario.setCantidad(17);
+        inventarioRepository.saveAndFlush(inventario);
+        movimientoRepository.flush();
+
+        // When
+        mantenimiento.tomarSnapshots();
+
+        // Then
+        assertThat(cantidadSnapshot(3L)).isEqualTo(17);
+        assertThat(cantidadSnapshot(1L)).isEqualTo(45);
+        assertThat(snapshotRepository.corregirDesviados()).isZero();
+    }
+
+    @Test
+    @DisplayName("tomarSnapshots: no revisa los productos sin movimientos insertados después del horizonte del corte")
+    void tomarSnapshots_SinMovimientosTardios_NoDeberiaRecalcular() {
+        // Given: las aperturas también se insertaron antes del corte
+        mantenimiento.registrarAperturas();
+        jdbcTemplate.update("UPDATE movimientos SET insertado_en = registrado_en");
+        jdbcTemplate.update("UPDATE stock_snapshots SET cantidad = 99 WHERE producto_id = 1");
+
+        // When
+        mantenimiento.tomarSnapshots();
+
+        // Then
+        assertThat(cantidadSnapshot(1L)).isEqualTo(99);
+        assertThat(snapshotRepository.corregirDesviados()).isZero();
+    }
+
+    private int sumaLibro(Long productoId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(delta), 0) FROM movimientos WHERE producto_id = ?", Integer.class, productoId);
+    }
+
+    private LocalDateTime fechaApertura(Long productoId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT registrado_en FROM movimientos WHERE producto_id = ? AND tipo = 'APERTURA'",
+                LocalDateTime.class, productoId);
+    }
+
+    private int cantidadSnapshot(Long productoId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT cantidad FROM stock_snapshots WHERE producto_id = ? AND hasta = ?",
+                Integer.class, productoId, corte);
+    }
+
+    private static Inventario inventario(Long productoId, int cantidad, LocalDateTime creadoEn) {
+        return Inventario.builder()
+                .productoId(productoId)
+                .cantidad(cantidad)
+                .cantidadMinima(5)
+                .cantidadMaxima(100)
+                .createdAt(creadoEn)
+                .build();
+    }
+
+    private static Movimiento movimiento(Long productoId, String tipo, int delta, LocalDateTime registradoEn) {
+        return Movimiento.builder()
+                .productoId(productoId)
+                .tipo(tipo)
+                .delta(delta)
+                .registradoEn(registradoEn)
+                .build();
+    }
+
+    private SnapshotStock snapshot(Long productoId, int cantidad) {
+        return SnapshotStock.builder()
+                .productoId(productoId)
+                .cantidad(cantidad)
+                .hasta(corte)
+                .tomadoEn(corte)
+                .horizonte(corte.atZone(ZoneId.systemDefault()).toOffsetDateTime())
+                .build();
+    }
+}
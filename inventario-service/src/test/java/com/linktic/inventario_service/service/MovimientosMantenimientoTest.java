@@ -0,0 +1,127 @@
+package com.linktic.inventario_service.service;
+
+import com.linktic.inventario_service.repository.SnapshotStockRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MovimientosMantenimientoTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private SnapshotStockRepository snapshotRepository;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    private MovimientosMantenimiento mantenimiento;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("PostgreSQL");
+
+        meterRegistry = new SimpleMeterRegistry();
+        mantenimiento = new MovimientosMantenimiento(jdbcTemplate, snapshotRepository, transactionTemplate,
+                3, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("registrarAperturas: sin pendientes solo verifica, sin bloquear tablas")
+    void registrarAperturas_SinPendientes_NoDeberiaBloquear() {
+        // Given
+        when(jdbcTemplate.queryForObject(MovimientosMantenimiento.SQL_HAY_APERTURAS_PENDIENTES, Boolean.class))
+                .thenReturn(false);
+
+        // When
+        int registradas = mantenimiento.registrarAperturas();
+
+        // Then
+        assertThat(registradas).isZero();
+        verify(transactionTemplate, never()).execute(any());
+        verify(jdbcTemplate, never()).execute(MovimientosMantenimiento.SQL_BLOQUEAR_INVENTARIOS);
+    }
+
+    @Test
+    @DisplayName("registrarAperturas: con pendientes bloquea y recalcula antes de insertar y corregir snapshots")
+    void registrarAperturas_ConPendientes_DeberiaBloquearAntesDeCalcular() {
+        // Given
+        when(jdbcTemplate.queryForObject(MovimientosMantenimiento.SQL_HAY_APERTURAS_PENDIENTES, Boolean.class))
+                .thenReturn(true);
+        when(jdbcTemplate.update(MovimientosMantenimiento.SQL_INSERTAR_APERTURAS)).thenReturn(4);
+
+        // When
+        int registradas = mantenimiento.registrarAperturas();
+
+        // Then
+        assertThat(registradas).isEqualTo(4);
+        InOrder orden = inOrder(jdbcTemplate);
+        orden.verify(jdbcTemplate).execute(MovimientosMantenimiento.SQL_BLOQUEAR_INVENTARIOS);
+        orden.verify(jdbcTemplate).execute(MovimientosMantenimiento.SQL_BLOQUEAR_SNAPSHOTS);
+        orden.verify(jdbcTemplate).execute(MovimientosMantenimiento.SQL_CALCULAR_APERTURAS);
+        orden.verify(jdbcTemplate).update(MovimientosMantenimiento.SQL_INSERTAR_APERTURAS);
+        orden.verify(jdbcTemplate).update(MovimientosMantenimiento.SQL_AJUSTAR_SNAPSHOTS);
+        orden.verify(jdbcTemplate).update(MovimientosMantenimiento.SQL_SNAPSHOTS_APERTURA);
+    }
+
+    @Test
+    @DisplayName("registrarAperturas y crearParticiones: fuera de PostgreSQL no hacen nada")
+    void mantenimiento_FueraDePostgres_NoDeberiaEjecutarSql() {
+        // Given
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+        // When / Then
+        assertThat(mantenimiento.registrarAperturas()).isZero();
+        assertThat(mantenimiento.crearParticiones()).isZero();
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Boolean.class));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    @DisplayName("tomarSnapshots: lee el horizonte bajo el bloqueo y corrige los desviados antes de tomar el corte")
+    void tomarSnapshots_DeberiaCorregirDesviadosAntesDelCorte() {
+        // Given
+        OffsetDateTime horizonte = OffsetDateTime.now().minusSeconds(30);
+        when(jdbcTemplate.queryForObject(MovimientosMantenimiento.SQL_HORIZONTE, OffsetDateTime.class))
+                .thenReturn(horizonte);
+        when(snapshotRepository.corregirDesviados()).thenReturn(2);
+        when(snapshotRepository.tomarSnapshots(any(), eq(horizonte))).thenReturn(5);
+
+        // When
+        int tomados = mantenimiento.tomarSnapshots();
+
+        // Then
+        assertThat(tomados).isEqualTo(5);
+        InOrder orden = inOrder(jdbcTemplate, snapshotRepository);
+        orden.verify(jdbcTemplate).execute(MovimientosMantenimiento.SQL_BLOQUEAR_SNAPSHOTS);
+        orden.verify(jdbcTemplate).queryForObject(MovimientosMantenimiento.SQL_HORIZONTE, OffsetDateTime.class);
+        orden.verify(snapshotRepository).corregirDesviados();
+        orden.verify(snapshotRepository).tomarSnapshots(any(), eq(horizonte));
+        assertThat(meterRegistry.get("inventario.movimientos.snapshots.corregidos").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("ddlParticion: partición mensual con límites [mes, mes siguiente)")
+    void ddlParticion_DeberiaUsarLimitesDelMes() {
+        assertThat(MovimientosMantenimiento.ddlParticion(YearMonth.of(2026, 12)))
+                .isEqualTo("CREATE TABLE IF NOT EXISTS movimientos_y2026m12 PARTITION OF movimientos "
+                        + "FOR VALUES FROM ('2026-12-01') TO ('2027-01-01')");
+    }
+}
@@ -0,0 +1,184 @@
+package com.linktic.inventario_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.linktic.inventario_service.entity.EventoOutbox;
+import com.linktic.inventario_service.entity.EventoOutboxDescartado;
+import com.linktic.inventario_service.entity.InventarioCambiadoEvent;
+import com.linktic.inventario_service.events.EventoSink;
+import com.linktic.inventario_service.repository.EventoOutboxDescartadoRepository;
+import com.linktic.inventario_service.repository.EventoOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock private EventoOutboxRepository outboxRepository;
+    @Mock private EventoOutboxDescartadoRepository descartadoRepository;
+    @Mock private EventoSink logSink;
+    @Mock private EventoSink webhookSink;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<?>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(logSink.nombre()).thenReturn("log");
+        lenient().when(webhookSink.nombre()).thenReturn("webhook");
+
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(outboxRepository, descartadoRepository, List.of(logSink, webhookSink), objectMapper,
+                transactionTemplate, 2, 3, Duration.ofMinutes(1), Duration.ofSeconds(1), Duration.ofSeconds(5),
+                meterRegistry);
+    }
+
+    @Test
+    @DisplayName("despachar: entrega los lotes a todos los destinos y borra lo entregado")
+    void despachar_DeberiaEntregarYBorrarPorLotes() throws Exception {
+        // Given
+        EventoOutbox primero = evento(1L, 10L, 0);
+        EventoOutbox segundo = evento(2L, 20L, 0);
+        EventoOutbox tercero = evento(3L, 30L, 0);
+        when(outboxRepository.bloquearPendientes(any(LocalDateTime.class), eq(2)))
+                .thenReturn(List.of(primero, segundo))
+                .thenReturn(List.of(tercero));
+
+        // When
+        int entregados = relay.despachar();
+
+        // Then
+        assertThat(entregados).isEqualTo(3);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<InventarioCambiadoEvent>> lotes = ArgumentCaptor.forClass(List.class);
+        verify(webhookSink, times(2)).enviar(lotes.capture());
+        assertThat(lotes.getAllValues().get(0))
+                .extracting(InventarioCambiadoEvent::getProductoId)
+                .containsExactly(10L, 20L);
+        verify(logSink, times(2)).enviar(anyList());
+
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(3L));
+        assertThat(meterRegistry.get("inventario.outbox.despachados").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("despachar: si un destino falla conserva el lote solo para ese destino, con espera, y se detiene")
+    void despachar_DestinoFalla_DeberiaReintentarSoloEseDestino() throws Exception {
+        // Given
+        EventoOutbox primero = evento(1L, 10L, 0);
+        EventoOutbox segundo = evento(2L, 20L, 1);
+        when(outboxRepository.bloquearPendientes(any(LocalDateTime.class), eq(2))).thenReturn(List.of(primero, segundo));
+        doThrow(new IllegalStateException("503 Service Unavailable")).when(webhookSink).enviar(anyList());
+        LocalDateTime antes = LocalDateTime.now();
+
+        // When
+        int entregados = relay.despachar();
+
+        // Then
+        assertThat(entregados).isZero();
+        verify(outboxRepository, times(1)).bloquearPendientes(any(), anyInt());
+        verify(outboxRepository, never()).deleteAllByIdInBatch(any());
+        verify(outboxRepository).saveAll(List.of(primero, segundo));
+        assertThat(primero.getIntentos()).isEqualTo(1);
+        assertThat(primero.getEntregadoA()).isEqualTo("log");
+        assertThat(primero.getUltimoError()).contains("webhook", "503");
+        assertThat(primero.getSiguienteIntento()).isBetween(antes.plusSeconds(1), antes.plusSeconds(2));
+        assertThat(segundo.getSiguienteIntento()).isAfterOrEqualTo(antes.plusSeconds(2));
+        assertThat(meterRegistry.get("inventario.outbox.fallidos").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("despachar: un reintento no reenvía a los destinos que ya recibieron el evento")
+    void despachar_Reintento_NoDeberiaReenviarALosYaEntregados() throws Exception {
+        // Given
+        EventoOutbox pendiente = evento(1L, 10L, 1);
+        pendiente.setEntregadoA("log");
+        when(outboxRepository.bloquearPendientes(any(LocalDateTime.class), eq(2))).thenReturn(List.of(pendiente));
+
+        // When
+        int entregados = relay.despachar();
+
+        // Then
+        assertThat(entregados).isEqualTo(1);
+        verify(logSink, never()).enviar(anyList());
+        verify(webhookSink).enviar(anyList());
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    @Test
+    @DisplayName("despachar: los payloads ilegibles y los intentos agotados pasan a descartados sin frenar al resto")
+    void despachar_IlegibleYAgotado_DeberianDescartarse() throws Exception {
+        // Given
+        EventoOutbox ilegible = evento(1L, 10L, 0);
+        ilegible.setPayload("{no-json");
+        EventoOutbox agotado = evento(2L, 20L, 2);
+        agotado.setEntregadoA("log");
+        EventoOutbox sano = evento(3L, 30L, 0);
+        when(outboxRepository.bloquearPendientes(any(LocalDateTime.class), eq(2)))
+                .thenReturn(List.of(ilegible, agotado, sano));
+        doThrow(new IllegalStateException("503 Service Unavailable")).when(webhookSink).enviar(anyList());
+
+        // When
+        relay.despachar();
+
+        // Then: el payload ilegible no impide que el resto llegue al log
+        assertThat(sano.getEntregadoA()).isEqualTo("log");
+        verify(outboxRepository).saveAll(List.of(sano));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EventoOutboxDescartado>> descartados = ArgumentCaptor.forClass(List.class);
+        verify(descartadoRepository).saveAll(descartados.capture());
+        assertThat(descartados.getValue())
+                .extracting(EventoOutboxDescartado::getId, EventoOutboxDescartado::getDestinosPendientes)
+                .containsExactlyInAnyOrder(tuple(1L, "log,webhook"), tuple(2L, "webhook"));
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        assertThat(meterRegistry.get("inventario.outbox.descartados").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("espera: se duplica en cada intento hasta el máximo")
+    void espera_DeberiaCrecerExponencialmenteHastaElMaximo() {
+        assertThat(relay.espera(1)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(relay.espera(2)).isEqualTo(Duration.ofSeconds(2));
+        assertThat(relay.espera(3)).isEqualTo(Duration.ofSeconds(4));
+        assertThat(relay.espera(10)).isEqualTo(Duration.ofSeconds(5));
+    }
+
+    private EventoOutbox evento(Long id, Long productoId, int intentos) throws Exception {
+        InventarioCambiadoEvent event = new InventarioCambiadoEvent(
+                productoId, 10, 8, "COMPRA", LocalDateTime.now());
+        return EventoOutbox.builder()
+                .id(id)
+                .productoId(productoId)
+                .tipoOperacion("COMPRA")
+                .payload(objectMapper.writeValueAsString(event))
+                .creadoEn(LocalDateTime.now())
+                .intentos(intentos)
+                .build();
+    }
+}
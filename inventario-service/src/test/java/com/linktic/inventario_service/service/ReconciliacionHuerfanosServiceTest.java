@@ -0,0 +1,183 @@
+package com.linktic.inventario_service.service;
+
+import com.linktic.inventario_service.client.ProductoClient;
+import com.linktic.inventario_service.dto.ProductoDTO;
+import com.linktic.inventario_service.entity.Inventario;
+import com.linktic.inventario_service.entity.InventarioCambiadoEvent;
+import com.linktic.inventario_service.entity.ReconciliacionCheckpoint;
+import com.linktic.inventario_service.exception.ProductoServiceException;
+import com.linktic.inventario_service.repository.InventarioRepository;
+import com.linktic.inventario_service.repository.ReconciliacionCheckpointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReconciliacionHuerfanosServiceTest {
+
+    @Mock private InventarioRepository inventarioRepository;
+    @Mock private ReconciliacionCheckpointRepository checkpointRepository;
+    @Mock private ProductoClient productoClient;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    private ReconciliacionHuerfanosService reconciliacion;
+    private SimpleMeterRegistry meterRegistry;
+
+    private final Inventario conProducto = inventario(1L, 10L);
+    private final Inventario huerfano = inventario(2L, 20L);
+    private final Inventario otroHuerfano = inventario(3L, 30L);
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        meterRegistry = new SimpleMeterRegistry();
+        reconciliacion = new ReconciliacionHuerfanosService(inventarioRepository, checkpointRepository,
+                productoClient, eventPublisher, transactionTemplate, 2, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("ejecutar: recorre por lotes, borra huérfanos en bloque y limpia el checkpoint al terminar")
+    void ejecutar_DeberiaEliminarHuerfanosPorLotes() {
+        // Given
+        when(checkpointRepository.findById(ReconciliacionHuerfanosService.CHECKPOINT)).thenReturn(Optional.empty());
+        when(inventarioRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(List.of(conProducto, huerfano), PageRequest.of(0, 2), true));
+        when(inventarioRepository.findByIdGreaterThanOrderByIdAsc(2L, PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(List.of(otroHuerfano), PageRequest.of(0, 2), false));
+        when(productoClient.refrescarProductos(List.of(10L, 20L)))
+                .thenReturn(Map.of(10L, ProductoDTO.builder().id(10L).build()));
+        when(productoClient.refrescarProductos(List.of(30L))).thenReturn(Map.of());
+        when(inventarioRepository.findAllByIdInWithLock(List.of(2L))).thenReturn(List.of(huerfano));
+        when(inventarioRepository.findAllByIdInWithLock(List.of(3L))).thenReturn(List.of(otroHuerfano));
+
+        // When
+        int eliminados = reconciliacion.ejecutar();
+
+        // Then
+        assertThat(eliminados).isEqualTo(2);
+        verify(inventarioRepository).deleteAllByIdInBatch(List.of(2L));
+        verify(inventarioRepository).deleteAllByIdInBatch(List.of(3L));
+        verify(inventarioRepository, never()).findAll();
+        verify(checkpointRepository, times(2)).save(any(ReconciliacionCheckpoint.class));
+        verify(checkpointRepository).deleteById(ReconciliacionHuerfanosService.CHECKPOINT);
+
+        ArgumentCaptor<InventarioCambiadoEvent> eventos = ArgumentCaptor.forClass(InventarioCambiadoEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(eventos.capture());
+        assertThat(eventos.getAllValues())
+                .extracting(InventarioCambiadoEvent::getTipoOperacion)
+                .containsOnly("ELIMINACION_HUERFANO");
+
+        assertThat(meterRegistry.get("inventario.reconciliacion.revisados").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("inventario.reconciliacion.eliminados").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("inventario.reconciliacion.cursor").gauge().value()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("ejecutar: con checkpoint pendiente reanuda desde el último ID confirmado")
+    void ejecutar_ConCheckpoint_DeberiaReanudar() {
+        // Given
+        ReconciliacionCheckpoint pendiente = ReconciliacionCheckpoint.builder()
+                .nombre(ReconciliacionHuerfanosService.CHECKPOINT)
+                .ultimoId(2L)
+                .revisados(2L)
+                .eliminados(1L)
+                .iniciadoEn(LocalDateTime.now().minusHours(1))
+                .actualizadoEn(LocalDateTime.now().minusHours(1))
+                .build();
+        when(checkpointRepository.findById(ReconciliacionHuerfanosService.CHECKPOINT))
+                .thenReturn(Optional.of(pendiente));
+        when(inventarioRepository.findByIdGreaterThanOrderByIdAsc(2L, PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(List.of(otroHuerfano), PageRequest.of(0, 2), false));
+        when(productoClient.refrescarProductos(List.of(30L))).thenReturn(Map.of());
+        when(inventarioRepository.findAllByIdInWithLock(List.of(3L))).thenReturn(List.of(otroHuerfano));
+
+        // When
+        int eliminados = reconciliacion.ejecutar();
+
+        // Then
+        assertThat(eliminados).isEqualTo(1);
+        assertThat(pendiente.getRevisados()).isEqualTo(3L);
+        assertThat(pendiente.getEliminados()).isEqualTo(2L);
+        verify(inventarioRepository, never()).findByIdGreaterThanOrderByIdAsc(eq(0L), any());
+    }
+
+    @Test
+    @DisplayName("ejecutar: los eventos llevan la cantidad leída con bloqueo y omiten los ya borrados")
+    void ejecutar_CambiosDuranteLaConsulta_DeberiaUsarLoBorrado() {
+        // Given: mientras se consultaba productos-service, un huérfano recibió stock y el otro se borró
+        when(checkpointRepository.findById(ReconciliacionHuerfanosService.CHECKPOINT)).thenReturn(Optional.empty());
+        when(inventarioRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(List.of(huerfano, otroHuerfano), PageRequest.of(0, 2), false));
+        when(productoClient.refrescarProductos(List.of(20L, 30L))).thenReturn(Map.of());
+        Inventario actual = inventario(2L, 20L);
+        actual.setCantidad(42);
+        when(inventarioRepository.findAllByIdInWithLock(List.of(2L, 3L))).thenReturn(List.of(actual));
+
+        // When
+        int eliminados = reconciliacion.ejecutar();
+
+        // Then
+        assertThat(eliminados).isEqualTo(1);
+        verify(inventarioRepository).deleteAllByIdInBatch(List.of(2L));
+
+        ArgumentCaptor<InventarioCambiadoEvent> evento = ArgumentCaptor.forClass(InventarioCambiadoEvent.class);
+        verify(eventPublisher).publishEvent(evento.capture());
+        assertThat(evento.getValue().getProductoId()).isEqualTo(20L);
+        assertThat(evento.getValue().getCantidadAnterior()).isEqualTo(42);
+        assertThat(meterRegistry.get("inventario.reconciliacion.eliminados").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("ejecutar: si productos-service falla no borra nada y conserva el checkpoint")
+    void ejecutar_ErrorServicioProductos_NoDeberiaEliminar() {
+        // Given
+        when(checkpointRepository.findById(ReconciliacionHuerfanosService.CHECKPOINT)).thenReturn(Optional.empty());
+        when(inventarioRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(List.of(conProducto, huerfano), PageRequest.of(0, 2), true));
+        when(productoClient.refrescarProductos(anyCollection()))
+                .thenThrow(new ProductoServiceException("Servicio no disponible"));
+
+        // When
+        int eliminados = reconciliacion.ejecutar();
+
+        // Then
+        assertThat(eliminados).isZero();
+        verify(inventarioRepository, never()).deleteAllByIdInBatch(any());
+        verify(checkpointRepository, never()).deleteById(any());
+        verifyNoInteractions(eventPublisher);
+        verify(transactionTemplate, never()).executeWithoutResult(any());
+        verify(transactionTemplate, never()).execute(any(TransactionCallback.class));
+    }
+
+    private static Inventario inventario(Long id, Long productoId) {
+        return Inventario.builder()
+                .id(id)
+                .productoId(productoId)
+                .cantidad(5)
+                .cantidadMinima(10)
+                .cantidadMaxima(100)
+                .build();
+    }
+}
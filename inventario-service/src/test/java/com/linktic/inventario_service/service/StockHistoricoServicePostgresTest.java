@@ -0,0 +1,110 @@
+package com.linktic.inventario_service.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.linktic.inventario_service.repository.PostgresRepositoryTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * La exportación calcula los lotes en otros hilos, que no ven la transacción de la prueba: los datos se
+ * confirman y se borran al terminar.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockHistoricoServicePostgresTest extends PostgresRepositoryTest {
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private StockHistoricoService service;
+    private LocalDateTime instante;
+
+    @BeforeEach
+    void setUp() {
+        service = new StockHistoricoService(jdbcTemplate, objectMapper, 1, 2);
+
+        LocalDateTime ahora = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        LocalDateTime alta = ahora.minusDays(3);
+        LocalDateTime corte = ahora.minusDays(2);
+        instante = ahora.minusDays(1);
+
+        // Producto 10: snapshot de 20 y una compra de 5 entre el corte y el instante
+        inventario(10L, 15, alta);
+        movimiento(10L, "CREACION", 20, alta);
+        snapshot(10L, 20, corte);
+        movimiento(10L, "COMPRA", -5, ahora.minusHours(36));
+
+        // Producto 11: dado de alta después del instante, sin historial entonces
+        inventario(11L, 8, ahora.minusHours(1));
+        movimiento(11L, "CREACION", 8, ahora.minusHours(1));
+
+        // Producto 12: eliminado como huérfano después del instante; ya no está en inventarios
+        movimiento(12L, "CREACION", 7, alta);
+        snapshot(12L, 7, corte);
+        movimiento(12L, "ELIMINACION_HUERFANO", -7, ahora.minusHours(12));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+        jdbcTemplate.update("DELETE FROM movimientos");
+        jdbcTemplate.update("DELETE FROM stock_snapshots");
+        jdbcTemplate.update("DELETE FROM inventarios");
+    }
+
+    @Test
+    @DisplayName("exportarStockEn: incluye los eliminados después del instante y omite los creados después")
+    void exportarStockEn_DeberiaExportarProductosConHistorial() throws Exception {
+        // Given
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        // When
+        long exportados = service.exportarStockEn(instante, salida);
+
+        // Then
+        Map<Long, Integer> cantidades = new HashMap<>();
+        for (String linea : salida.toString(StandardCharsets.UTF_8).lines().toList()) {
+            JsonNode stock = objectMapper.readTree(linea);
+            cantidades.put(stock.get("id").asLong(), stock.get("attributes").get("cantidad").asInt());
+        }
+        assertThat(exportados).isEqualTo(2);
+        assertThat(cantidades).containsExactlyInAnyOrderEntriesOf(Map.of(10L, 15, 12L, 7));
+    }
+
+    private void inventario(Long productoId, int cantidad, LocalDateTime creadoEn) {
+        jdbcTemplate.update("""
+                INSERT INTO inventarios (producto_id, cantidad, cantidad_minima, cantidad_maxima, version,
+                                         created_at, ultima_actualizacion)
+                VALUES (?, ?, 5, 100, 0, ?, ?)
+                """, productoId, cantidad, creadoEn, creadoEn);
+    }
+
+    private void movimiento(Long productoId, String tipo, int delta, LocalDateTime registradoEn) {
+        jdbcTemplate.update("""
+                INSERT INTO movimientos (id, producto_id, tipo, delta, registrado_en)
+                VALUES (nextval('movimientos_seq'), ?, ?, ?, ?)
+                """, productoId, tipo, delta, registradoEn);
+    }
+
+    private void snapshot(Long productoId, int cantidad, LocalDateTime hasta) {
+        jdbcTemplate.update("""
+                INSERT INTO stock_snapshots (producto_id, cantidad, hasta, tomado_en)
+                VALUES (?, ?, ?, ?)
+                """, productoId, cantidad, hasta, hasta);
+    }
+}
@@ -0,0 +1,144 @@
+package com.linktic.inventario_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.linktic.inventario_service.dto.StockHistoricoResponse;
+import com.linktic.inventario_service.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockHistoricoServiceTest {
+
+    private static final LocalDateTime INSTANTE = LocalDateTime.of(2026, 9, 30, 23, 59);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private StockHistoricoService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new StockHistoricoService(jdbcTemplate, objectMapper, 2, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    @DisplayName("stockEn: retorna el snapshot más los movimientos posteriores calculados por la consulta")
+    void stockEn_DeberiaRetornarStockReconstruido() {
+        // Given
+        when(jdbcTemplate.query(eq(StockHistoricoService.SQL_STOCK), any(RowMapper.class),
+                eq("{1}"), eq(INSTANTE), eq(INSTANTE)))
+                .thenReturn(List.of(stock(1L, 42, INSTANTE.minusHours(1), 3)));
+
+        // When
+        StockHistoricoResponse stock = service.stockEn(1L, INSTANTE);
+
+        // Then
+        assertThat(stock.getId()).isEqualTo(1L);
+        assertThat(stock.getAttributes().getCantidad()).isEqualTo(42);
+        assertThat(stock.getAttributes().getMovimientosAplicados()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("stockEn: sin snapshot ni movimientos hasta el instante => ResourceNotFoundException")
+    void stockEn_SinHistorial_DeberiaLanzarNotFound() {
+        // Given
+        when(jdbcTemplate.query(eq(StockHistoricoService.SQL_STOCK), any(RowMapper.class),
+                eq("{1}"), eq(INSTANTE), eq(INSTANTE)))
+                .thenReturn(List.of(stock(1L, 0, null, 0)));
+
+        // When / Then
+        assertThatThrownBy(() -> service.stockEn(1L, INSTANTE))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("productoId=1");
+    }
+
+    @Test
+    @DisplayName("exportarStockEn: calcula por lotes y escribe NDJSON en orden de ID")
+    void exportarStockEn_DeberiaEscribirLotesEnOrden() throws Exception {
+        // Given
+        when(jdbcTemplate.queryForList(StockHistoricoService.SQL_PRODUCTOS, Long.class))
+                .thenReturn(List.of(1L, 2L, 3L, 4L, 5L));
+        when(jdbcTemplate.query(eq(StockHistoricoService.SQL_STOCK), any(RowMapper.class),
+                anyString(), eq(INSTANTE), eq(INSTANTE)))
+                .thenAnswer(invocation -> {
+                    String ids = invocation.getArgument(2);
+                    if ("{1,2}".equals(ids)) {
+                        // El primer lote termina después que los siguientes
+                        Thread.sleep(100);
+                    }
+                    return Arrays.stream(ids.substring(1, ids.length() - 1).split(","))
+                            .map(id -> stock(Long.valueOf(id), 10, null, 1))
+                            .toList();
+                });
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        // When
+        long exportados = service.exportarStockEn(INSTANTE, salida);
+
+        // Then
+        assertThat(exportados).isEqualTo(5);
+        List<Long> ids = new ArrayList<>();
+        for (String linea : salida.toString(StandardCharsets.UTF_8).lines().toList()) {
+            ids.add(objectMapper.readTree(linea).get("id").asLong());
+        }
+        assertThat(ids).containsExactly(1L, 2L, 3L, 4L, 5L);
+        verify(jdbcTemplate, times(3)).query(eq(StockHistoricoService.SQL_STOCK), any(RowMapper.class),
+                anyString(), eq(INSTANTE), eq(INSTANTE));
+    }
+
+    @Test
+    @DisplayName("exportarStockEn: omite los productos sin historial hasta el instante")
+    void exportarStockEn_DeberiaOmitirProductosSinHistorial() throws Exception {
+        // Given: el producto 2 se dio de alta después del instante
+        when(jdbcTemplate.queryForList(StockHistoricoService.SQL_PRODUCTOS, Long.class))
+                .thenReturn(List.of(1L, 2L));
+        when(jdbcTemplate.query(eq(StockHistoricoService.SQL_STOCK), any(RowMapper.class),
+                eq("{1,2}"), eq(INSTANTE), eq(INSTANTE)))
+                .thenReturn(List.of(stock(1L, 10, INSTANTE.minusHours(1), 0), stock(2L, 0, null, 0)));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        // When
+        long exportados = service.exportarStockEn(INSTANTE, salida);
+
+        // Then
+        assertThat(exportados).isEqualTo(1);
+        assertThat(salida.toString(StandardCharsets.UTF_8).lines()).hasSize(1);
+    }
+
+    private StockHistoricoResponse stock(Long productoId, int cantidad, LocalDateTime snapshot, int movimientos) {
+        return StockHistoricoResponse.builder()
+                .type("stock_historico")
+                .id(productoId)
+                .attributes(StockHistoricoResponse.Attributes.builder()
+                        .cantidad(cantidad)
+                        .instante(INSTANTE)
+                        .snapshotHasta(snapshot)
+                        .movimientosAplicados(movimientos)
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+package com.linktic.productos_service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.jdbc.init.DataSourceScriptDatabaseInitializer;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.boot.sql.init.DatabaseInitializationSettings;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Ajustes de esquema que ddl-auto no sabe aplicar (ajustes-postgresql.sql), ejecutados por
+ * DataSourceScriptDatabaseInitializer solo sobre PostgreSQL. Corren después de que Hibernate actualiza
+ * el esquema y antes de que el servidor web acepte peticiones: se exponen como InitializingBean para
+ * que Spring Boot no los adelante al EntityManagerFactory, como hace con los inicializadores de base de datos.
+ */
+@Configuration
+@Slf4j
+public class EsquemaPostgresConfig {
+
+    static final String AJUSTES = "classpath:ajustes-postgresql.sql";
+
+    @Bean
+    @DependsOn("entityManagerFactory")
+    public InitializingBean ajustesPostgresInitializer(DataSource dataSource) {
+        DataSourceScriptDatabaseInitializer ajustes = inicializador(dataSource, AJUSTES);
+        return ajustes::initializeDatabase;
+    }
+
+    private static DataSourceScriptDatabaseInitializer inicializador(DataSource dataSource, String script) {
+        DatabaseInitializationSettings settings = new DatabaseInitializationSettings();
+        settings.setSchemaLocations(List.of(script));
+        settings.setMode(DatabaseInitializationMode.ALWAYS);
+
+        return new DataSourceScriptDatabaseInitializer(dataSource, settings) {
+            @Override
+            public boolean initializeDatabase() {
+                String motor = new JdbcTemplate(dataSource).execute((ConnectionCallback<String>) con ->
+                        con.getMetaData().getDatabaseProductName());
+                if (!"PostgreSQL".equalsIgnoreCase(motor)) {
+                    log.info("Base de datos {} no es PostgreSQL, se omite {}", motor, script);
+                    return false;
+                }
+                boolean aplicado = super.initializeDatabase();
+                log.info("Esquema verificado: {}", script);
+                return aplicado;
+            }
+        };
+    }
+}
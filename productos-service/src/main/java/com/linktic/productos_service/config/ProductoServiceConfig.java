@@ -0,0 +1,35 @@
+package com.linktic.productos_service.config;
+
+import com.linktic.productos_service.dto.ProductoResponse;
+import com.linktic.productos_service.service.IndiceNombres;
+import com.linktic.productos_service.service.IndiceNombresEnMemoria;
+import com.linktic.productos_service.service.SingleFlight;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ProductoServiceConfig {
+
+    @Bean
+    public SingleFlight<Long, ProductoResponse> productoPorIdSingleFlight(MeterRegistry meterRegistry) {
+        return new SingleFlight<>("obtenerPorId", meterRegistry);
+    }
+
+    @Bean
+    public IndiceNombres indiceNombres(
+            @Value("${productos.busqueda.indice-memoria.enabled:true}") boolean enMemoria,
+            MeterRegistry meterRegistry) {
+        if (!enMemoria) {
+            return IndiceNombres.DESACTIVADO;
+        }
+
+        IndiceNombresEnMemoria indice = new IndiceNombresEnMemoria();
+        Gauge.builder("productos.busqueda.indice.nombres", indice, IndiceNombresEnMemoria::tamanio)
+                .description("Productos cargados en el índice de autocompletado")
+                .register(meterRegistry);
+        return indice;
+    }
+}
@@ -0,0 +1,33 @@
+package com.linktic.productos_service.controller;
+
+import com.linktic.productos_service.dto.EstadoCatalogo;
+import com.linktic.productos_service.dto.ProductoResponse;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * ETags débiles derivados de updatedAt: no dependen de la serialización, solo de la versión de los datos.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String deProducto(ProductoResponse producto) {
+        LocalDateTime updatedAt = producto.getAttributes() != null ? producto.getAttributes().getUpdatedAt() : null;
+        return "W/\"" + producto.getId() + "-" + marca(updatedAt) + "\"";
+    }
+
+    static String deCatalogo(EstadoCatalogo estado) {
+        return "W/\"" + estado.getTotal() + "-" + marca(estado.getUltimaActualizacion()) + "\"";
+    }
+
+    private static String marca(LocalDateTime fecha) {
+        if (fecha == null) {
+            return "0";
+        }
+        long micros = fecha.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + fecha.getNano() / 1_000;
+        return Long.toHexString(micros);
+    }
+}
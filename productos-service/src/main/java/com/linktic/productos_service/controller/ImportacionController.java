@@ -0,0 +1,96 @@
+package com.linktic.productos_service.controller;
+
+import com.linktic.productos_service.dto.ImportacionResponse;
+import com.linktic.productos_service.dto.JsonApiDocument;
+import com.linktic.productos_service.dto.JsonApiLinks;
+import com.linktic.productos_service.service.ImportacionJob;
+import com.linktic.productos_service.service.ImportacionProductosService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/productos/import")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Importación de productos", description = "Carga masiva de productos desde CSV o NDJSON")
+public class ImportacionController {
+
+    static final String TEXT_CSV_VALUE = "text/csv";
+    /** ID propuesto por el cliente: la importación se puede consultar con él mientras el cuerpo sigue subiendo. */
+    static final String IMPORTACION_ID_HEADER = "X-Importacion-Id";
+
+    private final ImportacionProductosService importacionService;
+
+    @PostMapping(consumes = {TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Importar productos desde un CSV (columnas nombre,precio) o NDJSON leído en streaming",
+            description = "Con la cabecera " + IMPORTACION_ID_HEADER + " la importación queda registrada con ese ID "
+                    + "antes de leer el cuerpo, y GET /api/v1/productos/import/{id} muestra su progreso durante la subida")
+    public ResponseEntity<JsonApiDocument<ImportacionResponse>> importarProductos(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @RequestHeader(value = IMPORTACION_ID_HEADER, required = false) String importacionId,
+            InputStream cuerpo) {
+        ImportacionJob.Formato formato = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? ImportacionJob.Formato.NDJSON
+                : ImportacionJob.Formato.CSV;
+        log.info("POST /api/v1/productos/import - Importando productos ({})", formato);
+
+        ImportacionResponse importacion = importacionService.importar(importacionId, cuerpo, formato);
+        String self = "/api/v1/productos/import/" + importacion.getId();
+
+        JsonApiDocument<ImportacionResponse> response = JsonApiDocument.<ImportacionResponse>builder()
+                .data(importacion)
+                .links(JsonApiLinks.builder()
+                        .self(self)
+                        .build())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(HttpHeaders.LOCATION, self)
+                .body(response);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Consultar el progreso de una importación")
+    public ResponseEntity<JsonApiDocument<ImportacionResponse>> obtenerImportacion(@PathVariable String id) {
+        log.info("GET /api/v1/productos/import/{} - Consultando importación", id);
+
+        JsonApiDocument<ImportacionResponse> response = JsonApiDocument.<ImportacionResponse>builder()
+                .data(importacionService.obtener(id))
+                .links(JsonApiLinks.builder()
+                        .self("/api/v1/productos/import/" + id)
+                        .build())
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping
+    @Operation(summary = "Listar las importaciones recientes, incluidas las que siguen en curso")
+    public ResponseEntity<JsonApiDocument<List<ImportacionResponse>>> listarImportaciones() {
+        log.info("GET /api/v1/productos/import - Listando importaciones");
+
+        List<ImportacionResponse> importaciones = importacionService.listar();
+
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("total", importaciones.size());
+
+        JsonApiDocument<List<ImportacionResponse>> response = JsonApiDocument.<List<ImportacionResponse>>builder()
+                .data(importaciones)
+                .meta(meta)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+}
@@ -1,7 +1,11 @@
 package com.linktic.productos_service.controller;
 
+import com.linktic.productos_service.dto.ActualizacionPreciosRequest;
 import com.linktic.productos_service.dto.JsonApiDocument;
+import com.linktic.productos_service.dto.JsonApiFieldset;
 import com.linktic.productos_service.dto.JsonApiLinks;
+import com.linktic.productos_service.dto.PaginaBusqueda;
+import com.linktic.productos_service.dto.ProductoLoteResultado;
 import com.linktic.productos_service.dto.ProductoRequest;
 import com.linktic.productos_service.dto.ProductoResponse;
 import com.linktic.productos_service.service.ProductoService;
@@ -12,13 +16,26 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriUtils;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/productos")
@@ -27,6 +44,15 @@ import java.util.Map;
 @Tag(name = "Productos", description = "API para gestión de productos")
 public class ProductoController {
 
+    /** Columnas con índice: PK, índice único de nombre e idx_productos_precio_id. */
+    static final Set<String> COLUMNAS_ORDENABLES = Set.of("id", "nombre", "precio");
+
+    /**
+     * Parámetros con handler propio. Cada uno se elige solo si llega sin los otros ni filter[precio]:
+     * las combinaciones caen en listarProductos, que las rechaza con 400.
+     */
+    static final List<String> CONSULTAS_EXCLUSIVAS = List.of("filter[id]", "filter[nombre]", "page[after]");
+
     private final ProductoService productoService;
 
     @PostMapping
@@ -44,13 +70,70 @@ public class ProductoController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping("/bulk")
+    @Operation(summary = "Crear varios productos en una sola petición, con un resultado por elemento")
+    public ResponseEntity<JsonApiDocument<List<ProductoLoteResultado>>> crearProductosEnLote(
+            @RequestBody JsonApiDocument<List<ProductoRequest>> request) {
+        List<ProductoRequest> productos = request.getData() != null ? request.getData() : List.of();
+        log.info("POST /api/v1/productos/bulk - Creando lote de {} productos", productos.size());
+
+        List<ProductoLoteResultado> resultados = productoService.crearLote(productos);
+
+        Map<String, Long> porEstado = resultados.stream()
+                .collect(Collectors.groupingBy(r -> r.getEstado().name().toLowerCase(), Collectors.counting()));
+
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("total", resultados.size());
+        meta.put("creados", porEstado.getOrDefault("creado", 0L));
+        meta.put("duplicados", porEstado.getOrDefault("duplicado", 0L));
+        meta.put("invalidos", porEstado.getOrDefault("invalido", 0L));
+
+        JsonApiDocument<List<ProductoLoteResultado>> response = JsonApiDocument.<List<ProductoLoteResultado>>builder()
+                .data(resultados)
+                .meta(meta)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PatchMapping("/bulk/precios")
+    @Operation(summary = "Actualizar precios en bloque: ajuste porcentual sobre una lista de IDs o precio por producto")
+    public ResponseEntity<JsonApiDocument<List<ProductoResponse>>> actualizarPreciosEnLote(
+            @RequestBody JsonApiDocument<ActualizacionPreciosRequest> request) {
+        log.info("PATCH /api/v1/productos/bulk/precios - Actualizando precios en bloque");
+
+        List<ProductoResponse> actualizados = productoService.actualizarPrecios(request.getData()).stream()
+                .map(a -> ProductoResponse.builder()
+                        .type("productos")
+                        .id(a.getId())
+                        .attributes(ProductoResponse.Attributes.builder()
+                                .precio(a.getPrecio())
+                                .build())
+                        .build())
+                .collect(Collectors.toList());
+
+        JsonApiDocument<List<ProductoResponse>> response = JsonApiDocument.<List<ProductoResponse>>builder()
+                .data(actualizados)
+                .meta(Map.of("actualizados", actualizados.size()))
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Obtener un producto por ID")
     public ResponseEntity<JsonApiDocument<ProductoResponse>> obtenerProducto(
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @RequestParam(name = "fields[productos]", required = false) String fields,
+            WebRequest webRequest) {
         log.info("GET /api/v1/productos/{} - Obteniendo producto", id);
 
-        ProductoResponse producto = productoService.obtenerPorId(id);
+        ProductoResponse encontrado = productoService.obtenerPorId(id);
+        if (webRequest.checkNotModified(ETags.deProducto(encontrado))) {
+            return null;
+        }
+
+        ProductoResponse producto = aplicarFieldset(encontrado, JsonApiFieldset.of(fields));
 
         JsonApiDocument<ProductoResponse> response = JsonApiDocument.<ProductoResponse>builder()
                 .data(producto)
@@ -89,19 +172,139 @@ public class ProductoController {
         productoService.eliminar(id);
     }
 
+    @GetMapping(params = {"filter[id]", "!filter[nombre]", "!page[after]",
+            "!filter[precio][gte]", "!filter[precio][lte]"})
+    @Operation(summary = "Obtener varios productos por ID en una sola petición")
+    public ResponseEntity<JsonApiDocument<List<ProductoResponse>>> obtenerProductosPorIds(
+            @RequestParam("filter[id]") List<Long> ids,
+            @RequestParam(name = "fields[productos]", required = false) String fields) {
+        log.info("GET /api/v1/productos?filter[id] - Obteniendo {} productos", ids.size());
+
+        JsonApiFieldset fieldset = JsonApiFieldset.of(fields);
+        List<ProductoResponse> productos = productoService.obtenerPorIds(new LinkedHashSet<>(ids))
+                .stream()
+                .map(p -> aplicarFieldset(p, fieldset))
+                .collect(Collectors.toList());
+
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("solicitados", ids.size());
+        meta.put("encontrados", productos.size());
+
+        JsonApiDocument<List<ProductoResponse>> response = JsonApiDocument.<List<ProductoResponse>>builder()
+                .data(productos)
+                .meta(meta)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Buscar productos por prefijo o nombre aproximado, ordenados por similitud")
+    public ResponseEntity<JsonApiDocument<List<ProductoResponse>>> buscarProductos(
+            @RequestParam String q,
+            @RequestParam(name = "page[after]", required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(name = "fields[productos]", required = false) String fields) {
+        log.info("GET /api/v1/productos/search - Buscando productos: {}", q);
+
+        PaginaBusqueda pagina = productoService.buscar(q, after, size);
+        JsonApiFieldset fieldset = JsonApiFieldset.of(fields);
+        List<ProductoResponse> productos = pagina.productos()
+                .stream()
+                .map(p -> aplicarFieldset(p, fieldset))
+                .collect(Collectors.toList());
+
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("pageSize", size);
+        meta.put("hasNext", pagina.siguiente() != null);
+
+        String base = "/api/v1/productos/search?q=" + UriUtils.encodeQueryParam(q, StandardCharsets.UTF_8);
+        JsonApiLinks links = JsonApiLinks.builder()
+                .self(after == null
+                        ? base + "&size=" + size
+                        : base + "&page[after]=" + after + "&size=" + size)
+                .first(base + "&size=" + size)
+                .build();
+
+        if (pagina.siguiente() != null) {
+            links.setNext(base + "&page[after]=" + pagina.siguiente() + "&size=" + size);
+        }
+
+        JsonApiDocument<List<ProductoResponse>> response = JsonApiDocument.<List<ProductoResponse>>builder()
+                .data(productos)
+                .meta(meta)
+                .links(links)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/search/autocomplete")
+    @Operation(summary = "Autocompletar nombres de producto por prefijo de palabra")
+    public ResponseEntity<JsonApiDocument<List<ProductoResponse>>> autocompletarProductos(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int size) {
+        log.debug("GET /api/v1/productos/search/autocomplete - Prefijo: {}", q);
+
+        JsonApiDocument<List<ProductoResponse>> response = JsonApiDocument.<List<ProductoResponse>>builder()
+                .data(productoService.autocompletar(q, size))
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping(params = {"filter[nombre]", "!filter[id]", "!page[after]",
+            "!filter[precio][gte]", "!filter[precio][lte]"})
+    @Operation(summary = "Buscar un producto por nombre exacto")
+    public ResponseEntity<JsonApiDocument<List<ProductoResponse>>> buscarProductoPorNombre(
+            @RequestParam("filter[nombre]") String nombre,
+            @RequestParam(name = "fields[productos]", required = false) String fields) {
+        log.info("GET /api/v1/productos?filter[nombre] - Buscando producto por nombre");
+
+        JsonApiFieldset fieldset = JsonApiFieldset.of(fields);
+        List<ProductoResponse> productos = productoService.buscarPorNombre(nombre)
+                .stream()
+                .map(p -> aplicarFieldset(p, fieldset))
+                .collect(Collectors.toList());
+
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("encontrados", productos.size());
+
+        JsonApiDocument<List<ProductoResponse>> response = JsonApiDocument.<List<ProductoResponse>>builder()
+                .data(productos)
+                .meta(meta)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping
-    @Operation(summary = "Listar productos con paginación")
+    @Operation(summary = "Listar productos con paginación, opcionalmente por rango de precio")
     public ResponseEntity<JsonApiDocument<Page<ProductoResponse>>> listarProductos(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sort,
-            @RequestParam(defaultValue = "ASC") String direction) {
+            @RequestParam(defaultValue = "ASC") String direction,
+            @RequestParam(name = "filter[precio][gte]", required = false) BigDecimal precioMinimo,
+            @RequestParam(name = "filter[precio][lte]", required = false) BigDecimal precioMaximo,
+            @RequestParam(name = "fields[productos]", required = false) String fields,
+            WebRequest webRequest) {
         log.info("GET /api/v1/productos - Listando productos página: {}", page);
+        rechazarCombinaciones(webRequest, precioMinimo != null || precioMaximo != null);
 
-        Sort.Direction sortDirection = Sort.Direction.fromString(direction);
-        PageRequest pageRequest = PageRequest.of(page, size, Sort.by(sortDirection, sort));
+        PageRequest pageRequest = PageRequest.of(page, size, ordenar(sort, direction));
 
-        Page<ProductoResponse> productos = productoService.listarTodos(pageRequest);
+        // Si el catálogo no cambió, se responde 304 sin consultar la página
+        if (webRequest.checkNotModified(ETags.deCatalogo(productoService.obtenerEstadoCatalogo()))) {
+            return null;
+        }
+
+        boolean porPrecio = precioMinimo != null || precioMaximo != null;
+        JsonApiFieldset fieldset = JsonApiFieldset.of(fields);
+        Page<ProductoResponse> productos = (porPrecio
+                ? productoService.listarPorRangoPrecio(precioMinimo, precioMaximo, pageRequest)
+                : productoService.listarTodos(pageRequest))
+                .map(p -> aplicarFieldset(p, fieldset));
 
         Map<String, Object> meta = new HashMap<>();
         meta.put("totalPages", productos.getTotalPages());
@@ -109,18 +312,21 @@ public class ProductoController {
         meta.put("currentPage", page);
         meta.put("pageSize", size);
 
+        String filtros = (precioMinimo != null ? "&filter[precio][gte]=" + precioMinimo.toPlainString() : "")
+                + (precioMaximo != null ? "&filter[precio][lte]=" + precioMaximo.toPlainString() : "");
+
         JsonApiLinks links = JsonApiLinks.builder()
-                .self(String.format("/api/v1/productos?page=%d&size=%d", page, size))
-                .first("/api/v1/productos?page=0&size=" + size)
-                .last(String.format("/api/v1/productos?page=%d&size=%d",
-                        productos.getTotalPages() - 1, size))
+                .self(String.format("/api/v1/productos?page=%d&size=%d%s", page, size, filtros))
+                .first("/api/v1/productos?page=0&size=" + size + filtros)
+                .last(String.format("/api/v1/productos?page=%d&size=%d%s",
+                        productos.getTotalPages() - 1, size, filtros))
                 .build();
 
         if (page > 0) {
-            links.setPrev(String.format("/api/v1/productos?page=%d&size=%d", page - 1, size));
+            links.setPrev(String.format("/api/v1/productos?page=%d&size=%d%s", page - 1, size, filtros));
         }
         if (page < productos.getTotalPages() - 1) {
-            links.setNext(String.format("/api/v1/productos?page=%d&size=%d", page + 1, size));
+            links.setNext(String.format("/api/v1/productos?page=%d&size=%d%s", page + 1, size, filtros));
         }
 
         JsonApiDocument<Page<ProductoResponse>> response = JsonApiDocument.<Page<ProductoResponse>>builder()
@@ -131,4 +337,116 @@ public class ProductoController {
 
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/export")
+    @Operation(summary = "Exportar el catálogo completo como NDJSON, comprimido si el cliente acepta gzip")
+    public ResponseEntity<StreamingResponseBody> exportarProductos(
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        log.info("GET /api/v1/productos/export - Exportando catálogo (gzip: {})", gzip);
+
+        StreamingResponseBody cuerpo = salida -> {
+            if (gzip) {
+                try (GZIPOutputStream comprimida = new GZIPOutputStream(salida, 8192)) {
+                    productoService.exportar(comprimida);
+                }
+            } else {
+                productoService.exportar(salida);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return response.body(cuerpo);
+    }
+
+    @GetMapping(params = {"page[after]", "!filter[id]", "!filter[nombre]",
+            "!filter[precio][gte]", "!filter[precio][lte]"})
+    @Operation(summary = "Listar productos por cursor (keyset) ordenados por ID, sin conteo total")
+    public ResponseEntity<JsonApiDocument<List<ProductoResponse>>> listarProductosPorCursor(
+            @RequestParam("page[after]") Long after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(name = "fields[productos]", required = false) String fields) {
+        log.info("GET /api/v1/productos - Listando productos después de ID: {}", after);
+
+        JsonApiFieldset fieldset = JsonApiFieldset.of(fields);
+        Slice<ProductoResponse> productos = productoService.listarDespuesDe(after, size)
+                .map(p -> aplicarFieldset(p, fieldset));
+
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("pageSize", size);
+        meta.put("hasNext", productos.hasNext());
+
+        JsonApiLinks links = JsonApiLinks.builder()
+                .self(String.format("/api/v1/productos?page[after]=%d&size=%d", after, size))
+                .first("/api/v1/productos?page[after]=0&size=" + size)
+                .build();
+
+        if (productos.hasNext()) {
+            Long ultimoId = productos.getContent().get(productos.getNumberOfElements() - 1).getId();
+            links.setNext(String.format("/api/v1/productos?page[after]=%d&size=%d", ultimoId, size));
+        }
+
+        JsonApiDocument<List<ProductoResponse>> response = JsonApiDocument.<List<ProductoResponse>>builder()
+                .data(productos.getContent())
+                .meta(meta)
+                .links(links)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    private static void rechazarCombinaciones(WebRequest webRequest, boolean porPrecio) {
+        List<String> presentes = CONSULTAS_EXCLUSIVAS.stream()
+                .filter(parametro -> webRequest.getParameter(parametro) != null)
+                .collect(Collectors.toList());
+        if (presentes.isEmpty()) {
+            return;
+        }
+        if (porPrecio) {
+            presentes.add("filter[precio]");
+        }
+        throw new IllegalArgumentException(
+                "Los parámetros " + String.join(", ", presentes) + " no se pueden combinar en la misma consulta"
+        );
+    }
+
+    /**
+     * Solo se ordena por columnas indexadas, para no provocar ordenamientos de la tabla completa.
+     * El precio se repite: el ID desempata en el mismo sentido, igual que en idx_productos_precio_id.
+     */
+    private static Sort ordenar(String sort, String direction) {
+        if (!COLUMNAS_ORDENABLES.contains(sort)) {
+            throw new IllegalArgumentException(
+                    "No se puede ordenar por '" + sort + "'. Columnas permitidas: " + COLUMNAS_ORDENABLES
+            );
+        }
+
+        Sort.Direction sortDirection = Sort.Direction.fromString(direction);
+        Sort orden = Sort.by(sortDirection, sort);
+        return "precio".equals(sort) ? orden.and(Sort.by(sortDirection, "id")) : orden;
+    }
+
+    private ProductoResponse aplicarFieldset(ProductoResponse producto, JsonApiFieldset fieldset) {
+        if (fieldset.esCompleto()) {
+            return producto;
+        }
+
+        ProductoResponse.Attributes attrs = producto.getAttributes();
+        return ProductoResponse.builder()
+                .type(producto.getType())
+                .id(producto.getId())
+                .attributes(ProductoResponse.Attributes.builder()
+                        .nombre(fieldset.incluye("nombre") ? attrs.getNombre() : null)
+                        .precio(fieldset.incluye("precio") ? attrs.getPrecio() : null)
+                        .createdAt(fieldset.incluye("createdAt") ? attrs.getCreatedAt() : null)
+                        .updatedAt(fieldset.incluye("updatedAt") ? attrs.getUpdatedAt() : null)
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.linktic.productos_service.dto;
+
+import lombok.*;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Cuerpo de PATCH /api/v1/productos/bulk/precios. Admite uno de dos modos:
+ * {@code ids} + {@code porcentaje} (ajuste relativo, -10 = 10 % de descuento) o
+ * {@code precios} (precio absoluto por producto).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ActualizacionPreciosRequest {
+
+    private List<Long> ids;
+    private BigDecimal porcentaje;
+    private List<PrecioProducto> precios;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class PrecioProducto {
+        private Long id;
+        private BigDecimal precio;
+    }
+}
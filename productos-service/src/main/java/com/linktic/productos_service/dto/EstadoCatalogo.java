@@ -0,0 +1,14 @@
+package com.linktic.productos_service.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyección con la última modificación y el total de productos; cambia con cualquier alta,
+ * edición o baja, por lo que sirve como versión del listado.
+ */
+public interface EstadoCatalogo {
+
+    LocalDateTime getUltimaActualizacion();
+
+    long getTotal();
+}
@@ -0,0 +1,53 @@
+package com.linktic.productos_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportacionResponse {
+    private String type = "importaciones";
+    private String id;
+    private Attributes attributes;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Attributes {
+        private String estado;
+        private String formato;
+        private long procesadas;
+        private long creadas;
+        private long duplicadas;
+        private long rechazadas;
+
+        @JsonProperty("filas_por_segundo")
+        private double filasPorSegundo;
+
+        @JsonProperty("iniciada_en")
+        private LocalDateTime iniciadaEn;
+
+        @JsonProperty("finalizada_en")
+        private LocalDateTime finalizadaEn;
+
+        private String error;
+        private List<Rechazo> rechazos;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Rechazo {
+        private long linea;
+        private String motivo;
+    }
+}
@@ -0,0 +1,9 @@
+package com.linktic.productos_service.dto;
+
+/**
+ * Proyección ID + nombre para cargar el índice de autocompletado sin materializar entidades.
+ */
+public interface NombreProducto {
+    Long getId();
+    String getNombre();
+}
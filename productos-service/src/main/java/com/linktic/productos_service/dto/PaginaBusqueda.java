@@ -0,0 +1,9 @@
+package com.linktic.productos_service.dto;
+
+import java.util.List;
+
+/**
+ * Página de resultados de búsqueda; {@code siguiente} es el cursor de la página siguiente o null si no hay más.
+ */
+public record PaginaBusqueda(List<ProductoResponse> productos, String siguiente) {
+}
@@ -0,0 +1,11 @@
+package com.linktic.productos_service.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Fila devuelta por las actualizaciones masivas de precio (UPDATE ... RETURNING id, precio).
+ */
+public interface PrecioActualizado {
+    Long getId();
+    BigDecimal getPrecio();
+}
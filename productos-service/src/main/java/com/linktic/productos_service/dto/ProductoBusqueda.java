@@ -0,0 +1,9 @@
+package com.linktic.productos_service.dto;
+
+/**
+ * Fila de la búsqueda por similitud: ID del producto y su puntuación (1 para coincidencias de prefijo).
+ */
+public interface ProductoBusqueda {
+    Long getId();
+    Float getPuntuacion();
+}
@@ -0,0 +1,12 @@
+package com.linktic.productos_service.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Modelo de lectura de los listados: solo las columnas del recurso, sin entidad gestionada
+ * ni copia para dirty checking en el contexto de persistencia.
+ */
+public record ProductoFila(Long id, String nombre, BigDecimal precio,
+                           LocalDateTime createdAt, LocalDateTime updatedAt) {
+}
@@ -0,0 +1,22 @@
+package com.linktic.productos_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+/**
+ * Resultado de un elemento de POST /api/v1/productos/bulk; {@code indice} es su posición en la petición.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductoLoteResultado {
+
+    public enum Estado { CREADO, DUPLICADO, INVALIDO }
+
+    private int indice;
+    private Estado estado;
+    private ProductoResponse producto;
+    private JsonApiError error;
+}
@@ -1,5 +1,6 @@
 package com.linktic.productos_service.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
 import java.math.BigDecimal;
@@ -18,6 +19,7 @@ public class ProductoResponse {
     @NoArgsConstructor
     @AllArgsConstructor
     @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public static class Attributes {
         private String nombre;
         private BigDecimal precio;
@@ -0,0 +1,123 @@
+package com.linktic.productos_service.events;
+
+import com.linktic.productos_service.model.ProductoCambiadoEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Avisa a inventario-service de los productos cambiados para que los saque de su caché sin esperar al ttl.
+ * Acumula los IDs confirmados y los envía en lotes a POST /api/v1/cache/productos/invalidaciones; si
+ * inventario no responde, el lote se reintenta en la siguiente pasada. Si los pendientes superan
+ * max-pendientes se descartan y se pide invalidar toda la caché. Solo se registra si
+ * productos.eventos.inventario.url tiene valor; sin él, la frescura en inventario depende del ttl y de
+ * la revalidación con ETag.
+ */
+@Component
+@ConditionalOnExpression("!'${productos.eventos.inventario.url:}'.isEmpty()")
+@Slf4j
+public class InventarioCacheNotificador {
+
+    static final String API_KEY_HEADER = "X-API-Key";
+    static final String CACHE_PATH = "/api/v1/cache/productos";
+
+    private final RestTemplate restTemplate;
+    private final String url;
+    private final int tamanioLote;
+    private final int maxPendientes;
+
+    private final Set<Long> pendientes = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean invalidarTodos = new AtomicBoolean();
+    private final Counter enviadas;
+    private final Counter fallidas;
+
+    public InventarioCacheNotificador(RestTemplateBuilder builder,
+                                      @Value("${productos.eventos.inventario.url}") String url,
+                                      @Value("${productos.eventos.inventario.api-key:}") String apiKey,
+                                      @Value("${productos.eventos.inventario.timeout:5s}") Duration timeout,
+                                      @Value("${productos.eventos.inventario.tamanio-lote:1000}") int tamanioLote,
+                                      @Value("${productos.eventos.inventario.max-pendientes:100000}") int maxPendientes,
+                                      MeterRegistry meterRegistry) {
+        this.restTemplate = builder
+                .connectTimeout(timeout)
+                .readTimeout(timeout)
+                .defaultHeader(API_KEY_HEADER, apiKey)
+                .build();
+        this.url = url + CACHE_PATH;
+        this.tamanioLote = tamanioLote;
+        this.maxPendientes = maxPendientes;
+
+        this.enviadas = Counter.builder("productos.inventario.invalidaciones")
+                .description("Productos invalidados en la caché de inventario-service")
+                .register(meterRegistry);
+        this.fallidas = Counter.builder("productos.inventario.invalidaciones.fallidas")
+                .description("Envíos de invalidaciones a inventario-service que fallaron y se reintentarán")
+                .register(meterRegistry);
+
+        log.info("Invalidación de la caché de inventario configurada: {}", this.url);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void productoCambiado(ProductoCambiadoEvent event) {
+        if (invalidarTodos.get()) {
+            return;
+        }
+        pendientes.add(event.getProductoId());
+        if (pendientes.size() > maxPendientes) {
+            log.warn("Más de {} invalidaciones pendientes para inventario, se invalidará toda su caché", maxPendientes);
+            invalidarTodos.set(true);
+            pendientes.clear();
+        }
+    }
+
+    /**
+     * Envía los IDs pendientes en lotes de {@code tamanioLote}; se detiene en el primer fallo y
+     * retorna cuántos productos se invalidaron.
+     */
+    @Scheduled(fixedDelayString = "${productos.eventos.inventario.intervalo:1s}")
+    public int notificar() {
+        if (invalidarTodos.getAndSet(false)) {
+            try {
+                restTemplate.delete(url);
+            } catch (RestClientException ex) {
+                invalidarTodos.set(true);
+                fallidas.increment();
+                log.warn("No se pudo invalidar la caché de inventario: {}", ex.getMessage());
+                return 0;
+            }
+        }
+
+        int invalidados = 0;
+        while (!pendientes.isEmpty()) {
+            List<Long> lote = pendientes.stream().limit(tamanioLote).collect(Collectors.toList());
+            pendientes.removeAll(lote);
+            try {
+                restTemplate.postForEntity(url + "/invalidaciones", lote, Void.class);
+            } catch (RestClientException ex) {
+                pendientes.addAll(lote);
+                fallidas.increment();
+                log.warn("No se pudieron invalidar {} productos en inventario: {}", lote.size(), ex.getMessage());
+                break;
+            }
+            invalidados += lote.size();
+        }
+        enviadas.increment(invalidados);
+        return invalidados;
+    }
+}
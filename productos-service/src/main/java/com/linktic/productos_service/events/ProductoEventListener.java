@@ -0,0 +1,21 @@
+package com.linktic.productos_service.events;
+
+import com.linktic.productos_service.model.ProductoCambiadoEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Recibe los cambios de producto una vez confirmados; un cambio revertido nunca llega aquí.
+ */
+@Component
+@Slf4j
+public class ProductoEventListener {
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleProductoCambiado(ProductoCambiadoEvent event) {
+        log.debug("Producto cambiado - ID: {}, operación: {}, precio: {}, timestamp: {}",
+                event.getProductoId(), event.getTipoOperacion(), event.getPrecio(), event.getTimestamp());
+    }
+}
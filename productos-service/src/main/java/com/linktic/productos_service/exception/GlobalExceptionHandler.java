@@ -58,6 +58,25 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
     }
 
+    @ExceptionHandler(ImportacionNotFoundException.class)
+    public ResponseEntity<JsonApiDocument<Void>> handleImportacionNotFound(
+            ImportacionNotFoundException ex) {
+        log.error("Importación no encontrada: {}", ex.getMessage());
+
+        JsonApiError error = JsonApiError.builder()
+                .status("404")
+                .code("IMPORT_NOT_FOUND")
+                .title("Importación no encontrada")
+                .detail(ex.getMessage())
+                .build();
+
+        JsonApiDocument<Void> response = JsonApiDocument.<Void>builder()
+                .errors(List.of(error))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    }
+
     @ExceptionHandler(DuplicateProductException.class)
     public ResponseEntity<JsonApiDocument<Void>> handleDuplicateProduct(
             DuplicateProductException ex) {
@@ -77,6 +96,25 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
     }
 
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<JsonApiDocument<Void>> handleBadRequest(
+            IllegalArgumentException ex) {
+        log.error("Petición inválida: {}", ex.getMessage());
+
+        JsonApiError error = JsonApiError.builder()
+                .status("400")
+                .code("BAD_REQUEST")
+                .title("Petición inválida")
+                .detail(ex.getMessage())
+                .build();
+
+        JsonApiDocument<Void> response = JsonApiDocument.<Void>builder()
+                .errors(List.of(error))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<JsonApiDocument<Void>> handleValidationErrors(
             MethodArgumentNotValidException ex) {
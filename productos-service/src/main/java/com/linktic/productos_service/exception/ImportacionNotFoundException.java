@@ -0,0 +1,7 @@
+package com.linktic.productos_service.exception;
+
+public class ImportacionNotFoundException extends RuntimeException {
+    public ImportacionNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -11,7 +11,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "productos")
+@Table(name = "productos",
+        uniqueConstraints = @UniqueConstraint(name = Producto.UK_NOMBRE, columnNames = "nombre"),
+        // Rangos de precio ordenados por precio; el id desempata y permite recorrer el índice sin ordenar
+        indexes = @Index(name = "idx_productos_precio_id", columnList = "precio, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,8 +23,13 @@ import java.time.LocalDateTime;
 @ToString(exclude = {"createdAt", "updatedAt"})
 public class Producto {
 
+    /** Índice único de nombre: sirve las búsquedas exactas y resuelve las altas concurrentes del mismo nombre. */
+    public static final String UK_NOMBRE = "uk_productos_nombre";
+
+    // Secuencia con asignación en bloques de 50: permite que Hibernate agrupe los INSERT en lotes JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "productos_seq")
+    @SequenceGenerator(name = "productos_seq", sequenceName = "productos_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "El nombre es obligatorio")
@@ -0,0 +1,20 @@
+package com.linktic.productos_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductoCambiadoEvent {
+    private Long productoId;
+    private BigDecimal precio;
+    private String tipoOperacion;
+    private LocalDateTime timestamp;
+}
@@ -1,10 +1,125 @@
 package com.linktic.productos_service.repository;
 
+import com.linktic.productos_service.dto.EstadoCatalogo;
+import com.linktic.productos_service.dto.NombreProducto;
+import com.linktic.productos_service.dto.PrecioActualizado;
+import com.linktic.productos_service.dto.ProductoFila;
+import com.linktic.productos_service.dto.ProductoBusqueda;
 import com.linktic.productos_service.model.Producto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
 @Repository
 public interface ProductoRepository extends JpaRepository<Producto, Long> {
-    boolean existsByNombre(String nombre);
+    Optional<Producto> findByNombre(String nombre);
+
+    String FILA = "SELECT new com.linktic.productos_service.dto.ProductoFila("
+            + "p.id, p.nombre, p.precio, p.createdAt, p.updatedAt) FROM Producto p";
+
+    /**
+     * Listado paginado proyectado directamente a ProductoFila, sin hidratar entidades.
+     */
+    @Query(value = FILA, countQuery = "SELECT COUNT(p) FROM Producto p")
+    Page<ProductoFila> listarFilas(Pageable pageable);
+
+    /**
+     * Rango de precio cerrado; con orden por (precio, id) se resuelve sobre idx_productos_precio_id.
+     */
+    @Query(value = FILA + " WHERE p.precio BETWEEN :minimo AND :maximo",
+            countQuery = "SELECT COUNT(p) FROM Producto p WHERE p.precio BETWEEN :minimo AND :maximo")
+    Page<ProductoFila> listarFilasPorPrecio(@Param("minimo") BigDecimal minimo,
+                                            @Param("maximo") BigDecimal maximo,
+                                            Pageable pageable);
+
+    /**
+     * Nombres de la colección que ya existen, en una sola consulta (alta masiva).
+     */
+    @Query("SELECT p.nombre FROM Producto p WHERE p.nombre IN :nombres")
+    Set<String> findNombresExistentes(@Param("nombres") Collection<String> nombres);
+
+    /**
+     * Paginación por cursor: busca por índice de la PK a partir del último ID visto, sin OFFSET ni count(*).
+     */
+    @Query(FILA + " WHERE p.id > :id ORDER BY p.id")
+    Slice<ProductoFila> listarFilasDespuesDe(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Recorre todo el catálogo con un cursor de solo avance (fetchSize): debe consumirse dentro de una transacción.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Producto> streamAllByOrderByIdAsc();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.id AS id, p.nombre AS nombre FROM Producto p")
+    Stream<NombreProducto> streamNombres();
+
+    /**
+     * Búsqueda por prefijo y por similitud de trigramas (pg_trgm, índice idx_productos_nombre_trgm).
+     * Los prefijos puntúan 1; el resto, su word_similarity. Paginación por cursor (puntuación, ID):
+     * para la primera página se pasa una puntuación mayor que 1.
+     */
+    @Query(value = """
+            SELECT p.id AS id, b.puntuacion AS puntuacion
+            FROM productos p
+            CROSS JOIN LATERAL (
+                SELECT CAST(CASE WHEN lower(p.nombre) LIKE :prefijo THEN 1
+                                 ELSE word_similarity(:q, lower(p.nombre)) END AS real) AS puntuacion
+            ) b
+            WHERE (lower(p.nombre) LIKE :prefijo OR :q <% lower(p.nombre))
+              AND (b.puntuacion < :puntuacion OR (b.puntuacion = :puntuacion AND p.id > :despuesDe))
+            ORDER BY b.puntuacion DESC, p.id ASC
+            LIMIT :limite
+            """, nativeQuery = true)
+    List<ProductoBusqueda> buscarSimilares(@Param("q") String q,
+                                           @Param("prefijo") String prefijo,
+                                           @Param("puntuacion") float puntuacion,
+                                           @Param("despuesDe") long despuesDe,
+                                           @Param("limite") int limite);
+
+    /**
+     * Aplica un factor al precio de los IDs en una sola sentencia, redondeando a centavos y con
+     * 0.01 como mínimo. Omite los productos cuyo precio resultante desbordaría NUMERIC(10,2).
+     */
+    @Query(value = """
+            UPDATE productos SET precio = GREATEST(0.01, ROUND(precio * :factor, 2)),
+                   updated_at = CURRENT_TIMESTAMP
+            WHERE id IN (:ids) AND ROUND(precio * :factor, 2) <= 99999999.99
+            RETURNING id, precio
+            """, nativeQuery = true)
+    List<PrecioActualizado> ajustarPrecios(@Param("ids") Collection<Long> ids,
+                                           @Param("factor") BigDecimal factor);
+
+    /**
+     * Fija un precio distinto por producto en una sola sentencia. Los IDs y precios llegan como
+     * literales de arreglo de PostgreSQL ({1,2,3}) en el mismo orden y se emparejan con unnest.
+     */
+    @Query(value = """
+            UPDATE productos p SET precio = v.precio, updated_at = CURRENT_TIMESTAMP
+            FROM unnest(CAST(:ids AS bigint[]), CAST(:precios AS numeric[])) AS v(id, precio)
+            WHERE p.id = v.id
+            RETURNING p.id AS id, p.precio AS precio
+            """, nativeQuery = true)
+    List<PrecioActualizado> fijarPrecios(@Param("ids") String ids,
+                                         @Param("precios") String precios);
+
+    @Query("SELECT MAX(p.updatedAt) AS ultimaActualizacion, COUNT(p) AS total FROM Producto p")
+    EstadoCatalogo obtenerEstadoCatalogo();
 }
@@ -0,0 +1,97 @@
+package com.linktic.productos_service.service;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estado en memoria de una importación masiva; los contadores se actualizan mientras avanza
+ * y pueden consultarse desde otras peticiones.
+ */
+@Getter
+public class ImportacionJob {
+
+    public enum Formato { CSV, NDJSON }
+
+    public enum Estado { EN_CURSO, COMPLETADA, FALLIDA }
+
+    public record Rechazo(long linea, String motivo) {}
+
+    static final int MAX_RECHAZOS_DETALLADOS = 100;
+
+    private final String id;
+    private final Formato formato;
+    private final LocalDateTime iniciadaEn = LocalDateTime.now();
+    private final long inicioNanos = System.nanoTime();
+
+    private volatile Estado estado = Estado.EN_CURSO;
+    private volatile LocalDateTime finalizadaEn;
+    private volatile long finNanos;
+    private volatile String error;
+
+    private final AtomicLong procesadas = new AtomicLong();
+    private final AtomicLong creadas = new AtomicLong();
+    private final AtomicLong duplicadas = new AtomicLong();
+    private final AtomicLong rechazadas = new AtomicLong();
+    private final List<Rechazo> rechazos = new CopyOnWriteArrayList<>();
+
+    ImportacionJob(String id, Formato formato) {
+        this.id = id != null ? id : UUID.randomUUID().toString();
+        this.formato = formato;
+    }
+
+    void registrarCreada() {
+        procesadas.incrementAndGet();
+        creadas.incrementAndGet();
+    }
+
+    void registrarDuplicada(long linea, String motivo) {
+        procesadas.incrementAndGet();
+        duplicadas.incrementAndGet();
+        detallar(linea, motivo);
+    }
+
+    void registrarRechazada(long linea, String motivo) {
+        procesadas.incrementAndGet();
+        rechazadas.incrementAndGet();
+        detallar(linea, motivo);
+    }
+
+    void completar() {
+        finalizar(Estado.COMPLETADA, null);
+    }
+
+    void fallar(String error) {
+        finalizar(Estado.FALLIDA, error);
+    }
+
+    public double getFilasPorSegundo() {
+        long fin = estado == Estado.EN_CURSO ? System.nanoTime() : finNanos;
+        double segundos = (fin - inicioNanos) / 1_000_000_000d;
+        return segundos > 0 ? procesadas.get() / segundos : 0;
+    }
+
+    public Duration getDuracion() {
+        long fin = estado == Estado.EN_CURSO ? System.nanoTime() : finNanos;
+        return Duration.ofNanos(fin - inicioNanos);
+    }
+
+    /** Solo se guarda el detalle de los primeros rechazos; los contadores siguen reflejando el total. */
+    private void detallar(long linea, String motivo) {
+        if (rechazos.size() < MAX_RECHAZOS_DETALLADOS) {
+            rechazos.add(new Rechazo(linea, motivo));
+        }
+    }
+
+    private void finalizar(Estado estadoFinal, String error) {
+        this.finNanos = System.nanoTime();
+        this.finalizadaEn = LocalDateTime.now();
+        this.error = error;
+        this.estado = estadoFinal;
+    }
+}
@@ -0,0 +1,332 @@
+package com.linktic.productos_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.linktic.productos_service.dto.ImportacionResponse;
+import com.linktic.productos_service.dto.ProductoLoteResultado;
+import com.linktic.productos_service.dto.ProductoRequest;
+import com.linktic.productos_service.exception.DuplicateProductException;
+import com.linktic.productos_service.exception.ImportacionNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva de productos desde CSV (cabecera con columnas nombre y precio) o NDJSON.
+ * El cuerpo se lee línea a línea y cada lote se confirma en su propia transacción mediante
+ * {@link ProductoService#crearLote}, con una sola consulta de nombres existentes por lote.
+ * No se lee el lote siguiente hasta confirmar el anterior: si la base va más lenta que la subida,
+ * el control de flujo de TCP frena al cliente y la memoria no depende del tamaño del archivo.
+ * Si otra alta concurrente gana la carrera a la consulta de nombres de un lote, ese lote se repite
+ * fila a fila y las colisiones cuentan como duplicadas: los lotes ya confirmados no quedan a medias.
+ */
+@Service
+@Slf4j
+public class ImportacionProductosService {
+
+    /** IDs propuestos por el cliente: sin caracteres que haya que escapar en la URL de consulta. */
+    private static final Pattern ID_VALIDO = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final ProductoService productoService;
+    private final ObjectMapper objectMapper;
+    private final int tamanioLote;
+    private final Cache<String, ImportacionJob> importaciones;
+
+    private final Counter filasCreadas;
+    private final Counter filasDuplicadas;
+    private final Counter filasRechazadas;
+
+    public ImportacionProductosService(ProductoService productoService,
+                                       ObjectMapper objectMapper,
+                                       @Value("${productos.importacion.tamanio-lote:500}") int tamanioLote,
+                                       @Value("${productos.importacion.retencion:24h}") Duration retencion,
+                                       MeterRegistry meterRegistry) {
+        if (tamanioLote < 1 || tamanioLote > ProductoService.MAX_PRODUCTOS_POR_LOTE) {
+            throw new IllegalArgumentException("productos.importacion.tamanio-lote debe estar entre 1 y "
+                    + ProductoService.MAX_PRODUCTOS_POR_LOTE);
+        }
+
+        this.productoService = productoService;
+        this.objectMapper = objectMapper;
+        this.tamanioLote = tamanioLote;
+        this.importaciones = Caffeine.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(retencion)
+                .build();
+
+        this.filasCreadas = contador(meterRegistry, "creada");
+        this.filasDuplicadas = contador(meterRegistry, "duplicada");
+        this.filasRechazadas = contador(meterRegistry, "rechazada");
+    }
+
+    /**
+     * Procesa el cuerpo completo en el hilo de la petición. La importación se registra con {@code id}
+     * (o uno generado si es null) antes de leer el cuerpo, así quien sube el archivo puede consultar su
+     * progreso con {@link #obtener} mientras avanza.
+     */
+    public ImportacionResponse importar(String id, InputStream cuerpo, ImportacionJob.Formato formato) {
+        if (id != null && !ID_VALIDO.matcher(id).matches()) {
+            throw new IllegalArgumentException("El ID de importación debe tener entre 1 y 64 letras, dígitos, '-' o '_'");
+        }
+        ImportacionJob job = new ImportacionJob(id, formato);
+        if (importaciones.asMap().putIfAbsent(job.getId(), job) != null) {
+            throw new IllegalArgumentException("Ya existe una importación con ID: " + job.getId());
+        }
+        log.info("Importación {} iniciada - formato: {}, lotes de {}", job.getId(), formato, tamanioLote);
+
+        try (BufferedReader lector = new BufferedReader(new InputStreamReader(cuerpo, StandardCharsets.UTF_8))) {
+            procesar(lector, job);
+            job.completar();
+        } catch (IOException ex) {
+            job.fallar("Error leyendo el cuerpo de la petición: " + ex.getMessage());
+            log.error("Importación {} interrumpida tras {} filas: {}", job.getId(), job.getProcesadas(), ex.getMessage());
+            throw new UncheckedIOException(ex);
+        } catch (RuntimeException ex) {
+            job.fallar(ex.getMessage());
+            log.error("Importación {} fallida tras {} filas: {}", job.getId(), job.getProcesadas(), ex.getMessage());
+            throw ex;
+        }
+
+        log.info("Importación {} completada - procesadas: {}, creadas: {}, duplicadas: {}, rechazadas: {} ({} filas/s)",
+                job.getId(), job.getProcesadas(), job.getCreadas(), job.getDuplicadas(), job.getRechazadas(),
+                String.format(Locale.ROOT, "%.1f", job.getFilasPorSegundo()));
+
+        return mapToResponse(job);
+    }
+
+    public ImportacionResponse obtener(String id) {
+        ImportacionJob job = importaciones.getIfPresent(id);
+        if (job == null) {
+            throw new ImportacionNotFoundException("Importación no encontrada con ID: " + id);
+        }
+        return mapToResponse(job);
+    }
+
+    /**
+     * Importaciones retenidas, las más recientes primero; permite localizar las que siguen en curso.
+     */
+    public List<ImportacionResponse> listar() {
+        return importaciones.asMap().values().stream()
+                .sorted(Comparator.comparing(ImportacionJob::getIniciadaEn).reversed())
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    private void procesar(BufferedReader lector, ImportacionJob job) throws IOException {
+        List<ProductoRequest> lote = new ArrayList<>(tamanioLote);
+        List<Long> lineas = new ArrayList<>(tamanioLote);
+        int[] columnas = null;
+        long numeroLinea = 0;
+        String linea;
+
+        while ((linea = lector.readLine()) != null) {
+            numeroLinea++;
+            if (linea.isBlank()) {
+                continue;
+            }
+
+            if (job.getFormato() == ImportacionJob.Formato.CSV && columnas == null) {
+                columnas = leerCabecera(linea);
+                continue;
+            }
+
+            ProductoRequest request;
+            try {
+                request = job.getFormato() == ImportacionJob.Formato.CSV
+                        ? leerFilaCsv(linea, columnas)
+                        : objectMapper.readValue(linea, ProductoRequest.class);
+            } catch (JsonProcessingException ex) {
+                rechazar(job, numeroLinea, "Fila mal formada: " + ex.getOriginalMessage());
+                continue;
+            } catch (IllegalArgumentException ex) {
+                rechazar(job, numeroLinea, "Fila mal formada: " + ex.getMessage());
+                continue;
+            }
+
+            lote.add(request);
+            lineas.add(numeroLinea);
+
+            if (lote.size() == tamanioLote) {
+                confirmarLote(lote, lineas, job);
+                lote.clear();
+                lineas.clear();
+            }
+        }
+
+        if (!lote.isEmpty()) {
+            confirmarLote(lote, lineas, job);
+        }
+    }
+
+    private void confirmarLote(List<ProductoRequest> lote, List<Long> lineas, ImportacionJob job) {
+        List<ProductoLoteResultado> resultados;
+        try {
+            resultados = productoService.crearLote(lote);
+        } catch (DuplicateProductException ex) {
+            log.debug("Importación {} - colisión concurrente en un lote de {} filas, se repite fila a fila",
+                    job.getId(), lote.size());
+            confirmarFilaAFila(lote, lineas, job);
+            return;
+        }
+
+        for (ProductoLoteResultado resultado : resultados) {
+            registrar(job, resultado, lineas.get(resultado.getIndice()), lote.get(resultado.getIndice()));
+        }
+
+        log.debug("Importación {} - lote confirmado, {} filas procesadas", job.getId(), job.getProcesadas());
+    }
+
+    /**
+     * Cada fila en su propia transacción: la que choca con un alta concurrente es un duplicado más.
+     */
+    private void confirmarFilaAFila(List<ProductoRequest> lote, List<Long> lineas, ImportacionJob job) {
+        for (int i = 0; i < lote.size(); i++) {
+            ProductoRequest request = lote.get(i);
+            try {
+                registrar(job, productoService.crearLote(List.of(request)).get(0), lineas.get(i), request);
+            } catch (DuplicateProductException ex) {
+                job.registrarDuplicada(lineas.get(i), "Nombre creado simultáneamente por otra petición: "
+                        + request.getNombre());
+                filasDuplicadas.increment();
+            }
+        }
+    }
+
+    private void registrar(ImportacionJob job, ProductoLoteResultado resultado, long linea, ProductoRequest request) {
+        switch (resultado.getEstado()) {
+            case CREADO -> {
+                job.registrarCreada();
+                filasCreadas.increment();
+            }
+            case DUPLICADO -> {
+                job.registrarDuplicada(linea, "Nombre ya existente en la base o en una fila anterior: "
+                        + request.getNombre());
+                filasDuplicadas.increment();
+            }
+            case INVALIDO -> rechazar(job, linea, resultado.getError().getDetail());
+        }
+    }
+
+    private void rechazar(ImportacionJob job, long linea, String motivo) {
+        job.registrarRechazada(linea, motivo);
+        filasRechazadas.increment();
+    }
+
+    private static int[] leerCabecera(String linea) {
+        List<String> campos = separarCsv(linea.replace("\uFEFF", "")).stream()
+                .map(c -> c.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toList());
+
+        int nombre = campos.indexOf("nombre");
+        int precio = campos.indexOf("precio");
+        if (nombre < 0 || precio < 0) {
+            throw new IllegalArgumentException("La cabecera CSV debe incluir las columnas nombre y precio");
+        }
+        return new int[]{nombre, precio};
+    }
+
+    private static ProductoRequest leerFilaCsv(String linea, int[] columnas) {
+        List<String> campos = separarCsv(linea);
+        if (campos.size() <= Math.max(columnas[0], columnas[1])) {
+            throw new IllegalArgumentException("se esperaban al menos " + (Math.max(columnas[0], columnas[1]) + 1)
+                    + " columnas");
+        }
+
+        String precio = campos.get(columnas[1]).trim();
+        try {
+            return ProductoRequest.builder()
+                    .nombre(campos.get(columnas[0]).trim())
+                    .precio(precio.isEmpty() ? null : new BigDecimal(precio))
+                    .build();
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("precio no numérico: " + precio);
+        }
+    }
+
+    /**
+     * Separa una línea CSV (RFC 4180) respetando campos entre comillas; no admite saltos de línea dentro de un campo.
+     */
+    static List<String> separarCsv(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+
+        if (entreComillas) {
+            throw new IllegalArgumentException("comillas sin cerrar");
+        }
+        campos.add(actual.toString());
+        return campos;
+    }
+
+    private ImportacionResponse mapToResponse(ImportacionJob job) {
+        return ImportacionResponse.builder()
+                .type("importaciones")
+                .id(job.getId())
+                .attributes(ImportacionResponse.Attributes.builder()
+                        .estado(job.getEstado().name())
+                        .formato(job.getFormato().name())
+                        .procesadas(job.getProcesadas().get())
+                        .creadas(job.getCreadas().get())
+                        .duplicadas(job.getDuplicadas().get())
+                        .rechazadas(job.getRechazadas().get())
+                        .filasPorSegundo(Math.round(job.getFilasPorSegundo() * 10) / 10d)
+                        .iniciadaEn(job.getIniciadaEn())
+                        .finalizadaEn(job.getFinalizadaEn())
+                        .error(job.getError())
+                        .rechazos(job.getRechazos().stream()
+                                .map(r -> ImportacionResponse.Rechazo.builder()
+                                        .linea(r.linea())
+                                        .motivo(r.motivo())
+                                        .build())
+                                .collect(Collectors.toList()))
+                        .build())
+                .build();
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("productos.importacion.filas")
+                .description("Filas procesadas por la importación masiva de productos")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+}
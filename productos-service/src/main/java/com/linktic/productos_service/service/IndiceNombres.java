@@ -0,0 +1,51 @@
+package com.linktic.productos_service.service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Índice de nombres para autocompletado, mantenido al día tras cada commit de ProductoService.
+ * La implementación se elige con productos.busqueda.indice-memoria.enabled.
+ */
+public interface IndiceNombres {
+
+    record Sugerencia(Long id, String nombre) {}
+
+    void indexar(Long id, String nombre);
+
+    void eliminar(Long id);
+
+    /**
+     * Nombres cuyo inicio, o el de alguna de sus palabras, coincide con el prefijo.
+     * Vacío si el índice no puede responder (desactivado o aún cargando): se consulta la base de datos.
+     */
+    Optional<List<Sugerencia>> sugerir(String prefijo, int limite);
+
+    /**
+     * Indexa una fila leída por la carga inicial. La lectura puede ser anterior a un cambio ya aplicado
+     * con indexar o eliminar: en ese caso la implementación debe ignorarla.
+     */
+    default void cargar(Long id, String nombre) {
+        indexar(id, nombre);
+    }
+
+    /** Marca el fin de la carga inicial del catálogo. */
+    default void cargaCompletada() {
+    }
+
+    /** Sin índice en memoria: el autocompletado siempre va a la base de datos. */
+    IndiceNombres DESACTIVADO = new IndiceNombres() {
+        @Override
+        public void indexar(Long id, String nombre) {
+        }
+
+        @Override
+        public void eliminar(Long id) {
+        }
+
+        @Override
+        public Optional<List<Sugerencia>> sugerir(String prefijo, int limite) {
+            return Optional.empty();
+        }
+    };
+}
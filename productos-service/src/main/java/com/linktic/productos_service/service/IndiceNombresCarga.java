@@ -0,0 +1,46 @@
+package com.linktic.productos_service.service;
+
+import com.linktic.productos_service.dto.NombreProducto;
+import com.linktic.productos_service.repository.ProductoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * Carga el catálogo en el índice de nombres al arrancar. Hasta terminar, el autocompletado consulta la base.
+ * El servicio ya atiende peticiones: las filas de productos modificados o eliminados durante la carga se
+ * ignoran (IndiceNombres.cargar), porque el cambio confirmado ya llegó al índice.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IndiceNombresCarga {
+
+    private final ProductoRepository productoRepository;
+    private final IndiceNombres indiceNombres;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void cargar() {
+        if (indiceNombres == IndiceNombres.DESACTIVADO) {
+            return;
+        }
+
+        long inicio = System.currentTimeMillis();
+        long cargados = 0;
+        try (Stream<NombreProducto> nombres = productoRepository.streamNombres()) {
+            for (NombreProducto nombre : (Iterable<NombreProducto>) nombres::iterator) {
+                indiceNombres.cargar(nombre.getId(), nombre.getNombre());
+                cargados++;
+            }
+        }
+
+        indiceNombres.cargaCompletada();
+        log.info("Índice de nombres cargado: {} productos en {} ms", cargados, System.currentTimeMillis() - inicio);
+    }
+}
@@ -0,0 +1,129 @@
+package com.linktic.productos_service.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Índice de prefijos en memoria: cada nombre se guarda, normalizado (minúsculas, sin tildes), desde el
+ * inicio de cada una de sus palabras en un mapa ordenado concurrente. Una búsqueda por prefijo es un
+ * recorrido de rango sobre ese mapa, equivalente a descender por un trie pero sin un nodo por carácter.
+ * Las lecturas no bloquean; las escrituras se serializan.
+ * Mientras dura la carga inicial se recuerdan los IDs cambiados tras un commit: la carga lee una
+ * instantánea anterior y no debe devolver un nombre viejo ni un producto ya eliminado.
+ */
+public class IndiceNombresEnMemoria implements IndiceNombres {
+
+    private static final char SEPARADOR = '\u0000';
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+    private final ConcurrentSkipListMap<String, Long> claves = new ConcurrentSkipListMap<>();
+    private final Map<Long, String> nombres = new ConcurrentHashMap<>();
+    private final Set<Long> cambiadosDuranteCarga = new HashSet<>();
+    private volatile boolean cargado;
+
+    @Override
+    public synchronized void indexar(Long id, String nombre) {
+        registrarCambio(id);
+        reemplazar(id, nombre);
+    }
+
+    @Override
+    public synchronized void cargar(Long id, String nombre) {
+        if (!cambiadosDuranteCarga.contains(id)) {
+            reemplazar(id, nombre);
+        }
+    }
+
+    private void reemplazar(Long id, String nombre) {
+        String anterior = nombres.put(id, nombre);
+        if (anterior != null) {
+            quitarClaves(id, anterior);
+        }
+        for (String sufijo : sufijosDePalabra(nombre)) {
+            claves.put(sufijo + SEPARADOR + id, id);
+        }
+    }
+
+    @Override
+    public synchronized void eliminar(Long id) {
+        registrarCambio(id);
+        String anterior = nombres.remove(id);
+        if (anterior != null) {
+            quitarClaves(id, anterior);
+        }
+    }
+
+    @Override
+    public Optional<List<Sugerencia>> sugerir(String prefijo, int limite) {
+        if (!cargado) {
+            return Optional.empty();
+        }
+
+        String desde = normalizar(prefijo);
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Long id : claves.subMap(desde, true, desde + Character.MAX_VALUE, false).values()) {
+            if (ids.add(id) && ids.size() == limite) {
+                break;
+            }
+        }
+
+        List<Sugerencia> sugerencias = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            String nombre = nombres.get(id);
+            if (nombre != null) {
+                sugerencias.add(new Sugerencia(id, nombre));
+            }
+        }
+        return Optional.of(sugerencias);
+    }
+
+    @Override
+    public synchronized void cargaCompletada() {
+        cargado = true;
+        cambiadosDuranteCarga.clear();
+    }
+
+    public int tamanio() {
+        return nombres.size();
+    }
+
+    private void registrarCambio(Long id) {
+        if (!cargado) {
+            cambiadosDuranteCarga.add(id);
+        }
+    }
+
+    private void quitarClaves(Long id, String nombre) {
+        for (String sufijo : sufijosDePalabra(nombre)) {
+            claves.remove(sufijo + SEPARADOR + id);
+        }
+    }
+
+    private static List<String> sufijosDePalabra(String nombre) {
+        String normalizado = normalizar(nombre);
+        List<String> sufijos = new ArrayList<>();
+        for (int i = 0; i < normalizado.length(); i++) {
+            boolean iniciaPalabra = Character.isLetterOrDigit(normalizado.charAt(i))
+                    && (i == 0 || !Character.isLetterOrDigit(normalizado.charAt(i - 1)));
+            if (iniciaPalabra) {
+                sufijos.add(normalizado.substring(i));
+            }
+        }
+        return sufijos;
+    }
+
+    static String normalizar(String texto) {
+        String sinTildes = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return sinTildes.toLowerCase(Locale.ROOT).strip();
+    }
+}
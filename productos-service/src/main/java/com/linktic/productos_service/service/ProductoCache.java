@@ -0,0 +1,102 @@
+package com.linktic.productos_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.linktic.productos_service.dto.ProductoResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché cache-aside de respuestas de producto por ID.
+ * Acotada por tamaño y con expiración desde la escritura, que también limita cuánto puede
+ * durar una entrada cargada en paralelo con una actualización.
+ * Las métricas se publican como cache_gets, cache_puts, cache_evictions y cache_size con tag cache=productos.
+ */
+@Component
+@Slf4j
+public class ProductoCache {
+
+    static final String NOMBRE = "productos";
+
+    private final Cache<Long, ProductoResponse> cache;
+    /** Se incrementa en cada invalidación, antes de quitar la entrada. */
+    private final AtomicLong generacion = new AtomicLong();
+
+    public ProductoCache(@Value("${productos.cache.ttl:5m}") Duration ttl,
+                         @Value("${productos.cache.max-size:10000}") long maxSize,
+                         MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NOMBRE);
+        log.info("Caché de productos configurada: ttl={}, maxSize={}", ttl, maxSize);
+    }
+
+    public ProductoResponse obtener(Long id) {
+        return cache.getIfPresent(id);
+    }
+
+    public void guardar(ProductoResponse producto) {
+        cache.put(producto.getId(), producto);
+    }
+
+    /**
+     * Generación a leer antes de cargar un producto de la base de datos, para pasarla luego a
+     * {@link #guardar(ProductoResponse, long)}.
+     */
+    public long generacion() {
+        return generacion.get();
+    }
+
+    /**
+     * Guarda un producto cargado después de leer {@code generacionLeida}. Si desde entonces hubo alguna
+     * invalidación, la lectura pudo ser anterior a ese commit y la entrada se descarta: sin esto un valor
+     * obsoleto quedaría en caché hasta que expire. Se comprueba después de escribir, porque la
+     * invalidación puede llegar entre la comprobación y la escritura. La generación es global: una
+     * invalidación de otro producto solo cuesta un fallo más.
+     */
+    public void guardar(ProductoResponse producto, long generacionLeida) {
+        cache.put(producto.getId(), producto);
+        if (generacion.get() != generacionLeida) {
+            cache.invalidate(producto.getId());
+        }
+    }
+
+    /**
+     * Invalida la entrada cuando la transacción actual confirma; si no hay transacción, de inmediato.
+     * Invalidar antes del commit dejaría que una lectura concurrente volviera a cargar el valor anterior.
+     */
+    public void invalidarTrasCommit(Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidar(id);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidar(id);
+            }
+        });
+    }
+
+    private void invalidar(Long id) {
+        generacion.incrementAndGet();
+        cache.invalidate(id);
+    }
+
+    public long tamanio() {
+        return cache.estimatedSize();
+    }
+}
@@ -1,17 +1,61 @@
 package com.linktic.productos_service.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.linktic.productos_service.dto.ActualizacionPreciosRequest;
+import com.linktic.productos_service.dto.EstadoCatalogo;
+import com.linktic.productos_service.dto.JsonApiError;
+import com.linktic.productos_service.dto.PaginaBusqueda;
+import com.linktic.productos_service.dto.PrecioActualizado;
+import com.linktic.productos_service.dto.ProductoBusqueda;
+import com.linktic.productos_service.dto.ProductoFila;
+import com.linktic.productos_service.dto.ProductoLoteResultado;
 import com.linktic.productos_service.dto.ProductoRequest;
 import com.linktic.productos_service.dto.ProductoResponse;
 import com.linktic.productos_service.exception.DuplicateProductException;
 import com.linktic.productos_service.exception.ProductoNotFoundException;
 import com.linktic.productos_service.model.Producto;
+import com.linktic.productos_service.model.ProductoCambiadoEvent;
 import com.linktic.productos_service.repository.ProductoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -19,38 +63,244 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class ProductoService {
 
+    public static final int MAX_IDS_POR_CONSULTA = 100;
+    public static final int MAX_PRODUCTOS_POR_LOTE = 5000;
+    public static final int MAX_RESULTADOS_BUSQUEDA = 100;
+    static final int MIN_LONGITUD_BUSQUEDA = 2;
+    /** Máximo representable por la columna precio NUMERIC(10,2). */
+    static final BigDecimal PRECIO_MAXIMO = new BigDecimal("99999999.99");
+    static final BigDecimal PRECIO_MINIMO = new BigDecimal("0.01");
+    /** Un ajuste de -100 % o menos dejaría precios nulos o negativos. */
+    static final BigDecimal PORCENTAJE_MINIMO = new BigDecimal("-100");
+    static final BigDecimal PORCENTAJE_MAXIMO = new BigDecimal("1000");
+
     private final ProductoRepository productoRepository;
+    private final SingleFlight<Long, ProductoResponse> productoPorIdSingleFlight;
+    private final ProductoCache productoCache;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final IndiceNombres indiceNombres;
+    private final ApplicationEventPublisher eventPublisher;
 
+    /**
+     * Sin consulta previa: el índice único de nombre rechaza el duplicado, incluso entre altas concurrentes.
+     */
     public ProductoResponse crear(ProductoRequest request) {
         log.debug("Creando producto: {}", request.getNombre());
 
-        if (productoRepository.existsByNombre(request.getNombre())) {
-            throw new DuplicateProductException(
-                    "Ya existe un producto con el nombre: " + request.getNombre()
-            );
-        }
-
-        Producto producto = Producto.builder()
+        Producto nuevo = Producto.builder()
                 .nombre(request.getNombre())
                 .precio(request.getPrecio())
                 .build();
 
-        producto = productoRepository.save(producto);
+        Producto producto = conNombreUnico(() -> productoRepository.saveAndFlush(nuevo),
+                "Ya existe un producto con el nombre: " + request.getNombre());
+        indexarTrasCommit(producto);
         log.info("Producto creado con ID: {}", producto.getId());
 
         return mapToResponse(producto);
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Alta masiva: valida cada elemento, resuelve los duplicados (contra la base y dentro de la propia
+     * petición) con una sola consulta y guarda el resto en lotes JDBC. Retorna un resultado por elemento,
+     * en el mismo orden de la petición.
+     */
+    public List<ProductoLoteResultado> crearLote(List<ProductoRequest> requests) {
+        log.debug("Creando lote de {} productos", requests.size());
+
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("El lote debe incluir al menos un producto");
+        }
+        if (requests.size() > MAX_PRODUCTOS_POR_LOTE) {
+            throw new IllegalArgumentException(
+                    "No se pueden crear más de " + MAX_PRODUCTOS_POR_LOTE + " productos por petición"
+            );
+        }
+
+        ProductoLoteResultado[] resultados = new ProductoLoteResultado[requests.size()];
+        Map<String, Integer> primerIndicePorNombre = new LinkedHashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            ProductoRequest request = requests.get(i);
+            String invalido = validar(request);
+
+            if (invalido != null) {
+                resultados[i] = errorLote(i, ProductoLoteResultado.Estado.INVALIDO,
+                        "400", "VALIDATION_ERROR", "Error de validación", invalido);
+            } else {
+                Integer previo = primerIndicePorNombre.putIfAbsent(request.getNombre(), i);
+                if (previo != null) {
+                    resultados[i] = errorLote(i, ProductoLoteResultado.Estado.DUPLICADO,
+                            "409", "DUPLICATE_PRODUCT", "Producto duplicado",
+                            "Nombre repetido en la petición (índice " + previo + "): " + request.getNombre());
+                }
+            }
+        }
+
+        Set<String> existentes = primerIndicePorNombre.isEmpty()
+                ? Set.of()
+                : productoRepository.findNombresExistentes(primerIndicePorNombre.keySet());
+
+        List<Integer> indicesNuevos = new ArrayList<>();
+        List<Producto> nuevos = new ArrayList<>();
+
+        primerIndicePorNombre.forEach((nombre, i) -> {
+            if (existentes.contains(nombre)) {
+                resultados[i] = errorLote(i, ProductoLoteResultado.Estado.DUPLICADO,
+                        "409", "DUPLICATE_PRODUCT", "Producto duplicado",
+                        "Ya existe un producto con el nombre: " + nombre);
+            } else {
+                indicesNuevos.add(i);
+                nuevos.add(Producto.builder()
+                        .nombre(nombre)
+                        .precio(requests.get(i).getPrecio())
+                        .build());
+            }
+        });
+
+        // Otra alta concurrente pudo insertar alguno de los nombres después de la consulta
+        List<Producto> guardados = conNombreUnico(() -> productoRepository.saveAllAndFlush(nuevos),
+                "Otra petición creó simultáneamente alguno de los nombres del lote; reintente el lote");
+        guardados.forEach(this::indexarTrasCommit);
+        for (int j = 0; j < guardados.size(); j++) {
+            int i = indicesNuevos.get(j);
+            resultados[i] = ProductoLoteResultado.builder()
+                    .indice(i)
+                    .estado(ProductoLoteResultado.Estado.CREADO)
+                    .producto(mapToResponse(guardados.get(j)))
+                    .build();
+        }
+
+        log.info("Lote de productos procesado - recibidos: {}, creados: {}, descartados: {}",
+                requests.size(), guardados.size(), requests.size() - guardados.size());
+
+        return Arrays.asList(resultados);
+    }
+
+    /**
+     * Cache-aside: en un fallo, las consultas concurrentes por el mismo ID comparten una sola lectura.
+     * Sin transacción propia: quienes esperan el resultado de otra consulta no retienen una conexión del pool.
+     * La lectura no se guarda si una actualización confirmó e invalidó la caché mientras se cargaba.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public ProductoResponse obtenerPorId(Long id) {
+        ProductoResponse enCache = productoCache.obtener(id);
+        if (enCache != null) {
+            return enCache;
+        }
+
         log.debug("Buscando producto con ID: {}", id);
 
-        Producto producto = productoRepository.findById(id)
-                .orElseThrow(() -> new ProductoNotFoundException(
-                        "Producto no encontrado con ID: " + id
-                ));
+        return productoPorIdSingleFlight.ejecutar(id, () -> {
+            long generacion = productoCache.generacion();
+            Producto producto = productoRepository.findById(id)
+                    .orElseThrow(() -> new ProductoNotFoundException(
+                            "Producto no encontrado con ID: " + id
+                    ));
 
-        return mapToResponse(producto);
+            ProductoResponse response = mapToResponse(producto);
+            productoCache.guardar(response, generacion);
+            return response;
+        });
+    }
+
+    /**
+     * Búsqueda exacta por nombre sobre el índice único; retorna una lista vacía o de un elemento.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductoResponse> buscarPorNombre(String nombre) {
+        log.debug("Buscando producto por nombre: {}", nombre);
+
+        return productoRepository.findByNombre(nombre)
+                .map(this::mapToResponse)
+                .stream()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Búsqueda por prefijo y con tolerancia a errores sobre el nombre, ordenada por similitud.
+     * {@code despuesDe} es el cursor devuelto por la página anterior (null para la primera).
+     */
+    @Transactional(readOnly = true)
+    public PaginaBusqueda buscar(String q, String despuesDe, int size) {
+        String termino = validarBusqueda(q, size);
+        log.debug("Buscando productos por nombre similar a: {}", termino);
+
+        float puntuacion = 2f;
+        long ultimoId = 0L;
+        if (despuesDe != null) {
+            String[] partes = despuesDe.split(":", 2);
+            try {
+                puntuacion = Float.parseFloat(partes[0]);
+                ultimoId = Long.parseLong(partes[1]);
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Cursor de búsqueda inválido: " + despuesDe);
+            }
+        }
+
+        List<ProductoBusqueda> filas = productoRepository.buscarSimilares(
+                termino, escaparLike(termino) + "%", puntuacion, ultimoId, size + 1);
+        boolean haySiguiente = filas.size() > size;
+        List<ProductoBusqueda> pagina = haySiguiente ? filas.subList(0, size) : filas;
+
+        Map<Long, Producto> porId = productoRepository.findAllById(pagina.stream()
+                        .map(ProductoBusqueda::getId)
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Producto::getId, p -> p));
+
+        List<ProductoResponse> productos = pagina.stream()
+                .map(fila -> porId.get(fila.getId()))
+                .filter(Objects::nonNull)
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+
+        String siguiente = null;
+        if (haySiguiente) {
+            ProductoBusqueda ultima = pagina.get(pagina.size() - 1);
+            siguiente = ultima.getPuntuacion() + ":" + ultima.getId();
+        }
+
+        return new PaginaBusqueda(productos, siguiente);
+    }
+
+    /**
+     * Autocompletado por prefijo de palabra desde el índice en memoria; si no está disponible, desde la base.
+     * Solo retorna ID y nombre.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductoResponse> autocompletar(String prefijo, int size) {
+        String termino = validarBusqueda(prefijo, size);
+
+        Optional<List<IndiceNombres.Sugerencia>> enMemoria = indiceNombres.sugerir(termino, size);
+        if (enMemoria.isPresent()) {
+            return enMemoria.get().stream()
+                    .map(s -> soloNombre(s.id(), s.nombre()))
+                    .collect(Collectors.toList());
+        }
+
+        log.debug("Índice de nombres no disponible, autocompletando desde la base de datos");
+        return buscar(termino, null, size).productos().stream()
+                .map(p -> soloNombre(p.getId(), p.getAttributes().getNombre()))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductoResponse> obtenerPorIds(Collection<Long> ids) {
+        log.debug("Buscando {} productos por ID", ids.size());
+
+        if (ids.size() > MAX_IDS_POR_CONSULTA) {
+            throw new IllegalArgumentException(
+                    "No se pueden consultar más de " + MAX_IDS_POR_CONSULTA + " productos por petición"
+            );
+        }
+
+        return productoRepository.findAllById(ids)
+                .stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
     }
 
     public ProductoResponse actualizar(Long id, ProductoRequest request) {
@@ -64,12 +314,52 @@ public class ProductoService {
         producto.setNombre(request.getNombre());
         producto.setPrecio(request.getPrecio());
 
-        producto = productoRepository.save(producto);
+        Producto modificado = producto;
+        producto = conNombreUnico(() -> productoRepository.saveAndFlush(modificado),
+                "Ya existe un producto con el nombre: " + request.getNombre());
+        productoCache.invalidarTrasCommit(id);
+        indexarTrasCommit(producto);
+        eventPublisher.publishEvent(new ProductoCambiadoEvent(
+                id, producto.getPrecio(), "ACTUALIZACION", LocalDateTime.now()));
         log.info("Producto actualizado: {}", producto.getId());
 
         return mapToResponse(producto);
     }
 
+    /**
+     * Actualización masiva de precios en una sola sentencia UPDATE, sin cargar las entidades.
+     * Retorna las filas realmente modificadas: los IDs inexistentes (o cuyo ajuste desbordaría el
+     * precio máximo) no aparecen. Por cada fila invalida la caché y publica un ProductoCambiadoEvent.
+     */
+    public List<PrecioActualizado> actualizarPrecios(ActualizacionPreciosRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("La petición de precios es obligatoria");
+        }
+
+        boolean porPorcentaje = request.getPorcentaje() != null || request.getIds() != null;
+        boolean porLista = request.getPrecios() != null;
+        if (porPorcentaje == porLista) {
+            throw new IllegalArgumentException(
+                    "Indique 'ids' y 'porcentaje', o bien 'precios', pero no ambos"
+            );
+        }
+
+        List<PrecioActualizado> actualizados = porPorcentaje
+                ? ajustarPrecios(request.getIds(), request.getPorcentaje())
+                : fijarPrecios(request.getPrecios());
+
+        LocalDateTime ahora = LocalDateTime.now();
+        String operacion = porPorcentaje ? "AJUSTE_PRECIO" : "CAMBIO_PRECIO";
+        for (PrecioActualizado actualizado : actualizados) {
+            productoCache.invalidarTrasCommit(actualizado.getId());
+            eventPublisher.publishEvent(new ProductoCambiadoEvent(
+                    actualizado.getId(), actualizado.getPrecio(), operacion, ahora));
+        }
+
+        log.info("Precios actualizados en bloque - operación: {}, actualizados: {}", operacion, actualizados.size());
+        return actualizados;
+    }
+
     public void eliminar(Long id) {
         log.debug("Eliminando producto con ID: {}", id);
 
@@ -80,16 +370,249 @@ public class ProductoService {
         }
 
         productoRepository.deleteById(id);
+        productoCache.invalidarTrasCommit(id);
+        trasCommit(() -> indiceNombres.eliminar(id));
+        eventPublisher.publishEvent(new ProductoCambiadoEvent(id, null, "ELIMINACION", LocalDateTime.now()));
         log.info("Producto eliminado: {}", id);
     }
 
+    /**
+     * Los listados se leen como proyección (ProductoFila): no cargan entidades en el contexto de persistencia.
+     */
     @Transactional(readOnly = true)
     public Page<ProductoResponse> listarTodos(Pageable pageable) {
         log.debug("Listando productos - página: {}, tamaño: {}",
                 pageable.getPageNumber(), pageable.getPageSize());
 
-        return productoRepository.findAll(pageable)
-                .map(this::mapToResponse);
+        return productoRepository.listarFilas(pageable)
+                .map(ProductoService::mapToResponse);
+    }
+
+    /**
+     * Productos con precio dentro del rango; los extremos nulos quedan abiertos.
+     */
+    @Transactional(readOnly = true)
+    public Page<ProductoResponse> listarPorRangoPrecio(BigDecimal minimo, BigDecimal maximo, Pageable pageable) {
+        log.debug("Listando productos con precio entre {} y {} - página: {}",
+                minimo, maximo, pageable.getPageNumber());
+
+        BigDecimal desde = minimo != null ? minimo : BigDecimal.ZERO;
+        BigDecimal hasta = maximo != null ? maximo : PRECIO_MAXIMO;
+        if (desde.compareTo(hasta) > 0) {
+            throw new IllegalArgumentException(
+                    "filter[precio][gte] no puede ser mayor que filter[precio][lte]"
+            );
+        }
+
+        return productoRepository.listarFilasPorPrecio(desde, hasta, pageable)
+                .map(ProductoService::mapToResponse);
+    }
+
+    /**
+     * Última modificación y total de productos, sin leer ninguna página: base del ETag del listado.
+     */
+    @Transactional(readOnly = true)
+    public EstadoCatalogo obtenerEstadoCatalogo() {
+        return productoRepository.obtenerEstadoCatalogo();
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<ProductoResponse> listarDespuesDe(Long afterId, int size) {
+        log.debug("Listando productos por cursor - después de ID: {}, tamaño: {}", afterId, size);
+
+        return productoRepository.listarFilasDespuesDe(afterId, PageRequest.of(0, size))
+                .map(ProductoService::mapToResponse);
+    }
+
+    /**
+     * Escribe el catálogo completo como NDJSON (un recurso por línea, en orden de ID) y retorna cuántos
+     * productos se exportaron. Las filas llegan por el cursor del repositorio y cada entidad se desvincula
+     * tras escribirse, de modo que la memoria no crece con el tamaño del catálogo.
+     */
+    @Transactional(readOnly = true)
+    public long exportar(OutputStream salida) throws IOException {
+        log.debug("Exportando catálogo de productos como NDJSON");
+
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(salida);
+        generator.setRootValueSeparator(null);
+
+        long exportados = 0;
+        try (Stream<Producto> productos = productoRepository.streamAllByOrderByIdAsc()) {
+            Iterator<Producto> iterator = productos.iterator();
+            while (iterator.hasNext()) {
+                Producto producto = iterator.next();
+                writer.writeValue(generator, mapToResponse(producto));
+                generator.writeRaw('\n');
+                entityManager.detach(producto);
+                exportados++;
+            }
+        }
+        generator.flush();
+
+        log.info("Catálogo exportado: {} productos", exportados);
+        return exportados;
+    }
+
+    /**
+     * Traduce la violación del índice único de nombre a DuplicateProductException. El guardado hace flush
+     * para que la violación aparezca aquí y no al confirmar la transacción.
+     */
+    private <T> T conNombreUnico(Supplier<T> guardado, String mensaje) {
+        try {
+            return guardado.get();
+        } catch (DataIntegrityViolationException ex) {
+            if (violaNombreUnico(ex)) {
+                throw new DuplicateProductException(mensaje);
+            }
+            throw ex;
+        }
+    }
+
+    private static boolean violaNombreUnico(Throwable ex) {
+        for (Throwable causa = ex; causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConstraintViolationException violacion
+                    && violacion.getConstraintName() != null
+                    && violacion.getConstraintName().toLowerCase(Locale.ROOT).contains(Producto.UK_NOMBRE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void indexarTrasCommit(Producto producto) {
+        Long id = producto.getId();
+        String nombre = producto.getNombre();
+        trasCommit(() -> indiceNombres.indexar(id, nombre));
+    }
+
+    private static void trasCommit(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+
+    private List<PrecioActualizado> ajustarPrecios(List<Long> ids, BigDecimal porcentaje) {
+        if (porcentaje == null || porcentaje.compareTo(PORCENTAJE_MINIMO) <= 0
+                || porcentaje.compareTo(PORCENTAJE_MAXIMO) > 0) {
+            throw new IllegalArgumentException(
+                    "El porcentaje debe ser mayor que " + PORCENTAJE_MINIMO + " y como máximo " + PORCENTAJE_MAXIMO
+            );
+        }
+        Set<Long> unicos = idsDeLote(ids);
+
+        log.debug("Ajustando en {}% el precio de {} productos", porcentaje, unicos.size());
+        BigDecimal factor = BigDecimal.ONE.add(porcentaje.movePointLeft(2));
+        return productoRepository.ajustarPrecios(unicos, factor);
+    }
+
+    private List<PrecioActualizado> fijarPrecios(List<ActualizacionPreciosRequest.PrecioProducto> precios) {
+        Set<Long> unicos = idsDeLote(precios.stream()
+                .map(p -> p == null ? null : p.getId())
+                .collect(Collectors.toList()));
+        if (unicos.size() < precios.size()) {
+            throw new IllegalArgumentException("Cada producto puede aparecer una sola vez en 'precios'");
+        }
+        for (ActualizacionPreciosRequest.PrecioProducto p : precios) {
+            if (p.getPrecio() == null || p.getPrecio().compareTo(PRECIO_MINIMO) < 0
+                    || p.getPrecio().compareTo(PRECIO_MAXIMO) > 0) {
+                throw new IllegalArgumentException(
+                        "El precio del producto " + p.getId() + " debe estar entre " + PRECIO_MINIMO
+                                + " y " + PRECIO_MAXIMO
+                );
+            }
+        }
+
+        log.debug("Fijando el precio de {} productos", precios.size());
+        return productoRepository.fijarPrecios(
+                precios.stream()
+                        .map(p -> p.getId().toString())
+                        .collect(Collectors.joining(",", "{", "}")),
+                precios.stream()
+                        .map(p -> p.getPrecio().toPlainString())
+                        .collect(Collectors.joining(",", "{", "}")));
+    }
+
+    private static Set<Long> idsDeLote(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("La actualización de precios debe incluir al menos un producto");
+        }
+        if (ids.size() > MAX_PRODUCTOS_POR_LOTE) {
+            throw new IllegalArgumentException(
+                    "No se pueden actualizar más de " + MAX_PRODUCTOS_POR_LOTE + " productos por petición"
+            );
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Todos los productos deben indicar su ID");
+        }
+        return new LinkedHashSet<>(ids);
+    }
+
+    private static String validarBusqueda(String q, int size) {
+        String termino = q == null ? "" : q.strip().toLowerCase(Locale.ROOT);
+        if (termino.length() < MIN_LONGITUD_BUSQUEDA) {
+            throw new IllegalArgumentException(
+                    "La búsqueda requiere al menos " + MIN_LONGITUD_BUSQUEDA + " caracteres"
+            );
+        }
+        if (size < 1 || size > MAX_RESULTADOS_BUSQUEDA) {
+            throw new IllegalArgumentException(
+                    "El tamaño de página de búsqueda debe estar entre 1 y " + MAX_RESULTADOS_BUSQUEDA
+            );
+        }
+        return termino;
+    }
+
+    private static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    private static ProductoResponse soloNombre(Long id, String nombre) {
+        return ProductoResponse.builder()
+                .type("productos")
+                .id(id)
+                .attributes(ProductoResponse.Attributes.builder()
+                        .nombre(nombre)
+                        .build())
+                .build();
+    }
+
+    private String validar(ProductoRequest request) {
+        if (request == null) {
+            return "El elemento es nulo";
+        }
+
+        Set<ConstraintViolation<ProductoRequest>> violaciones = validator.validate(request);
+        if (violaciones.isEmpty()) {
+            return null;
+        }
+        return violaciones.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private ProductoLoteResultado errorLote(int indice, ProductoLoteResultado.Estado estado,
+                                            String status, String code, String title, String detail) {
+        return ProductoLoteResultado.builder()
+                .indice(indice)
+                .estado(estado)
+                .error(JsonApiError.builder()
+                        .status(status)
+                        .code(code)
+                        .title(title)
+                        .detail(detail)
+                        .build())
+                .build();
     }
 
     private ProductoResponse mapToResponse(Producto producto) {
@@ -104,4 +627,9 @@ public class ProductoService {
                         .build())
                 .build();
     }
-}
\ No newline at end of file
+
+    private static ProductoResponse mapToResponse(ProductoFila fila) {
+        return new ProductoResponse("productos", fila.id(), new ProductoResponse.Attributes(
+                fila.nombre(), fila.precio(), fila.createdAt(), fila.updatedAt()));
+    }
+}
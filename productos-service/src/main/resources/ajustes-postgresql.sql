@@ -0,0 +1,12 @@
+-- Ajustes de esquema que ddl-auto no sabe aplicar. Lo ejecuta EsquemaPostgresConfig, solo sobre PostgreSQL
+-- y después de que Hibernate actualiza el esquema.
+
+-- Tablas creadas cuando el ID era IDENTITY: la secuencia nueva arranca detrás del MAX(id)
+SELECT setval('productos_seq', t.maximo) FROM (SELECT MAX(id) AS maximo FROM productos) t
+WHERE t.maximo >= (SELECT last_value FROM productos_seq);
+
+-- Búsqueda por prefijo (LIKE) y por similitud (<%) sobre el nombre en minúsculas
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_productos_nombre_trgm
+    ON productos USING gin (lower(nombre) gin_trgm_ops);
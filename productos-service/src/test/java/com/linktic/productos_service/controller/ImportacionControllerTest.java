@@ -0,0 +1,77 @@
+package com.linktic.productos_service.controller;
+
+import com.linktic.productos_service.dto.ImportacionResponse;
+import com.linktic.productos_service.exception.ImportacionNotFoundException;
+import com.linktic.productos_service.service.ImportacionJob;
+import com.linktic.productos_service.service.ImportacionProductosService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ImportacionController.class)
+@Import(com.linktic.productos_service.config.SecurityConfig.class)
+class ImportacionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ImportacionProductosService importacionService;
+
+    @Test
+    @DisplayName("POST /api/v1/productos/import - NDJSON => 201 con Location de la importación")
+    @WithMockUser
+    void importarProductos_DeberiaRetornar201() throws Exception {
+        // Given
+        when(importacionService.importar(eq("abc"), any(InputStream.class), eq(ImportacionJob.Formato.NDJSON)))
+                .thenReturn(ImportacionResponse.builder()
+                        .type("importaciones")
+                        .id("abc")
+                        .attributes(ImportacionResponse.Attributes.builder()
+                                .estado("COMPLETADA")
+                                .procesadas(1)
+                                .creadas(1)
+                                .build())
+                        .build());
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/productos/import")
+                        .header("X-API-Key", "test-key")
+                        .header("X-Importacion-Id", "abc")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"nombre\":\"Laptop\",\"precio\":1500.00}\n"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "/api/v1/productos/import/abc"))
+                .andExpect(jsonPath("$.data.type").value("importaciones"))
+                .andExpect(jsonPath("$.data.attributes.creadas").value(1));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/productos/import/{id} - Importación desconocida => 404")
+    @WithMockUser
+    void obtenerImportacion_Inexistente_DeberiaRetornar404() throws Exception {
+        // Given
+        when(importacionService.obtener("no-existe"))
+                .thenThrow(new ImportacionNotFoundException("Importación no encontrada con ID: no-existe"));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/productos/import/no-existe")
+                        .header("X-API-Key", "test-key"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errors[0].code").value("IMPORT_NOT_FOUND"));
+    }
+}
@@ -1,7 +1,13 @@
 package com.linktic.productos_service.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.linktic.productos_service.dto.ActualizacionPreciosRequest;
+import com.linktic.productos_service.dto.EstadoCatalogo;
 import com.linktic.productos_service.dto.JsonApiDocument;
+import com.linktic.productos_service.dto.JsonApiError;
+import com.linktic.productos_service.dto.PaginaBusqueda;
+import com.linktic.productos_service.dto.PrecioActualizado;
+import com.linktic.productos_service.dto.ProductoLoteResultado;
 import com.linktic.productos_service.dto.ProductoRequest;
 import com.linktic.productos_service.dto.ProductoResponse;
 import com.linktic.productos_service.exception.ProductoNotFoundException;
@@ -16,14 +22,30 @@ import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -51,6 +73,7 @@ class ProductoControllerTest {
                 .attributes(ProductoResponse.Attributes.builder()
                         .nombre("Laptop Dell XPS")
                         .precio(new BigDecimal("1500.00"))
+                        .updatedAt(LocalDateTime.of(2025, 1, 15, 10, 30))
                         .build())
                 .build();
     }
@@ -85,6 +108,163 @@ class ProductoControllerTest {
         verify(productoService).crear(any(ProductoRequest.class));
     }
 
+    @Test
+    @DisplayName("POST /api/v1/productos/bulk - Resultado por elemento y conteos en meta")
+    @WithMockUser
+    void crearProductosEnLote_DeberiaRetornarResultadosYMeta() throws Exception {
+        // Given
+        String body = "{\"data\":[{\"nombre\":\"Laptop Dell XPS\",\"precio\":1500.00}," +
+                "{\"nombre\":\"Laptop Dell XPS\",\"precio\":1400.00}]}";
+
+        when(productoService.crearLote(anyList())).thenReturn(List.of(
+                ProductoLoteResultado.builder()
+                        .indice(0)
+                        .estado(ProductoLoteResultado.Estado.CREADO)
+                        .producto(productoResponse)
+                        .build(),
+                ProductoLoteResultado.builder()
+                        .indice(1)
+                        .estado(ProductoLoteResultado.Estado.DUPLICADO)
+                        .error(JsonApiError.builder().status("409").code("DUPLICATE_PRODUCT").build())
+                        .build()));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/productos/bulk")
+                        .header("X-API-Key", "test-key")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].estado").value("CREADO"))
+                .andExpect(jsonPath("$.data[0].producto.id").value(1))
+                .andExpect(jsonPath("$.data[0].error").doesNotExist())
+                .andExpect(jsonPath("$.data[1].estado").value("DUPLICADO"))
+                .andExpect(jsonPath("$.data[1].error.code").value("DUPLICATE_PRODUCT"))
+                .andExpect(jsonPath("$.meta.total").value(2))
+                .andExpect(jsonPath("$.meta.creados").value(1))
+                .andExpect(jsonPath("$.meta.duplicados").value(1))
+                .andExpect(jsonPath("$.meta.invalidos").value(0));
+
+        verify(productoService).crearLote(argThat(lote -> lote.size() == 2
+                && lote.get(1).getPrecio().compareTo(new BigDecimal("1400.00")) == 0));
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/productos/bulk/precios - Precios nuevos por producto y conteo en meta")
+    @WithMockUser
+    void actualizarPreciosEnLote_DeberiaRetornarPreciosActualizados() throws Exception {
+        // Given
+        String body = "{\"data\":{\"ids\":[1,2],\"porcentaje\":-10}}";
+        PrecioActualizado actualizado = mock(PrecioActualizado.class);
+        when(actualizado.getId()).thenReturn(1L);
+        when(actualizado.getPrecio()).thenReturn(new BigDecimal("1350.00"));
+        when(productoService.actualizarPrecios(any(ActualizacionPreciosRequest.class)))
+                .thenReturn(List.of(actualizado));
+
+        // When & Then
+        mockMvc.perform(patch("/api/v1/productos/bulk/precios")
+                        .header("X-API-Key", "test-key")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].id").value(1))
+                .andExpect(jsonPath("$.data[0].attributes.precio").value(1350.00))
+                .andExpect(jsonPath("$.data[0].attributes.nombre").doesNotExist())
+                .andExpect(jsonPath("$.meta.actualizados").value(1));
+
+        verify(productoService).actualizarPrecios(argThat(r -> r.getIds().equals(List.of(1L, 2L))
+                && r.getPorcentaje().compareTo(new BigDecimal("-10")) == 0));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/productos/export - NDJSON en streaming, comprimido si se acepta gzip")
+    @WithMockUser
+    void exportarProductos_ConGzip_DeberiaComprimir() throws Exception {
+        // Given
+        String linea = "{\"type\":\"productos\",\"id\":1}\n";
+        when(productoService.exportar(any(OutputStream.class))).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write(linea.getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        // When
+        MvcResult resultado = mockMvc.perform(get("/api/v1/productos/export")
+                        .header("X-API-Key", "test-key")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        byte[] cuerpo = mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream descomprimido = new GZIPInputStream(new ByteArrayInputStream(cuerpo))) {
+            assertThat(new String(descomprimido.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(linea);
+        }
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/productos/export - Sin Accept-Encoding gzip responde sin comprimir")
+    @WithMockUser
+    void exportarProductos_SinGzip_DeberiaResponderPlano() throws Exception {
+        // Given
+        when(productoService.exportar(any(OutputStream.class))).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write("{}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        // When
+        MvcResult resultado = mockMvc.perform(get("/api/v1/productos/export")
+                        .header("X-API-Key", "test-key"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().string("{}\n"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/productos/search - Resultados por similitud con enlace al cursor siguiente")
+    @WithMockUser
+    void buscarProductos_DeberiaRetornarEnlaceSiguiente() throws Exception {
+        // Given
+        when(productoService.buscar("lap top", null, 1))
+                .thenReturn(new PaginaBusqueda(List.of(productoResponse), "0.75:1"));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/productos/search")
+                        .param("q", "lap top")
+                        .param("size", "1")
+                        .header("X-API-Key", "test-key"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].id").value(1))
+                .andExpect(jsonPath("$.meta.hasNext").value(true))
+                .andExpect(jsonPath("$.links.next").value("/api/v1/productos/search?q=lap%20top&page[after]=0.75:1&size=1"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/productos?filter[nombre] - Búsqueda exacta por nombre")
+    @WithMockUser
+    void buscarProductoPorNombre_DeberiaRetornarCoincidencia() throws Exception {
+        // Given
+        when(productoService.buscarPorNombre("Laptop Dell XPS")).thenReturn(List.of(productoResponse));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/productos")
+                        .param("filter[nombre]", "Laptop Dell XPS")
+                        .header("X-API-Key", "test-key"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].id").value(1))
+                .andExpect(jsonPath("$.meta.encontrados").value(1));
+
+        verify(productoService, never()).listarTodos(any());
+    }
+
     @Test
     @DisplayName("GET /api/v1/productos/{id} - Obtener producto")
     @WithMockUser
@@ -102,6 +282,60 @@ class ProductoControllerTest {
                 .andExpect(jsonPath("$.links.self").value("/api/v1/productos/1"));
     }
 
+    @Test
+    @DisplayName("GET /api/v1/productos/{id} - Con If-None-Match vigente => 304 sin cuerpo")
+    @WithMockUser
+    void obtenerProducto_ConETagVigente_DeberiaRetornar304() throws Exception {
+        // Given
+        when(productoService.obtenerPorId(1L)).thenReturn(productoResponse);
+
+        String etag = mockMvc.perform(get("/api/v1/productos/1")
+                        .header("X-API-Key", "test-key"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("W/\"1-")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/productos/1")
+                        .header("X-API-Key", "test-key")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/productos/{id} - Producto modificado => ETag distinto y 200")
+    @WithMockUser
+    void obtenerProducto_ConETagObsoleto_DeberiaRetornar200() throws Exception {
+        // Given
+        when(productoService.obtenerPorId(1L)).thenReturn(productoResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/productos/1")
+                        .header("X-API-Key", "test-key")
+                        .header("If-None-Match", "W/\"1-0\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.id").value(1));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/productos/{id}?fields[productos] - Solo los atributos pedidos")
+    @WithMockUser
+    void obtenerProducto_ConFieldset_DeberiaOmitirAtributos() throws Exception {
+        // Given
+        when(productoService.obtenerPorId(1L)).thenReturn(productoResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/productos/1")
+                        .header("X-API-Key", "test-key")
+                        .param("fields[productos]", "nombre"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.id").value(1))
+                .andExpect(jsonPath("$.data.attributes.nombre").value("Laptop Dell XPS"))
+                .andExpect(jsonPath("$.data.attributes.precio").doesNotExist())
+                .andExpect(jsonPath("$.data.attributes.created_at").doesNotExist());
+    }
+
     @Test
     @DisplayName("GET /api/v1/productos/{id} - Producto no encontrado")
     @WithMockUser
@@ -140,6 +374,7 @@ class ProductoControllerTest {
         // Given
         List<ProductoResponse> productos = List.of(productoResponse);
         Page<ProductoResponse> page = new PageImpl<>(productos, PageRequest.of(0, 10), 1);
+        when(productoService.obtenerEstadoCatalogo()).thenReturn(estadoCatalogo(1, LocalDateTime.now()));
 
         when(productoService.listarTodos(any(PageRequest.class))).thenReturn(page);
 
@@ -155,10 +390,163 @@ class ProductoControllerTest {
                 .andExpect(jsonPath("$.links.self").exists());
     }
 
+    @Test
+    @DisplayName("GET /api/v1/productos?filter[precio] - Rango de precio ordenado por (precio, id)")
+    @WithMockUser
+    void listarProductos_PorRangoPrecio_DeberiaOrdenarPorPrecioEId() throws Exception {
+        // Given
+        when(productoService.obtenerEstadoCatalogo()).thenReturn(estadoCatalogo(1, LocalDateTime.now()));
+        when(productoService.listarPorRangoPrecio(any(), any(), any(PageRequest.class)))
+                .thenReturn(new PageImpl<>(List.of(productoResponse), PageRequest.of(0, 10), 1));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/productos")
+                        .header("X-API-Key", "test-key")
+                        .param("filter[precio][gte]", "100")
+                        .param("filter[precio][lte]", "2000.50")
+                        .param("sort", "precio")
+                        .param("direction", "DESC"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].id").value(1))
+                .andExpect(jsonPath("$.links.self")
+                        .value("/api/v1/productos?page=0&size=10&filter[precio][gte]=100&filter[precio][lte]=2000.50"));
+
+        verify(productoService).listarPorRangoPrecio(
+                eq(new BigDecimal("100")),
+                eq(new BigDecimal("2000.50")),
+                eq(PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "precio").and(Sort.by(Sort.Direction.DESC, "id")))));
+        verify(productoService, never()).listarTodos(any());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/productos?sort=updatedAt - Columna sin índice => 400")
+    @WithMockUser
+    void listarProductos_OrdenSinIndice_DeberiaRetornar400() throws Exception {
+        mockMvc.perform(get("/api/v1/productos")
+                        .header("X-API-Key", "test-key")
+                        .param("sort", "updatedAt"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].code").value("BAD_REQUEST"));
+
+        verify(productoService, never()).listarTodos(any());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/productos - Catálogo sin cambios => 304 sin consultar la página")
+    @WithMockUser
+    void listarProductos_ConETagVigente_DeberiaRetornar304() throws Exception {
+        // Given
+        when(productoService.obtenerEstadoCatalogo())
+                .thenReturn(estadoCatalogo(3, LocalDateTime.of(2025, 1, 15, 10, 30)));
+        when(productoService.listarTodos(any(PageRequest.class)))
+                .thenReturn(new PageImpl<>(List.of(productoResponse), PageRequest.of(0, 10), 3));
+
+        String etag = mockMvc.perform(get("/api/v1/productos")
+                        .header("X-API-Key", "test-key"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"3-" + Long.toHexString(
+                        LocalDateTime.of(2025, 1, 15, 10, 30).toEpochSecond(ZoneOffset.UTC) * 1_000_000L) + "\""))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/productos")
+                        .header("X-API-Key", "test-key")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        verify(productoService, times(1)).listarTodos(any());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/productos?filter[id] - Obtener varios productos")
+    @WithMockUser
+    void obtenerProductosPorIds_DeberiaRetornarLista() throws Exception {
+        // Given
+        when(productoService.obtenerPorIds(anyCollection())).thenReturn(List.of(productoResponse));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/productos")
+                        .header("X-API-Key", "test-key")
+                        .param("filter[id]", "1,999"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].id").value(1))
+                .andExpect(jsonPath("$.meta.solicitados").value(2))
+                .andExpect(jsonPath("$.meta.encontrados").value(1));
+
+        verify(productoService).obtenerPorIds(Set.of(1L, 999L));
+        verify(productoService, never()).listarTodos(any());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/productos?page[after] - Listar productos por cursor")
+    @WithMockUser
+    void listarProductosPorCursor_DeberiaIncluirCursorEnNext() throws Exception {
+        // Given
+        Slice<ProductoResponse> slice = new SliceImpl<>(List.of(productoResponse), PageRequest.of(0, 1), true);
+        when(productoService.listarDespuesDe(0L, 1)).thenReturn(slice);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/productos")
+                        .header("X-API-Key", "test-key")
+                        .param("page[after]", "0")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].id").value(1))
+                .andExpect(jsonPath("$.meta.hasNext").value(true))
+                .andExpect(jsonPath("$.meta.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.links.next").value("/api/v1/productos?page[after]=1&size=1"));
+
+        verify(productoService, never()).listarTodos(any());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/productos?filter[nombre]&page[after] - Parámetros que no se combinan => 400")
+    @WithMockUser
+    void listarProductos_FiltroYCursor_DeberiaRetornar400() throws Exception {
+        mockMvc.perform(get("/api/v1/productos")
+                        .header("X-API-Key", "test-key")
+                        .param("filter[nombre]", "x")
+                        .param("page[after]", "5"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].detail")
+                        .value("Los parámetros filter[nombre], page[after] no se pueden combinar en la misma consulta"));
+
+        verifyNoInteractions(productoService);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/productos?page[after]&filter[precio][gte] - El cursor no admite filtro de precio => 400")
+    @WithMockUser
+    void listarProductos_CursorYPrecio_DeberiaRetornar400() throws Exception {
+        mockMvc.perform(get("/api/v1/productos")
+                        .header("X-API-Key", "test-key")
+                        .param("page[after]", "5")
+                        .param("filter[precio][gte]", "10"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].detail")
+                        .value("Los parámetros page[after], filter[precio] no se pueden combinar en la misma consulta"));
+
+        verifyNoInteractions(productoService);
+    }
+
     @Test
     @DisplayName("Request sin API Key debe retornar 403")
     void requestSinApiKey_DeberiaRetornar403() throws Exception {
         mockMvc.perform(get("/api/v1/productos"))
                 .andExpect(status().isForbidden());
     }
-}
\ No newline at end of file
+
+    private static EstadoCatalogo estadoCatalogo(long total, LocalDateTime ultimaActualizacion) {
+        return new EstadoCatalogo() {
+            @Override
+            public LocalDateTime getUltimaActualizacion() {
+                return ultimaActualizacion;
+            }
+
+            @Override
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+}
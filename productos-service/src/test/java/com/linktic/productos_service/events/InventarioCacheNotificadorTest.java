@@ -0,0 +1,103 @@
+package com.linktic.productos_service.events;
+
+import com.linktic.productos_service.model.ProductoCambiadoEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.web.client.MockRestServiceServer;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withNoContent;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServiceUnavailable;
+
+class InventarioCacheNotificadorTest {
+
+    private static final String URL = "http://inventario:8082/api/v1/cache/productos";
+
+    private SimpleMeterRegistry meterRegistry;
+    private MockRestServiceServer servidor;
+    private InventarioCacheNotificador notificador;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        MockServerRestTemplateCustomizer customizer = new MockServerRestTemplateCustomizer();
+        notificador = new InventarioCacheNotificador(new RestTemplateBuilder(customizer), "http://inventario:8082",
+                "clave", Duration.ofSeconds(1), 2, 3, meterRegistry);
+        servidor = customizer.getServer();
+    }
+
+    @Test
+    @DisplayName("Envía los productos cambiados en lotes, una sola vez por producto")
+    void notificar_DeberiaEnviarLotes() {
+        // Given
+        notificador.productoCambiado(evento(1L));
+        notificador.productoCambiado(evento(2L));
+        notificador.productoCambiado(evento(1L));
+        notificador.productoCambiado(evento(3L));
+        servidor.expect(requestTo(URL + "/invalidaciones"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(header("X-API-Key", "clave"))
+                .andRespond(withNoContent());
+        servidor.expect(requestTo(URL + "/invalidaciones")).andRespond(withNoContent());
+
+        // When
+        int invalidados = notificador.notificar();
+
+        // Then
+        servidor.verify();
+        assertThat(invalidados).isEqualTo(3);
+        assertThat(notificador.notificar()).isZero();
+        assertThat(meterRegistry.get("productos.inventario.invalidaciones").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Si inventario falla, conserva los pendientes para la siguiente pasada")
+    void notificar_InventarioFalla_DeberiaReintentar() {
+        // Given
+        notificador.productoCambiado(evento(1L));
+        servidor.expect(once(), requestTo(URL + "/invalidaciones")).andRespond(withServiceUnavailable());
+        servidor.expect(once(), requestTo(URL + "/invalidaciones"))
+                .andExpect(content().json("[1]"))
+                .andRespond(withNoContent());
+
+        // When
+        int primera = notificador.notificar();
+        int segunda = notificador.notificar();
+
+        // Then
+        servidor.verify();
+        assertThat(primera).isZero();
+        assertThat(segunda).isEqualTo(1);
+        assertThat(meterRegistry.get("productos.inventario.invalidaciones.fallidas").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Al superar max-pendientes descarta los IDs e invalida toda la caché de inventario")
+    void productoCambiado_Desborde_DeberiaInvalidarTodos() {
+        // Given
+        for (long id = 1; id <= 4; id++) {
+            notificador.productoCambiado(evento(id));
+        }
+        servidor.expect(requestTo(URL)).andExpect(method(HttpMethod.DELETE)).andRespond(withNoContent());
+
+        // When
+        int invalidados = notificador.notificar();
+
+        // Then
+        servidor.verify();
+        assertThat(invalidados).isZero();
+    }
+
+    private static ProductoCambiadoEvent evento(Long productoId) {
+        return ProductoCambiadoEvent.builder().productoId(productoId).tipoOperacion("ACTUALIZACION").build();
+    }
+}
@@ -0,0 +1,141 @@
+package com.linktic.productos_service.repository;
+
+import com.linktic.productos_service.dto.ProductoResponse;
+import com.linktic.productos_service.model.Producto;
+import com.sun.management.ThreadMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compara el listado proyectado a ProductoFila con el listado por entidades sobre una página grande:
+ * tiempo (mediana) y bytes asignados por el hilo en cada lectura. Se ejecuta solo con -Dmedicion=true.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "logging.level.org.hibernate.SQL=WARN"
+})
+@AutoConfigureTestDatabase(replace = Replace.ANY)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "medicion", matches = "true")
+@Slf4j
+class ProductoFilaMedicionTest {
+
+    private static final int PRODUCTOS = 20_000;
+    private static final int TAMANIO_PAGINA = 5_000;
+    private static final int CALENTAMIENTO = 10;
+    private static final int REPETICIONES = 20;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Pageable pagina = PageRequest.of(1, TAMANIO_PAGINA, Sort.by("id"));
+
+    @BeforeEach
+    void setUp() {
+        if (productoRepository.count() > 0) {
+            return;
+        }
+        List<Producto> productos = new ArrayList<>();
+        for (int i = 0; i < PRODUCTOS; i++) {
+            productos.add(Producto.builder().nombre("Producto " + i).precio(BigDecimal.valueOf(10 + i % 1000)).build());
+        }
+        productoRepository.saveAll(productos);
+    }
+
+    @Test
+    @DisplayName("Proyección ProductoFila frente a entidades en una página de 5000 productos")
+    void listarFilas_FrenteAEntidades() {
+        // Los bytes asignados por hilo solo los expone la extensión de HotSpot de ThreadMXBean
+        ThreadMXBean hilos = ManagementFactory.getThreadMXBean() instanceof ThreadMXBean bean ? bean : null;
+        assumeTrue(hilos != null && hilos.isThreadAllocatedMemorySupported() && hilos.isThreadAllocatedMemoryEnabled(),
+                "La JVM no mide los bytes asignados por hilo");
+
+        Medicion proyeccion = medir(hilos, true, () -> productoRepository.listarFilas(pagina)
+                .map(fila -> new ProductoResponse("productos", fila.id(), new ProductoResponse.Attributes(
+                        fila.nombre(), fila.precio(), fila.createdAt(), fila.updatedAt()))));
+        Medicion entidadesSoloLectura = medir(hilos, true, () -> productoRepository.findAll(pagina)
+                .map(ProductoFilaMedicionTest::respuesta));
+        Medicion entidades = medir(hilos, false, () -> productoRepository.findAll(pagina)
+                .map(ProductoFilaMedicionTest::respuesta));
+
+        log.info("Página de {} de {} productos, mediana de {} lecturas (H2 en memoria)",
+                TAMANIO_PAGINA, PRODUCTOS, REPETICIONES);
+        log.info("  proyección ProductoFila         {}", proyeccion);
+        log.info("  entidades, transacción readOnly  {}", entidadesSoloLectura);
+        log.info("  entidades, lectura-escritura     {}", entidades);
+
+        assertThat(proyeccion.bytes).isLessThan(entidadesSoloLectura.bytes);
+    }
+
+    private Medicion medir(ThreadMXBean hilos, boolean soloLectura, Supplier<Page<ProductoResponse>> listado) {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        transaccion.setReadOnly(soloLectura);
+        long hilo = Thread.currentThread().getId();
+
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            transaccion.execute(status -> listado.get());
+        }
+        long[] nanos = new long[REPETICIONES];
+        long[] bytes = new long[REPETICIONES];
+        for (int i = 0; i < REPETICIONES; i++) {
+            long bytesInicio = hilos.getThreadAllocatedBytes(hilo);
+            long inicio = System.nanoTime();
+            Page<ProductoResponse> resultado = transaccion.execute(status -> listado.get());
+            nanos[i] = System.nanoTime() - inicio;
+            bytes[i] = hilos.getThreadAllocatedBytes(hilo) - bytesInicio;
+            assertThat(resultado.getNumberOfElements()).isEqualTo(TAMANIO_PAGINA);
+        }
+        Arrays.sort(nanos);
+        Arrays.sort(bytes);
+        return new Medicion(nanos[REPETICIONES / 2], bytes[REPETICIONES / 2]);
+    }
+
+    private static ProductoResponse respuesta(Producto producto) {
+        return ProductoResponse.builder()
+                .type("productos")
+                .id(producto.getId())
+                .attributes(ProductoResponse.Attributes.builder()
+                        .nombre(producto.getNombre())
+                        .precio(producto.getPrecio())
+                        .createdAt(producto.getCreatedAt())
+                        .updatedAt(producto.getUpdatedAt())
+                        .build())
+                .build();
+    }
+
+    private record Medicion(long nanos, long bytes) {
+        @Override
+        public String toString() {
+            return String.format("%7.2f ms  %8.2f MB  (%d B/fila)",
+                    nanos / 1e6, bytes / 1048576.0, bytes / TAMANIO_PAGINA);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.linktic.productos_service.repository;
+
+import com.linktic.productos_service.dto.PrecioActualizado;
+import com.linktic.productos_service.dto.ProductoBusqueda;
+import com.linktic.productos_service.model.Producto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ProductoRepositoryPostgresTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Producto teclado;
+    private Producto monitor;
+    private Producto caro;
+
+    @BeforeEach
+    void setUp() {
+        productoRepository.deleteAll();
+        teclado = productoRepository.save(producto("Teclado mecánico", "100.00"));
+        monitor = productoRepository.save(producto("Monitor 27 pulgadas", "0.01"));
+        caro = productoRepository.save(producto("Servidor de rack", "99999999.00"));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("ajustarPrecios: redondea a centavos, respeta el mínimo y omite los que desbordarían")
+    void ajustarPrecios_DeberiaRedondearYOmitirDesbordes() {
+        // When
+        List<PrecioActualizado> filas = productoRepository.ajustarPrecios(
+                List.of(teclado.getId(), monitor.getId(), caro.getId()), new BigDecimal("0.333"));
+        entityManager.clear();
+
+        // Then
+        assertThat(filas)
+                .extracting(PrecioActualizado::getId, PrecioActualizado::getPrecio)
+                .containsExactlyInAnyOrder(
+                        tuple(teclado.getId(), new BigDecimal("33.30")),
+                        tuple(monitor.getId(), new BigDecimal("0.01")),
+                        tuple(caro.getId(), new BigDecimal("33299999.67")));
+
+        List<PrecioActualizado> subida = productoRepository.ajustarPrecios(
+                List.of(teclado.getId(), caro.getId()), new BigDecimal("4"));
+        assertThat(subida).extracting(PrecioActualizado::getId).containsExactly(teclado.getId());
+        assertThat(productoRepository.findById(caro.getId()).orElseThrow().getPrecio())
+                .isEqualByComparingTo("33299999.67");
+    }
+
+    @Test
+    @DisplayName("fijarPrecios: empareja IDs y precios por posición y omite los IDs inexistentes")
+    void fijarPrecios_DeberiaEmparejarPorPosicion() {
+        // When
+        List<PrecioActualizado> filas = productoRepository.fijarPrecios(
+                "{" + teclado.getId() + "," + monitor.getId() + ",999999}", "{12.50,7.25,1.00}");
+        entityManager.clear();
+
+        // Then
+        assertThat(filas)
+                .extracting(PrecioActualizado::getId, PrecioActualizado::getPrecio)
+                .containsExactlyInAnyOrder(
+                        tuple(teclado.getId(), new BigDecimal("12.50")),
+                        tuple(monitor.getId(), new BigDecimal("7.25")));
+        assertThat(productoRepository.findById(teclado.getId()).orElseThrow().getPrecio())
+                .isEqualByComparingTo("12.50");
+        assertThat(productoRepository.findById(caro.getId()).orElseThrow().getPrecio())
+                .isEqualByComparingTo("99999999.00");
+    }
+
+    @Test
+    @DisplayName("buscarSimilares: los prefijos van primero y el cursor (puntuación, ID) continúa la página")
+    void buscarSimilares_DeberiaOrdenarYPaginarPorCursor() {
+        // Given
+        Producto teclas = productoRepository.save(producto("Teclas de repuesto", "5.00"));
+        Producto similar = productoRepository.save(producto("Mini teclado", "30.00"));
+        entityManager.flush();
+
+        // When
+        List<ProductoBusqueda> primera = productoRepository.buscarSimilares("tecla", "tecla%", 2f, 0L, 2);
+        ProductoBusqueda ultima = primera.get(primera.size() - 1);
+        List<ProductoBusqueda> segunda = productoRepository.buscarSimilares(
+                "tecla", "tecla%", ultima.getPuntuacion(), ultima.getId(), 2);
+
+        // Then
+        assertThat(primera)
+                .extracting(ProductoBusqueda::getId, ProductoBusqueda::getPuntuacion)
+                .containsExactly(tuple(teclado.getId(), 1f), tuple(teclas.getId(), 1f));
+        assertThat(segunda).extracting(ProductoBusqueda::getId).containsExactly(similar.getId());
+        assertThat(segunda.get(0).getPuntuacion()).isLessThan(1f);
+    }
+
+    private static Producto producto(String nombre, String precio) {
+        return Producto.builder().nombre(nombre).precio(new BigDecimal(precio)).build();
+    }
+}
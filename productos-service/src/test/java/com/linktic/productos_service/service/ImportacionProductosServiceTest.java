@@ -0,0 +1,202 @@
+package com.linktic.productos_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.linktic.productos_service.dto.ImportacionResponse;
+import com.linktic.productos_service.dto.JsonApiError;
+import com.linktic.productos_service.dto.ProductoLoteResultado;
+import com.linktic.productos_service.dto.ProductoRequest;
+import com.linktic.productos_service.exception.DuplicateProductException;
+import com.linktic.productos_service.exception.ImportacionNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImportacionProductosServiceTest {
+
+    @Mock
+    private ProductoService productoService;
+
+    private ImportacionProductosService importacionService;
+    private SimpleMeterRegistry meterRegistry;
+    private final List<List<ProductoRequest>> lotes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        importacionService = new ImportacionProductosService(productoService,
+                new ObjectMapper().findAndRegisterModules(), 2, Duration.ofHours(1), meterRegistry);
+
+        // Simula crearLote: "Mouse" ya existe en la base, el resto se crea
+        lenient().when(productoService.crearLote(anyList())).thenAnswer(invocation -> {
+            List<ProductoRequest> lote = new ArrayList<>(invocation.getArgument(0));
+            lotes.add(lote);
+            return IntStream.range(0, lote.size())
+                    .mapToObj(i -> "Mouse".equals(lote.get(i).getNombre())
+                            ? ProductoLoteResultado.builder()
+                                .indice(i)
+                                .estado(ProductoLoteResultado.Estado.DUPLICADO)
+                                .error(JsonApiError.builder().code("DUPLICATE_PRODUCT").build())
+                                .build()
+                            : ProductoLoteResultado.builder()
+                                .indice(i)
+                                .estado(ProductoLoteResultado.Estado.CREADO)
+                                .build())
+                    .collect(Collectors.toList());
+        });
+    }
+
+    @Test
+    @DisplayName("importar CSV: lee por lotes, respeta comillas y reporta duplicados y filas rechazadas por línea")
+    void importarCsv_DeberiaProcesarPorLotes() {
+        // Given
+        String csv = """
+                nombre,precio
+                "Laptop, 15""\",1500.00
+                Mouse,50
+                Teclado,abc
+
+                Monitor,300
+                """;
+
+        // When
+        ImportacionResponse importacion = importacionService.importar(null, cuerpo(csv), ImportacionJob.Formato.CSV);
+
+        // Then
+        ImportacionResponse.Attributes attrs = importacion.getAttributes();
+        assertThat(attrs.getEstado()).isEqualTo("COMPLETADA");
+        assertThat(attrs.getProcesadas()).isEqualTo(4);
+        assertThat(attrs.getCreadas()).isEqualTo(2);
+        assertThat(attrs.getDuplicadas()).isEqualTo(1);
+        assertThat(attrs.getRechazadas()).isEqualTo(1);
+        assertThat(attrs.getRechazos())
+                .extracting(ImportacionResponse.Rechazo::getLinea)
+                .containsExactly(3L, 4L);
+
+        assertThat(lotes).hasSize(2);
+        assertThat(lotes.get(0)).extracting(ProductoRequest::getNombre).containsExactly("Laptop, 15\"", "Mouse");
+        assertThat(lotes.get(0).get(0).getPrecio()).isEqualByComparingTo(new BigDecimal("1500.00"));
+        assertThat(lotes.get(1)).extracting(ProductoRequest::getNombre).containsExactly("Monitor");
+
+        assertThat(meterRegistry.get("productos.importacion.filas").tag("resultado", "creada").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("importar NDJSON: una línea mal formada se rechaza sin detener la importación")
+    void importarNdjson_LineaMalFormada_DeberiaRechazarla() {
+        // Given
+        String ndjson = """
+                {"nombre":"Laptop","precio":1500.00}
+                {"nombre":
+                {"nombre":"Monitor","precio":300}
+                """;
+
+        // When
+        ImportacionResponse importacion = importacionService.importar(null, cuerpo(ndjson), ImportacionJob.Formato.NDJSON);
+
+        // Then
+        assertThat(importacion.getAttributes().getCreadas()).isEqualTo(2);
+        assertThat(importacion.getAttributes().getRechazadas()).isEqualTo(1);
+        assertThat(importacion.getAttributes().getRechazos().get(0).getLinea()).isEqualTo(2L);
+        assertThat(importacionService.obtener(importacion.getId()).getAttributes().getEstado())
+                .isEqualTo("COMPLETADA");
+    }
+
+    @Test
+    @DisplayName("importar CSV sin columnas nombre y precio: falla y queda registrada como FALLIDA")
+    void importarCsv_SinCabecera_DeberiaFallar() {
+        // When & Then
+        assertThatThrownBy(() -> importacionService.importar(null, cuerpo("id,valor\n1,2\n"), ImportacionJob.Formato.CSV))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(importacionService.listar())
+                .extracting(i -> i.getAttributes().getEstado())
+                .containsExactly("FALLIDA");
+        verifyNoInteractions(productoService);
+    }
+
+    @Test
+    @DisplayName("importar: si un alta concurrente gana la carrera, repite el lote fila a fila y cuenta la colisión como duplicada")
+    void importar_ColisionConcurrente_DeberiaRepetirFilaAFila() {
+        // Given: el lote completo choca con el índice único; fila a fila solo choca "Monitor"
+        when(productoService.crearLote(anyList())).thenAnswer(invocation -> {
+            List<ProductoRequest> lote = invocation.getArgument(0);
+            if (lote.size() > 1 || "Monitor".equals(lote.get(0).getNombre())) {
+                throw new DuplicateProductException("Otra petición creó simultáneamente alguno de los nombres del lote");
+            }
+            return List.of(ProductoLoteResultado.builder()
+                    .indice(0)
+                    .estado(ProductoLoteResultado.Estado.CREADO)
+                    .build());
+        });
+
+        // When
+        ImportacionResponse importacion = importacionService.importar(null,
+                cuerpo("nombre,precio\nLaptop,1500\nMonitor,300\n"), ImportacionJob.Formato.CSV);
+
+        // Then
+        assertThat(importacion.getAttributes().getEstado()).isEqualTo("COMPLETADA");
+        assertThat(importacion.getAttributes().getCreadas()).isEqualTo(1);
+        assertThat(importacion.getAttributes().getDuplicadas()).isEqualTo(1);
+        assertThat(importacion.getAttributes().getRechazos())
+                .extracting(ImportacionResponse.Rechazo::getLinea)
+                .containsExactly(3L);
+        verify(productoService, times(3)).crearLote(anyList());
+    }
+
+    @Test
+    @DisplayName("importar con ID del cliente: se puede consultar con ese ID y no admite repetirlo")
+    void importar_ConIdDelCliente_DeberiaRegistrarloAntesDeLeer() {
+        // Given: el cuerpo consulta la importación en cuanto se empieza a leer
+        String[] estadoDuranteLaLectura = new String[1];
+        InputStream cuerpo = new ByteArrayInputStream("{\"nombre\":\"Laptop\",\"precio\":1}\n".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                if (estadoDuranteLaLectura[0] == null) {
+                    estadoDuranteLaLectura[0] = importacionService.obtener("carga-1").getAttributes().getEstado();
+                }
+                return super.read(b, off, len);
+            }
+        };
+
+        // When
+        importacionService.importar("carga-1", cuerpo, ImportacionJob.Formato.NDJSON);
+
+        // Then
+        assertThat(estadoDuranteLaLectura[0]).isEqualTo("EN_CURSO");
+        assertThatThrownBy(() -> importacionService.importar("carga-1", cuerpo(""), ImportacionJob.Formato.NDJSON))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> importacionService.importar("../x", cuerpo(""), ImportacionJob.Formato.NDJSON))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("obtener: ID desconocido => ImportacionNotFoundException")
+    void obtener_Inexistente_DeberiaLanzarExcepcion() {
+        assertThatThrownBy(() -> importacionService.obtener("no-existe"))
+                .isInstanceOf(ImportacionNotFoundException.class);
+    }
+
+    private static InputStream cuerpo(String contenido) {
+        return new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+}
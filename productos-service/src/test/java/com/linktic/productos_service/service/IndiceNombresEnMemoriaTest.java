@@ -0,0 +1,82 @@
+package com.linktic.productos_service.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class IndiceNombresEnMemoriaTest {
+
+    private IndiceNombresEnMemoria indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceNombresEnMemoria();
+        indice.indexar(1L, "Teclado Mecánico");
+        indice.indexar(2L, "Laptop Dell XPS");
+        indice.indexar(3L, "Mouse Gaming");
+        indice.cargaCompletada();
+    }
+
+    @Test
+    @DisplayName("sugerir: coincide con el inicio de cualquier palabra, sin distinguir mayúsculas ni tildes")
+    void sugerir_DeberiaCoincidirPorPrefijoDePalabra() {
+        assertThat(indice.sugerir("MECAN", 10).orElseThrow())
+                .extracting(IndiceNombres.Sugerencia::id)
+                .containsExactly(1L);
+        assertThat(indice.sugerir("dell", 10).orElseThrow())
+                .extracting(IndiceNombres.Sugerencia::nombre)
+                .containsExactly("Laptop Dell XPS");
+        assertThat(indice.sugerir("ell", 10).orElseThrow()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("indexar y eliminar: un cambio de nombre reemplaza las claves anteriores")
+    void indexarYEliminar_DeberianMantenerElIndiceAlDia() {
+        // When
+        indice.indexar(3L, "Ratón Inalámbrico");
+
+        // Then
+        assertThat(indice.sugerir("mouse", 10).orElseThrow()).isEmpty();
+        assertThat(indice.sugerir("raton", 10).orElseThrow())
+                .extracting(IndiceNombres.Sugerencia::id)
+                .containsExactly(3L);
+
+        indice.eliminar(3L);
+        assertThat(indice.sugerir("raton", 10).orElseThrow()).isEmpty();
+        assertThat(indice.tamanio()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("sugerir: mientras la carga inicial no termina no responde")
+    void sugerir_SinCargaCompletada_DeberiaRetornarVacio() {
+        IndiceNombresEnMemoria cargando = new IndiceNombresEnMemoria();
+        cargando.indexar(1L, "Teclado Mecánico");
+
+        assertThat(cargando.sugerir("tec", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("cargar: ignora las filas de productos cambiados o eliminados durante la carga")
+    void cargar_CambiosDuranteLaCarga_NoDeberianRevertirse() {
+        // Given: cambios confirmados mientras la carga lee una instantánea anterior
+        IndiceNombresEnMemoria cargando = new IndiceNombresEnMemoria();
+        cargando.eliminar(1L);
+        cargando.indexar(2L, "Portátil Dell XPS");
+
+        // When
+        cargando.cargar(1L, "Teclado Mecánico");
+        cargando.cargar(2L, "Laptop Dell XPS");
+        cargando.cargar(3L, "Mouse Gaming");
+        cargando.cargaCompletada();
+
+        // Then
+        assertThat(cargando.sugerir("teclado", 10).orElseThrow()).isEmpty();
+        assertThat(cargando.sugerir("laptop", 10).orElseThrow()).isEmpty();
+        assertThat(cargando.sugerir("portatil", 10).orElseThrow())
+                .extracting(IndiceNombres.Sugerencia::id)
+                .containsExactly(2L);
+        assertThat(cargando.tamanio()).isEqualTo(2);
+    }
+}
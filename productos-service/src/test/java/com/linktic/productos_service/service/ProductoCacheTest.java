@@ -0,0 +1,89 @@
+package com.linktic.productos_service.service;
+
+import com.linktic.productos_service.dto.ProductoResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ProductoCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductoCache productoCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productoCache = new ProductoCache(Duration.ofMinutes(5), 100, meterRegistry);
+        productoCache.guardar(ProductoResponse.builder().id(1L).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Registra aciertos, fallos y tamaño en Micrometer")
+    void obtener_RegistraMetricas() {
+        productoCache.obtener(1L);
+        productoCache.obtener(2L);
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "productos").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "productos").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.size").tag("cache", "productos").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Dentro de una transacción la invalidación espera al commit")
+    void invalidarTrasCommit_ConTransaccion_EsperaAlCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        productoCache.invalidarTrasCommit(1L);
+        assertThat(productoCache.obtener(1L)).isNotNull();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(productoCache.obtener(1L)).isNull();
+    }
+
+    @Test
+    @DisplayName("Sin transacción la invalidación es inmediata")
+    void invalidarTrasCommit_SinTransaccion_EsInmediata() {
+        productoCache.invalidarTrasCommit(1L);
+
+        assertThat(productoCache.obtener(1L)).isNull();
+        assertThat(productoCache.tamanio()).isZero();
+    }
+
+    @Test
+    @DisplayName("Descarta la carga si hubo una invalidación desde que se leyó la generación")
+    void guardar_InvalidacionDuranteLaCarga_DescartaLaEntrada() {
+        long generacion = productoCache.generacion();
+        productoCache.invalidarTrasCommit(2L);
+
+        productoCache.guardar(ProductoResponse.builder().id(1L).build(), generacion);
+
+        assertThat(productoCache.obtener(1L)).isNull();
+    }
+
+    @Test
+    @DisplayName("Guarda la carga si no hubo invalidaciones desde que se leyó la generación")
+    void guardar_SinInvalidaciones_GuardaLaEntrada() {
+        long generacion = productoCache.generacion();
+
+        productoCache.guardar(ProductoResponse.builder().id(2L).build(), generacion);
+
+        assertThat(productoCache.obtener(2L)).isNotNull();
+    }
+}
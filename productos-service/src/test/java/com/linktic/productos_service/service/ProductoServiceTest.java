@@ -1,28 +1,57 @@
 package com.linktic.productos_service.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.linktic.productos_service.dto.ActualizacionPreciosRequest;
+import com.linktic.productos_service.dto.PaginaBusqueda;
+import com.linktic.productos_service.dto.PrecioActualizado;
+import com.linktic.productos_service.dto.ProductoBusqueda;
+import com.linktic.productos_service.dto.ProductoFila;
+import com.linktic.productos_service.dto.ProductoLoteResultado;
 import com.linktic.productos_service.dto.ProductoRequest;
 import com.linktic.productos_service.dto.ProductoResponse;
 import com.linktic.productos_service.exception.DuplicateProductException;
 import com.linktic.productos_service.exception.ProductoNotFoundException;
 import com.linktic.productos_service.model.Producto;
+import com.linktic.productos_service.model.ProductoCambiadoEvent;
 import com.linktic.productos_service.repository.ProductoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,11 +60,34 @@ class ProductoServiceTest {
     @Mock
     private ProductoRepository productoRepository;
 
+    @Spy
+    private SingleFlight<Long, ProductoResponse> productoPorIdSingleFlight =
+            new SingleFlight<>("obtenerPorId", new SimpleMeterRegistry());
+
+    @Spy
+    private ProductoCache productoCache = new ProductoCache(Duration.ofMinutes(5), 100, new SimpleMeterRegistry());
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Spy
+    private IndiceNombresEnMemoria indiceNombres = new IndiceNombresEnMemoria();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ProductoService productoService;
 
     private ProductoRequest productoRequest;
     private Producto producto;
+    private final ProductoFila filaListado = new ProductoFila(1L, "Laptop Dell XPS", new BigDecimal("1500.00"), null, null);
 
     @BeforeEach
     void setUp() {
@@ -55,8 +107,7 @@ class ProductoServiceTest {
     @DisplayName("Crear producto exitosamente")
     void crearProducto_DeberiaRetornarProductoCreado() {
         // Given
-        when(productoRepository.existsByNombre(anyString())).thenReturn(false);
-        when(productoRepository.save(any(Producto.class))).thenReturn(producto);
+        when(productoRepository.saveAndFlush(any(Producto.class))).thenReturn(producto);
 
         // When
         ProductoResponse response = productoService.crear(productoRequest);
@@ -67,22 +118,112 @@ class ProductoServiceTest {
         assertThat(response.getAttributes().getNombre()).isEqualTo("Laptop Dell XPS");
         assertThat(response.getAttributes().getPrecio()).isEqualTo(new BigDecimal("1500.00"));
 
-        verify(productoRepository).existsByNombre("Laptop Dell XPS");
-        verify(productoRepository).save(any(Producto.class));
+        verify(productoRepository).saveAndFlush(any(Producto.class));
     }
 
     @Test
-    @DisplayName("Crear producto duplicado debe lanzar excepción")
+    @DisplayName("Crear producto duplicado: la violación del índice único se traduce a DuplicateProductException")
     void crearProductoDuplicado_DeberiaLanzarExcepcion() {
         // Given
-        when(productoRepository.existsByNombre(anyString())).thenReturn(true);
+        when(productoRepository.saveAndFlush(any(Producto.class))).thenThrow(violacionNombreUnico());
 
         // When & Then
         assertThatThrownBy(() -> productoService.crear(productoRequest))
                 .isInstanceOf(DuplicateProductException.class)
                 .hasMessageContaining("Ya existe un producto con el nombre");
+    }
+
+    @Test
+    @DisplayName("Crear producto: otra violación de integridad no se confunde con un duplicado")
+    void crearProducto_OtraViolacion_DeberiaPropagarse() {
+        // Given
+        when(productoRepository.saveAndFlush(any(Producto.class)))
+                .thenThrow(new DataIntegrityViolationException("not-null"));
+
+        // When & Then
+        assertThatThrownBy(() -> productoService.crear(productoRequest))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    @DisplayName("crearLote: un resultado por elemento, con duplicados de la base y de la propia petición")
+    void crearLote_DeberiaReportarResultadoPorElemento() {
+        // Given
+        List<ProductoRequest> lote = List.of(
+                request("Monitor LG", "300.00"),
+                request("Laptop Dell XPS", "1500.00"),
+                request("Monitor LG", "310.00"),
+                request("X", "0"),
+                request("Teclado", "80.00"));
+
+        when(productoRepository.findNombresExistentes(Set.of("Monitor LG", "Laptop Dell XPS", "Teclado")))
+                .thenReturn(Set.of("Laptop Dell XPS"));
+        when(productoRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<Producto> nuevos = invocation.getArgument(0);
+            for (int i = 0; i < nuevos.size(); i++) {
+                nuevos.get(i).setId(100L + i);
+            }
+            return nuevos;
+        });
+
+        // When
+        List<ProductoLoteResultado> resultados = productoService.crearLote(lote);
 
-        verify(productoRepository, never()).save(any());
+        // Then
+        assertThat(resultados).extracting(ProductoLoteResultado::getIndice).containsExactly(0, 1, 2, 3, 4);
+        assertThat(resultados).extracting(ProductoLoteResultado::getEstado).containsExactly(
+                ProductoLoteResultado.Estado.CREADO,
+                ProductoLoteResultado.Estado.DUPLICADO,
+                ProductoLoteResultado.Estado.DUPLICADO,
+                ProductoLoteResultado.Estado.INVALIDO,
+                ProductoLoteResultado.Estado.CREADO);
+        assertThat(resultados.get(0).getProducto().getId()).isEqualTo(100L);
+        assertThat(resultados.get(4).getProducto().getId()).isEqualTo(101L);
+        assertThat(resultados.get(2).getError().getDetail()).contains("índice 0");
+        assertThat(resultados.get(3).getError().getDetail()).contains("nombre", "precio");
+
+        verify(productoRepository, times(1)).findNombresExistentes(anyCollection());
+        verify(productoRepository, never()).saveAndFlush(any(Producto.class));
+    }
+
+    @Test
+    @DisplayName("crearLote: más productos que el máximo por petición => IllegalArgumentException")
+    void crearLote_ExcedeMaximo_DeberiaLanzarExcepcion() {
+        // Given
+        List<ProductoRequest> lote = Collections.nCopies(
+                ProductoService.MAX_PRODUCTOS_POR_LOTE + 1, productoRequest);
+
+        // When & Then
+        assertThatThrownBy(() -> productoService.crearLote(lote))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(productoRepository);
+    }
+
+    @Test
+    @DisplayName("exportar: una línea JSON por producto y cada entidad se desvincula tras escribirse")
+    void exportar_DeberiaEscribirNdjson() throws Exception {
+        // Given
+        Producto otro = Producto.builder()
+                .id(2L)
+                .nombre("Monitor LG")
+                .precio(new BigDecimal("300.00"))
+                .build();
+        when(productoRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(producto, otro));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        // When
+        long exportados = productoService.exportar(salida);
+
+        // Then
+        assertThat(exportados).isEqualTo(2);
+        String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lineas).hasSize(2);
+        assertThat(objectMapper.readTree(lineas[0]).path("id").asLong()).isEqualTo(1L);
+        assertThat(objectMapper.readTree(lineas[1]).path("attributes").path("nombre").asText()).isEqualTo("Monitor LG");
+        assertThat(salida.toString(StandardCharsets.UTF_8)).endsWith("\n");
+        verify(entityManager).detach(producto);
+        verify(entityManager).detach(otro);
+        verify(productoRepository, never()).findAll(any(Pageable.class));
     }
 
     @Test
@@ -100,6 +241,74 @@ class ProductoServiceTest {
         assertThat(response.getAttributes().getNombre()).isEqualTo("Laptop Dell XPS");
     }
 
+    @Test
+    @DisplayName("Obtener producto por ID agrupa la lectura en una sola consulta")
+    void obtenerPorId_DeberiaPasarPorSingleFlight() {
+        // Given
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto));
+
+        // When
+        productoService.obtenerPorId(1L);
+
+        // Then
+        verify(productoPorIdSingleFlight).ejecutar(eq(1L), any());
+        verify(productoRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Obtener producto por ID dos veces solo consulta la base de datos una vez")
+    void obtenerPorId_SegundaLectura_DeberiaUsarCache() {
+        // Given
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto));
+
+        // When
+        ProductoResponse primera = productoService.obtenerPorId(1L);
+        ProductoResponse segunda = productoService.obtenerPorId(1L);
+
+        // Then
+        assertThat(segunda).isSameAs(primera);
+        verify(productoRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Obtener producto por ID no guarda una lectura que una invalidación dejó obsoleta")
+    void obtenerPorId_InvalidacionDuranteLaCarga_NoDeberiaGuardarEnCache() {
+        // Given: una actualización confirma e invalida mientras se lee la versión anterior
+        when(productoRepository.findById(1L)).thenAnswer(invocation -> {
+            productoCache.invalidarTrasCommit(1L);
+            return Optional.of(producto);
+        });
+
+        // When
+        ProductoResponse response = productoService.obtenerPorId(1L);
+
+        // Then
+        assertThat(response.getId()).isEqualTo(1L);
+        assertThat(productoCache.obtener(1L)).isNull();
+
+        productoService.obtenerPorId(1L);
+        verify(productoRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Actualizar y eliminar invalidan la entrada en caché")
+    void actualizarYEliminar_DeberianInvalidarCache() {
+        // Given
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto));
+        when(productoRepository.saveAndFlush(any(Producto.class))).thenReturn(producto);
+        when(productoRepository.existsById(1L)).thenReturn(true);
+        productoService.obtenerPorId(1L);
+
+        // When & Then
+        productoService.actualizar(1L, productoRequest);
+        assertThat(productoCache.obtener(1L)).isNull();
+
+        productoService.obtenerPorId(1L);
+        productoService.eliminar(1L);
+        assertThat(productoCache.obtener(1L)).isNull();
+        verify(productoCache, times(2)).invalidarTrasCommit(1L);
+    }
+
     @Test
     @DisplayName("Obtener producto no existente debe lanzar excepción")
     void obtenerProductoNoExistente_DeberiaLanzarExcepcion() {
@@ -128,7 +337,7 @@ class ProductoServiceTest {
                 .build();
 
         when(productoRepository.findById(1L)).thenReturn(Optional.of(producto));
-        when(productoRepository.save(any(Producto.class))).thenReturn(productoActualizado);
+        when(productoRepository.saveAndFlush(any(Producto.class))).thenReturn(productoActualizado);
 
         // When
         ProductoResponse response = productoService.actualizar(1L, updateRequest);
@@ -138,7 +347,195 @@ class ProductoServiceTest {
         assertThat(response.getAttributes().getPrecio()).isEqualTo(new BigDecimal("1800.00"));
 
         verify(productoRepository).findById(1L);
-        verify(productoRepository).save(any(Producto.class));
+        verify(productoRepository).saveAndFlush(any(Producto.class));
+    }
+
+    @Test
+    @DisplayName("Actualizar con el nombre de otro producto => DuplicateProductException")
+    void actualizarProducto_NombreExistente_DeberiaLanzarExcepcion() {
+        // Given
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto));
+        when(productoRepository.saveAndFlush(any(Producto.class))).thenThrow(violacionNombreUnico());
+
+        // When & Then
+        assertThatThrownBy(() -> productoService.actualizar(1L, productoRequest))
+                .isInstanceOf(DuplicateProductException.class);
+        verify(productoCache, never()).invalidarTrasCommit(any());
+    }
+
+    @Test
+    @DisplayName("buscarPorNombre: búsqueda exacta, lista vacía si no existe")
+    void buscarPorNombre_DeberiaRetornarCoincidenciaExacta() {
+        // Given
+        when(productoRepository.findByNombre("Laptop Dell XPS")).thenReturn(Optional.of(producto));
+        when(productoRepository.findByNombre("Otro")).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThat(productoService.buscarPorNombre("Laptop Dell XPS"))
+                .extracting(ProductoResponse::getId)
+                .containsExactly(1L);
+        assertThat(productoService.buscarPorNombre("Otro")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("buscar: ordena según la consulta de similitud y entrega el cursor de la página siguiente")
+    void buscar_DeberiaRetornarPaginaConCursor() {
+        // Given
+        Producto otro = Producto.builder().id(2L).nombre("Laptop Lenovo").precio(new BigDecimal("900.00")).build();
+        when(productoRepository.buscarSimilares("lap", "lap%", 2f, 0L, 3)).thenReturn(List.of(
+                fila(2L, 1f), fila(1L, 1f), fila(5L, 0.5f)));
+        when(productoRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(producto, otro));
+
+        // When
+        PaginaBusqueda pagina = productoService.buscar(" Lap ", null, 2);
+
+        // Then
+        assertThat(pagina.productos()).extracting(ProductoResponse::getId).containsExactly(2L, 1L);
+        assertThat(pagina.siguiente()).isEqualTo("1.0:1");
+    }
+
+    @Test
+    @DisplayName("buscar: reanuda desde el cursor y escapa los comodines de LIKE")
+    void buscar_ConCursor_DeberiaContinuarDesdeElUltimo() {
+        // Given
+        when(productoRepository.buscarSimilares("50%_", "50\\%\\_%", 0.5f, 7L, 11)).thenReturn(List.of());
+        when(productoRepository.findAllById(List.of())).thenReturn(List.of());
+
+        // When
+        PaginaBusqueda pagina = productoService.buscar("50%_", "0.5:7", 10);
+
+        // Then
+        assertThat(pagina.productos()).isEmpty();
+        assertThat(pagina.siguiente()).isNull();
+    }
+
+    @Test
+    @DisplayName("buscar: término de menos de dos caracteres o cursor mal formado => IllegalArgumentException")
+    void buscar_ParametrosInvalidos_DeberiaLanzarExcepcion() {
+        assertThatThrownBy(() -> productoService.buscar("a", null, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> productoService.buscar("laptop", "abc", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(productoRepository);
+    }
+
+    @Test
+    @DisplayName("autocompletar: responde desde el índice en memoria, que se mantiene al crear y eliminar")
+    void autocompletar_DeberiaUsarIndiceEnMemoria() {
+        // Given
+        indiceNombres.cargaCompletada();
+        when(productoRepository.saveAndFlush(any(Producto.class))).thenReturn(producto);
+        when(productoRepository.existsById(1L)).thenReturn(true);
+
+        // When
+        productoService.crear(productoRequest);
+        List<ProductoResponse> sugerencias = productoService.autocompletar("dell", 5);
+        productoService.eliminar(1L);
+
+        // Then
+        assertThat(sugerencias).extracting(ProductoResponse::getId).containsExactly(1L);
+        assertThat(sugerencias.get(0).getAttributes().getPrecio()).isNull();
+        assertThat(productoService.autocompletar("dell", 5)).isEmpty();
+        verify(productoRepository, never()).buscarSimilares(any(), any(), anyFloat(), anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("autocompletar: con el índice aún cargando consulta la base de datos")
+    void autocompletar_IndiceNoDisponible_DeberiaConsultarBase() {
+        // Given
+        when(productoRepository.buscarSimilares("lap", "lap%", 2f, 0L, 6)).thenReturn(List.of(fila(1L, 1f)));
+        when(productoRepository.findAllById(List.of(1L))).thenReturn(List.of(producto));
+
+        // When
+        List<ProductoResponse> sugerencias = productoService.autocompletar("lap", 5);
+
+        // Then
+        assertThat(sugerencias).extracting(p -> p.getAttributes().getNombre()).containsExactly("Laptop Dell XPS");
+    }
+
+    @Test
+    @DisplayName("listarPorRangoPrecio: extremos nulos quedan abiertos; mínimo mayor que máximo => IllegalArgumentException")
+    void listarPorRangoPrecio_DeberiaCompletarExtremos() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        when(productoRepository.listarFilasPorPrecio(new BigDecimal("100"), ProductoService.PRECIO_MAXIMO, pageable))
+                .thenReturn(new PageImpl<>(List.of(filaListado), pageable, 1));
+
+        // When
+        Page<ProductoResponse> pagina = productoService.listarPorRangoPrecio(new BigDecimal("100"), null, pageable);
+
+        // Then
+        assertThat(pagina.getContent()).extracting(ProductoResponse::getId).containsExactly(1L);
+        assertThatThrownBy(() -> productoService.listarPorRangoPrecio(
+                new BigDecimal("10"), new BigDecimal("5"), pageable))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("actualizarPrecios: un solo UPDATE porcentual, invalida la caché y notifica cada fila modificada")
+    void actualizarPrecios_PorPorcentaje_DeberiaNotificarCadaId() {
+        // Given
+        productoCache.guardar(ProductoResponse.builder().id(1L).build());
+        when(productoRepository.ajustarPrecios(Set.of(1L, 2L, 3L), new BigDecimal("0.90")))
+                .thenReturn(List.of(precioActualizado(1L, "90.00"), precioActualizado(3L, "45.00")));
+
+        // When
+        List<PrecioActualizado> actualizados = productoService.actualizarPrecios(ActualizacionPreciosRequest.builder()
+                .ids(List.of(1L, 2L, 3L, 1L))
+                .porcentaje(new BigDecimal("-10"))
+                .build());
+
+        // Then
+        assertThat(actualizados).extracting(PrecioActualizado::getId).containsExactly(1L, 3L);
+        assertThat(productoCache.obtener(1L)).isNull();
+        verify(productoRepository, never()).findById(any());
+
+        ArgumentCaptor<ProductoCambiadoEvent> eventos = ArgumentCaptor.forClass(ProductoCambiadoEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(eventos.capture());
+        assertThat(eventos.getAllValues())
+                .extracting(ProductoCambiadoEvent::getProductoId, ProductoCambiadoEvent::getPrecio)
+                .containsExactly(tuple(1L, new BigDecimal("90.00")), tuple(3L, new BigDecimal("45.00")));
+    }
+
+    @Test
+    @DisplayName("actualizarPrecios: la lista de precios viaja como dos arreglos emparejados por posición")
+    void actualizarPrecios_PorLista_DeberiaEnviarArreglos() {
+        // Given
+        when(productoRepository.fijarPrecios("{1,2}", "{10.50,20}"))
+                .thenReturn(List.of(precioActualizado(1L, "10.50"), precioActualizado(2L, "20.00")));
+
+        // When
+        List<PrecioActualizado> actualizados = productoService.actualizarPrecios(ActualizacionPreciosRequest.builder()
+                .precios(List.of(
+                        new ActualizacionPreciosRequest.PrecioProducto(1L, new BigDecimal("10.50")),
+                        new ActualizacionPreciosRequest.PrecioProducto(2L, new BigDecimal("20"))))
+                .build());
+
+        // Then
+        assertThat(actualizados).hasSize(2);
+        verify(eventPublisher, times(2)).publishEvent(any(ProductoCambiadoEvent.class));
+    }
+
+    @Test
+    @DisplayName("actualizarPrecios: rechaza peticiones ambiguas, IDs repetidos y valores fuera de rango")
+    void actualizarPrecios_PeticionInvalida_DeberiaLanzarExcepcion() {
+        ActualizacionPreciosRequest.PrecioProducto precio =
+                new ActualizacionPreciosRequest.PrecioProducto(1L, new BigDecimal("10"));
+
+        assertThatThrownBy(() -> productoService.actualizarPrecios(ActualizacionPreciosRequest.builder()
+                .ids(List.of(1L)).porcentaje(BigDecimal.TEN).precios(List.of(precio)).build()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> productoService.actualizarPrecios(ActualizacionPreciosRequest.builder()
+                .ids(List.of(1L)).porcentaje(new BigDecimal("-100")).build()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> productoService.actualizarPrecios(ActualizacionPreciosRequest.builder()
+                .precios(List.of(precio, precio)).build()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> productoService.actualizarPrecios(ActualizacionPreciosRequest.builder()
+                .precios(List.of(new ActualizacionPreciosRequest.PrecioProducto(2L, BigDecimal.ZERO))).build()))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -170,14 +567,13 @@ class ProductoServiceTest {
     }
 
     @Test
-    @DisplayName("Listar productos con paginación")
+    @DisplayName("Listar productos con paginación lee la proyección, sin hidratar entidades")
     void listarTodos_DeberiaRetornarPaginaDeProductos() {
         // Given
-        List<Producto> productos = List.of(producto);
-        Page<Producto> page = new PageImpl<>(productos);
+        Page<ProductoFila> page = new PageImpl<>(List.of(filaListado));
         PageRequest pageRequest = PageRequest.of(0, 10);
 
-        when(productoRepository.findAll(pageRequest)).thenReturn(page);
+        when(productoRepository.listarFilas(pageRequest)).thenReturn(page);
 
         // When
         Page<ProductoResponse> response = productoService.listarTodos(pageRequest);
@@ -186,5 +582,98 @@ class ProductoServiceTest {
         assertThat(response).isNotNull();
         assertThat(response.getContent()).hasSize(1);
         assertThat(response.getContent().get(0).getId()).isEqualTo(1L);
+        assertThat(response.getContent().get(0).getAttributes())
+                .extracting(ProductoResponse.Attributes::getNombre, ProductoResponse.Attributes::getPrecio)
+                .containsExactly(filaListado.nombre(), filaListado.precio());
+        verify(productoRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Obtener varios productos por ID en una sola consulta")
+    void obtenerPorIds_DeberiaRetornarProductosEncontrados() {
+        // Given
+        List<Long> ids = List.of(1L, 999L);
+        when(productoRepository.findAllById(ids)).thenReturn(List.of(producto));
+
+        // When
+        List<ProductoResponse> response = productoService.obtenerPorIds(ids);
+
+        // Then
+        assertThat(response).hasSize(1);
+        assertThat(response.get(0).getId()).isEqualTo(1L);
+        verify(productoRepository).findAllById(ids);
+    }
+
+    @Test
+    @DisplayName("Obtener más productos que el máximo permitido debe lanzar excepción")
+    void obtenerPorIdsExcedeMaximo_DeberiaLanzarExcepcion() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, ProductoService.MAX_IDS_POR_CONSULTA + 1)
+                .boxed()
+                .toList();
+
+        // When & Then
+        assertThatThrownBy(() -> productoService.obtenerPorIds(ids))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("No se pueden consultar más de");
+
+        verify(productoRepository, never()).findAllById(any());
+    }
+
+    @Test
+    @DisplayName("Listar productos por cursor usa búsqueda por ID sin conteo")
+    void listarDespuesDe_DeberiaRetornarSlice() {
+        // Given
+        Slice<ProductoFila> slice = new SliceImpl<>(List.of(filaListado), PageRequest.of(0, 1), true);
+        when(productoRepository.listarFilasDespuesDe(0L, PageRequest.of(0, 1))).thenReturn(slice);
+
+        // When
+        Slice<ProductoResponse> response = productoService.listarDespuesDe(0L, 1);
+
+        // Then
+        assertThat(response.getContent()).hasSize(1);
+        assertThat(response.hasNext()).isTrue();
+        verify(productoRepository, never()).findAll(any(Pageable.class));
+    }
+
+    private static ProductoRequest request(String nombre, String precio) {
+        return ProductoRequest.builder()
+                .nombre(nombre)
+                .precio(new BigDecimal(precio))
+                .build();
+    }
+
+    private static DataIntegrityViolationException violacionNombreUnico() {
+        return new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key value violates unique constraint",
+                        new SQLException("duplicate key", "23505"), Producto.UK_NOMBRE));
+    }
+
+    private static ProductoBusqueda fila(Long id, float puntuacion) {
+        return new ProductoBusqueda() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Float getPuntuacion() {
+                return puntuacion;
+            }
+        };
+    }
+
+    private static PrecioActualizado precioActualizado(Long id, String precio) {
+        return new PrecioActualizado() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public BigDecimal getPrecio() {
+                return new BigDecimal(precio);
+            }
+        };
     }
 }